@@ -24,6 +24,8 @@ import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.common.settings.S2FileParameters;
 import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.ew.service.EWProcessorService;
 import eu.csgroup.coprs.ps2.ew.l0c.service.exec.L0cEWExecutionService;
 import eu.csgroup.coprs.ps2.ew.l0c.service.output.L0cEWOutputService;
@@ -45,9 +47,11 @@ public class L0cEWProcessorService extends EWProcessorService<L0cExecutionInput>
             L0cEWSetupService setupService,
             L0cEWExecutionService executionService,
             L0cEWOutputService outputService,
-            MissingOutputProperties missingOutputProperties
+            MissingOutputProperties missingOutputProperties,
+            EWLedgerService ledgerService,
+            EWPrefetchService prefetchService
     ) {
-        super(inputService, setupService, executionService, outputService, missingOutputProperties);
+        super(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     @Override
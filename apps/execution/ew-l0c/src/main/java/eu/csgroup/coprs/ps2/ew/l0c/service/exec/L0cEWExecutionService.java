@@ -19,6 +19,7 @@ package eu.csgroup.coprs.ps2.ew.l0c.service.exec;
 import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.model.l0.L0cExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
+import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWCheckpointService;
 import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWExecutionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -32,8 +33,8 @@ public class L0cEWExecutionService extends L01EWExecutionService<L0cExecutionInp
 
     private static final List<OrchestratorMode> L0C_TASKS = List.of(OrchestratorMode.L0C, OrchestratorMode.OLQC_L0DS, OrchestratorMode.OLQC_L0GR);
 
-    public L0cEWExecutionService(SharedProperties sharedProperties) {
-        super(sharedProperties);
+    public L0cEWExecutionService(SharedProperties sharedProperties, L01EWCheckpointService checkpointService) {
+        super(sharedProperties, checkpointService);
     }
 
     @Override
@@ -41,7 +42,7 @@ public class L0cEWExecutionService extends L01EWExecutionService<L0cExecutionInp
 
         log.info("Starting L0c processing");
 
-        L0C_TASKS.forEach(orchestratorMode -> runMode(executionInput, parentTaskUid, orchestratorMode));
+        runModes(executionInput, parentTaskUid, L0C_TASKS);
 
         log.info("Finished L0c processing");
     }
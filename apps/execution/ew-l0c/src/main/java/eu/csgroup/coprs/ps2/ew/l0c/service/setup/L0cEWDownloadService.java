@@ -17,6 +17,7 @@
 package eu.csgroup.coprs.ps2.ew.l0c.service.setup;
 
 import eu.csgroup.coprs.ps2.core.ew.service.EWDownloadService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,8 +26,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class L0cEWDownloadService extends EWDownloadService {
 
-    public L0cEWDownloadService(ObsService obsService) {
-        super(obsService);
+    public L0cEWDownloadService(ObsService obsService, EWPrefetchService prefetchService) {
+        super(obsService, prefetchService);
     }
 
 }
@@ -18,10 +18,13 @@ package eu.csgroup.coprs.ps2.ew.l0c.service.exec;
 
 import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.model.l0.L0cExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
 import eu.csgroup.coprs.ps2.core.common.model.script.ScriptWrapper;
+import eu.csgroup.coprs.ps2.core.common.settings.FolderParameters;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.common.utils.FileContentUtils;
 import eu.csgroup.coprs.ps2.core.common.utils.ScriptUtils;
+import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWCheckpointService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -29,24 +32,31 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class L0cEWExecutionServiceTest extends AbstractTest {
 
     @Mock
     private SharedProperties sharedProperties;
+    @Mock
+    private L01EWCheckpointService checkpointService;
 
     @InjectMocks
     private L0cEWExecutionService executionService;
 
     @Override
     public void setup() throws Exception {
-        executionService = new L0cEWExecutionService(sharedProperties);
+        executionService = new L0cEWExecutionService(sharedProperties, checkpointService);
     }
 
     @Override
@@ -77,6 +87,138 @@ class L0cEWExecutionServiceTest extends AbstractTest {
         }
     }
 
+    @Test
+    void processing_checkpoint() {
+
+        // Given
+        final L0cExecutionInput executionInput = (L0cExecutionInput) new L0cExecutionInput().setAuxFolder("foo").setInputFolder("foo").setOutputFolder("foo");
+        when(sharedProperties.getMaxParallelTasks()).thenReturn(1);
+        when(sharedProperties.getDemFolderRoot()).thenReturn("foo");
+        when(sharedProperties.getGridFolderRoot()).thenReturn("bar");
+        when(checkpointService.isComplete(executionInput, OrchestratorMode.L0C)).thenReturn(true);
+        when(checkpointService.isComplete(executionInput, OrchestratorMode.OLQC_L0DS)).thenReturn(true);
+
+        try (MockedStatic<ScriptUtils> scriptUtilsMockedStatic = Mockito.mockStatic(ScriptUtils.class)) {
+
+            // When
+            executionService.execute(executionInput, UUID.randomUUID());
+
+            // Then
+            // L0C runs again for OLQC_L0GR, which reads its intermediates from the wiped workspace
+            scriptUtilsMockedStatic.verify(() -> ScriptUtils.run(any(ScriptWrapper.class)), times(2));
+            verify(checkpointService).complete(eq(executionInput), eq(List.of(OrchestratorMode.L0C)), any());
+            verify(checkpointService, never()).complete(eq(executionInput), eq(List.of(OrchestratorMode.OLQC_L0DS)), any());
+            verify(checkpointService).complete(eq(executionInput), eq(List.of(OrchestratorMode.OLQC_L0GR)), any());
+        }
+    }
+
+    @Test
+    void processing_checkpoint_dependentsPending() {
+
+        // Given
+        final L0cExecutionInput executionInput = (L0cExecutionInput) new L0cExecutionInput().setAuxFolder("foo").setInputFolder("foo").setOutputFolder("foo");
+        when(sharedProperties.getMaxParallelTasks()).thenReturn(1);
+        when(sharedProperties.getDemFolderRoot()).thenReturn("foo");
+        when(sharedProperties.getGridFolderRoot()).thenReturn("bar");
+        when(checkpointService.isComplete(executionInput, OrchestratorMode.L0C)).thenReturn(true);
+
+        try (MockedStatic<ScriptUtils> scriptUtilsMockedStatic = Mockito.mockStatic(ScriptUtils.class)) {
+
+            // When
+            executionService.execute(executionInput, UUID.randomUUID());
+
+            // Then
+            scriptUtilsMockedStatic.verify(() -> ScriptUtils.run(any(ScriptWrapper.class)), times(3));
+            verify(checkpointService).complete(eq(executionInput), eq(List.of(OrchestratorMode.L0C)), any());
+        }
+    }
+
+    @Test
+    void processing_checkpoint_allComplete() {
+
+        // Given
+        final L0cExecutionInput executionInput = (L0cExecutionInput) new L0cExecutionInput().setAuxFolder("foo").setInputFolder("foo").setOutputFolder("foo");
+        when(checkpointService.isComplete(eq(executionInput), any())).thenReturn(true);
+
+        try (MockedStatic<ScriptUtils> scriptUtilsMockedStatic = Mockito.mockStatic(ScriptUtils.class)) {
+
+            // When
+            executionService.execute(executionInput, UUID.randomUUID());
+
+            // Then
+            scriptUtilsMockedStatic.verify(() -> ScriptUtils.run(any(ScriptWrapper.class)), never());
+            verify(checkpointService, never()).complete(any(), any(), any());
+        }
+    }
+
+    @Test
+    void processing_checkpoint_concurrentModes() {
+
+        // Given
+        final L0cExecutionInput executionInput = (L0cExecutionInput) new L0cExecutionInput().setAuxFolder("foo").setInputFolder("foo").setOutputFolder("foo");
+        when(sharedProperties.isConcurrentModes()).thenReturn(true);
+        when(sharedProperties.getMaxParallelTasks()).thenReturn(1);
+        when(sharedProperties.getDemFolderRoot()).thenReturn("foo");
+        when(sharedProperties.getGridFolderRoot()).thenReturn("bar");
+        when(checkpointService.isComplete(executionInput, OrchestratorMode.OLQC_L0DS)).thenReturn(true);
+        when(checkpointService.isComplete(executionInput, OrchestratorMode.OLQC_L0GR)).thenReturn(true);
+
+        try (MockedStatic<ScriptUtils> scriptUtilsMockedStatic = Mockito.mockStatic(ScriptUtils.class)) {
+
+            // When
+            executionService.execute(executionInput, UUID.randomUUID());
+
+            // Then
+            scriptUtilsMockedStatic.verify(() -> ScriptUtils.run(any(ScriptWrapper.class)), times(1));
+            verify(checkpointService).complete(eq(executionInput), eq(List.of(OrchestratorMode.L0C)), any());
+            verify(checkpointService, never()).complete(eq(executionInput), eq(List.of(OrchestratorMode.OLQC_L0DS, OrchestratorMode.OLQC_L0GR)), any());
+        }
+    }
+
+    @Test
+    void processing_sharedWorkspace() {
+
+        // Given
+        final L0cExecutionInput executionInput = (L0cExecutionInput) new L0cExecutionInput().setAuxFolder("foo").setInputFolder("foo").setOutputFolder("foo");
+        when(sharedProperties.getMaxParallelTasks()).thenReturn(8);
+        when(sharedProperties.getDemFolderRoot()).thenReturn("foo");
+        when(sharedProperties.getGridFolderRoot()).thenReturn("bar");
+
+        try (MockedStatic<ScriptUtils> scriptUtilsMockedStatic = Mockito.mockStatic(ScriptUtils.class)) {
+
+            // When
+            executionService.execute(executionInput, UUID.randomUUID());
+
+            // Then
+            scriptUtilsMockedStatic.verify(() -> ScriptUtils.run(argThat((ScriptWrapper scriptWrapper) ->
+                    FolderParameters.WORKING_FOLDER_ROOT.equals(scriptWrapper.getWorkdir()) && scriptWrapper.getCommand().contains("8"))), times(3));
+        }
+    }
+
+    @Test
+    void processing_concurrentModes_singlePending() {
+
+        // Given
+        final L0cExecutionInput executionInput = (L0cExecutionInput) new L0cExecutionInput().setAuxFolder("foo").setInputFolder("foo").setOutputFolder("foo");
+        when(sharedProperties.isConcurrentModes()).thenReturn(true);
+        when(sharedProperties.getMaxParallelTasks()).thenReturn(8);
+        when(sharedProperties.getDemFolderRoot()).thenReturn("foo");
+        when(sharedProperties.getGridFolderRoot()).thenReturn("bar");
+        when(checkpointService.isComplete(executionInput, OrchestratorMode.OLQC_L0DS)).thenReturn(true);
+
+        try (MockedStatic<ScriptUtils> scriptUtilsMockedStatic = Mockito.mockStatic(ScriptUtils.class)) {
+
+            // When
+            executionService.execute(executionInput, UUID.randomUUID());
+
+            // Then
+            // The only pending mode of the second stage runs alone, in the shared workspace
+            scriptUtilsMockedStatic.verify(() -> ScriptUtils.run(argThat((ScriptWrapper scriptWrapper) ->
+                    FolderParameters.WORKING_FOLDER_ROOT.equals(scriptWrapper.getWorkdir()) && scriptWrapper.getCommand().contains("8"))), times(2));
+            verify(checkpointService).complete(eq(executionInput), eq(List.of(OrchestratorMode.OLQC_L0GR)), any());
+        }
+    }
+
     @Test
     void getLevel() {
         assertEquals("L0c", executionService.getLevel());
@@ -16,11 +16,13 @@
 
 package eu.csgroup.coprs.ps2.ew.l0c.service.setup;
 
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.common.model.aux.AuxProductType;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProductFamily;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -42,7 +44,7 @@ class L0cEWDownloadServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        l0cEWDownloadService = new L0cEWDownloadService(obsService);
+        l0cEWDownloadService = new L0cEWDownloadService(obsService, new EWPrefetchService(new SharedProperties(), obsService));
     }
 
     @Override
@@ -21,6 +21,8 @@ import eu.csgroup.coprs.ps2.core.common.model.trace.missing.JobProcessingTaskMis
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.MissingOutputProductType;
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.ew.service.EWProcessorService;
 import eu.csgroup.coprs.ps2.ew.l0u.service.exec.L0uEWExecutionService;
 import eu.csgroup.coprs.ps2.ew.l0u.service.output.L0uEWOutputService;
@@ -41,9 +43,11 @@ public class L0uEWProcessorService extends EWProcessorService<L0uExecutionInput>
             L0uEWSetupService setupService,
             L0uEWExecutionService executionService,
             L0uEWOutputService outputService,
-            MissingOutputProperties missingOutputProperties
+            MissingOutputProperties missingOutputProperties,
+            EWLedgerService ledgerService,
+            EWPrefetchService prefetchService
     ) {
-        super(inputService, setupService, executionService, outputService, missingOutputProperties);
+        super(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     @Override
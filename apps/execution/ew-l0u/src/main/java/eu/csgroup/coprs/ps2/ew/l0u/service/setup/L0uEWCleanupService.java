@@ -19,7 +19,7 @@ package eu.csgroup.coprs.ps2.ew.l0u.service.setup;
 import eu.csgroup.coprs.ps2.core.common.config.CleanupProperties;
 import eu.csgroup.coprs.ps2.core.common.model.l0.L0uExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
-import eu.csgroup.coprs.ps2.core.common.utils.ProcessUtils;
+import eu.csgroup.coprs.ps2.core.common.utils.ScriptUtils;
 import eu.csgroup.coprs.ps2.core.ew.service.EWCleanupService;
 import eu.csgroup.coprs.ps2.ew.l0u.settings.L0uFolderParameters;
 import lombok.extern.slf4j.Slf4j;
@@ -27,20 +27,11 @@ import org.springframework.stereotype.Component;
 
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.Set;
 
 @Slf4j
 @Component
 public class L0uEWCleanupService extends EWCleanupService<L0uExecutionInput> {
 
-    private static final Set<String> PROCESSES = Set.of(
-            "EISPProcessor",
-            "launch_eisp_ing_typ.bash",
-            "launch_eisp.bash",
-            "launch_merge.bash",
-            "launch_telemetry.bash"
-    );
-
     protected L0uEWCleanupService(CleanupProperties cleanupProperties) {
         super(cleanupProperties);
     }
@@ -77,7 +68,8 @@ public class L0uEWCleanupService extends EWCleanupService<L0uExecutionInput> {
     }
 
     private void killProcesses() {
-        PROCESSES.forEach(ProcessUtils::kill);
+        // The processor and its launch scripts may outlive the script which started them
+        ScriptUtils.killSpawned();
     }
 
 }
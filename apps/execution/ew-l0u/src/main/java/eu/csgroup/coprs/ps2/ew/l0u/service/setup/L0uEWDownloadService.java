@@ -18,6 +18,7 @@ package eu.csgroup.coprs.ps2.ew.l0u.service.setup;
 
 import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.ew.service.EWDownloadService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
 import eu.csgroup.coprs.ps2.ew.l0u.settings.L0uFolderParameters;
 import lombok.extern.slf4j.Slf4j;
@@ -29,8 +30,8 @@ import java.util.Set;
 @Component
 public class L0uEWDownloadService extends EWDownloadService {
 
-    public L0uEWDownloadService(ObsService obsService) {
-        super(obsService);
+    public L0uEWDownloadService(ObsService obsService, EWPrefetchService prefetchService) {
+        super(obsService, prefetchService);
     }
 
     @Override
@@ -19,7 +19,7 @@ package eu.csgroup.coprs.ps2.ew.l0u.service.setup;
 import eu.csgroup.coprs.ps2.core.common.config.CleanupProperties;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
-import eu.csgroup.coprs.ps2.core.common.utils.ProcessUtils;
+import eu.csgroup.coprs.ps2.core.common.utils.ScriptUtils;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
@@ -49,7 +49,7 @@ class L0uEWCleanupServiceTest extends AbstractTest {
         try (
                 MockedStatic<FileOperationUtils> fileOperationUtilsMockedStatic = Mockito.mockStatic(FileOperationUtils.class);
                 MockedStatic<Files> filesMockedStatic = Mockito.mockStatic(Files.class);
-                MockedStatic<ProcessUtils> processUtilsMockedStatic = Mockito.mockStatic(ProcessUtils.class);
+                MockedStatic<ScriptUtils> scriptUtilsMockedStatic = Mockito.mockStatic(ScriptUtils.class);
         ) {
             filesMockedStatic.when(() -> Files.exists(any())).thenReturn(true);
 
@@ -57,7 +57,7 @@ class L0uEWCleanupServiceTest extends AbstractTest {
             cleanupService.cleanAndPrepare("foo");
 
             // Then
-            processUtilsMockedStatic.verify(() -> ProcessUtils.kill(any()), atLeast(1));
+            scriptUtilsMockedStatic.verify(() -> ScriptUtils.killSpawned(), atLeast(1));
             fileOperationUtilsMockedStatic.verify(() -> FileOperationUtils.deleteFiles(any(), any()), atLeast(1));
             fileOperationUtilsMockedStatic.verify(() -> FileOperationUtils.deleteFolderContent(any()), atLeast(1));
             fileOperationUtilsMockedStatic.verify(() -> FileOperationUtils.createFolders(any()), atLeast(1));
@@ -70,7 +70,7 @@ class L0uEWCleanupServiceTest extends AbstractTest {
         try (
                 MockedStatic<FileOperationUtils> fileOperationUtilsMockedStatic = Mockito.mockStatic(FileOperationUtils.class);
                 MockedStatic<Files> filesMockedStatic = Mockito.mockStatic(Files.class);
-                MockedStatic<ProcessUtils> processUtilsMockedStatic = Mockito.mockStatic(ProcessUtils.class);
+                MockedStatic<ScriptUtils> scriptUtilsMockedStatic = Mockito.mockStatic(ScriptUtils.class);
         ) {
             filesMockedStatic.when(() -> Files.exists(any())).thenReturn(true);
 
@@ -78,7 +78,7 @@ class L0uEWCleanupServiceTest extends AbstractTest {
             cleanupService.clean(null);
 
             // Then
-            processUtilsMockedStatic.verify(() -> ProcessUtils.kill(any()), atLeast(1));
+            scriptUtilsMockedStatic.verify(() -> ScriptUtils.killSpawned(), atLeast(1));
             fileOperationUtilsMockedStatic.verify(() -> FileOperationUtils.deleteFolderContent(any()), atLeast(1));
         }
     }
@@ -16,9 +16,11 @@
 
 package eu.csgroup.coprs.ps2.ew.l0u.service.setup;
 
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProductFamily;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -39,7 +41,7 @@ class L0uEWDownloadServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        l0uEWDownloadService = new L0uEWDownloadService(obsService);
+        l0uEWDownloadService = new L0uEWDownloadService(obsService, new EWPrefetchService(new SharedProperties(), obsService));
     }
 
     @Override
@@ -20,10 +20,12 @@ import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
 import eu.csgroup.coprs.ps2.core.common.model.processing.Level;
+import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWCheckpointService;
 import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWExecutionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -34,8 +36,8 @@ public class L1abEWExecutionService extends L01EWExecutionService<L1ExecutionInp
     private static final List<OrchestratorMode> L1A_TASKS = List.of(OrchestratorMode.L1A_FORMAT_DS, OrchestratorMode.L1A_FORMAT_GR);
     private static final List<OrchestratorMode> L1B_TASKS = List.of(OrchestratorMode.OLQC_L1BDS, OrchestratorMode.L1B_FORMAT_GR);
 
-    protected L1abEWExecutionService(SharedProperties sharedProperties) {
-        super(sharedProperties);
+    protected L1abEWExecutionService(SharedProperties sharedProperties, L01EWCheckpointService checkpointService) {
+        super(sharedProperties, checkpointService);
     }
 
     @Override
@@ -43,14 +45,18 @@ public class L1abEWExecutionService extends L01EWExecutionService<L1ExecutionInp
 
         log.info("Starting L1ab processing");
 
+        final List<OrchestratorMode> tasks = new ArrayList<>();
+
         if (executionInput.getDatatakeType().getLevelList().contains(Level.L1A)) {
-            L1A_TASKS.forEach(orchestratorMode -> runMode(executionInput, parentTaskUid, orchestratorMode));
+            tasks.addAll(L1A_TASKS);
         }
 
         if (executionInput.getDatatakeType().getLevelList().contains(Level.L1B)) {
-            L1B_TASKS.forEach(orchestratorMode -> runMode(executionInput, parentTaskUid, orchestratorMode));
+            tasks.addAll(L1B_TASKS);
         }
 
+        runModes(executionInput, parentTaskUid, tasks);
+
         log.info("Finished L1ab processing");
     }
 
@@ -17,6 +17,7 @@
 package eu.csgroup.coprs.ps2.ew.l1ab.service.setup;
 
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
 import eu.csgroup.coprs.ps2.core.ew.service.l1.L1EWInputService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,6 +29,10 @@ import java.util.stream.Collectors;
 @Service
 public class L1abEWInputService extends L1EWInputService {
 
+    public L1abEWInputService(ClaimCheckService claimCheckService) {
+        super(claimCheckService);
+    }
+
     @Override
     public Set<String> getTaskInputs(L1ExecutionInput executionInput) {
         return executionInput.getCustomTaskInputs()
@@ -24,6 +24,8 @@ import eu.csgroup.coprs.ps2.core.common.model.trace.missing.JobProcessingTaskMis
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.ew.l1ab.service.exec.L1abEWExecutionService;
 import eu.csgroup.coprs.ps2.ew.l1ab.service.output.L1abEWOutputService;
 import eu.csgroup.coprs.ps2.ew.l1ab.service.setup.L1abEWInputService;
@@ -48,6 +50,10 @@ class L1abEWProcessorServiceTest extends AbstractTest {
     private L1abEWExecutionService executionService;
     @Mock
     private L1abEWOutputService outputService;
+    @Mock
+    private EWLedgerService ledgerService;
+    @Mock
+    private EWPrefetchService prefetchService;
 
     @InjectMocks
     private L1abEWProcessorService processorService;
@@ -56,7 +62,7 @@ class L1abEWProcessorServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        processorService = new L1abEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties);
+        processorService = new L1abEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     @Override
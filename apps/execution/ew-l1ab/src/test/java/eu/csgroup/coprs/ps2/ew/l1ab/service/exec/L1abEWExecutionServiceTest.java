@@ -22,6 +22,7 @@ import eu.csgroup.coprs.ps2.core.common.model.processing.DatatakeType;
 import eu.csgroup.coprs.ps2.core.common.model.script.ScriptWrapper;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.common.utils.ScriptUtils;
+import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWCheckpointService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -39,13 +40,15 @@ class L1abEWExecutionServiceTest extends AbstractTest {
 
     @Mock
     private SharedProperties sharedProperties;
+    @Mock
+    private L01EWCheckpointService checkpointService;
 
     @InjectMocks
     private L1abEWExecutionService executionService;
 
     @Override
     public void setup() throws Exception {
-        executionService = new L1abEWExecutionService(sharedProperties);
+        executionService = new L1abEWExecutionService(sharedProperties, checkpointService);
     }
 
     @Override
@@ -17,8 +17,10 @@
 package eu.csgroup.coprs.ps2.ew.l1ab.service.setup;
 
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
 
 import java.util.Set;
 
@@ -26,11 +28,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class L1abEWInputServiceTest extends AbstractTest {
 
+    @Mock
+    private ClaimCheckService claimCheckService;
+
     private L1abEWInputService inputService;
 
     @Override
     public void setup() throws Exception {
-        inputService = new L1abEWInputService();
+        inputService = new L1abEWInputService(claimCheckService);
     }
 
     @Override
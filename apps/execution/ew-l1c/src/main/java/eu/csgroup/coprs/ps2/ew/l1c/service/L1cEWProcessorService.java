@@ -20,6 +20,8 @@ import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.MissingOutputProductType;
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.ew.service.l1.L1EWProcessorService;
 import eu.csgroup.coprs.ps2.ew.l1c.service.exec.L1cEWExecutionService;
 import eu.csgroup.coprs.ps2.ew.l1c.service.output.L1cEWOutputService;
@@ -41,9 +43,11 @@ public class L1cEWProcessorService extends L1EWProcessorService {
             L1cEWSetupService setupService,
             L1cEWExecutionService executionService,
             L1cEWOutputService outputService,
-            MissingOutputProperties missingOutputProperties
+            MissingOutputProperties missingOutputProperties,
+            EWLedgerService ledgerService,
+            EWPrefetchService prefetchService
     ) {
-        super(inputService, setupService, executionService, outputService, missingOutputProperties);
+        super(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     @Override
@@ -19,6 +19,7 @@ package eu.csgroup.coprs.ps2.ew.l1c.service.exec;
 import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
+import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWCheckpointService;
 import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWExecutionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -34,8 +35,8 @@ public class L1cEWExecutionService extends L01EWExecutionService<L1ExecutionInpu
     private static final List<OrchestratorMode> DS_TASKS = List.of(OrchestratorMode.OLQC_L1CDS);
     private static final List<OrchestratorMode> TL_TASKS = List.of(OrchestratorMode.L1C_TILE);
 
-    protected L1cEWExecutionService(SharedProperties sharedProperties) {
-        super(sharedProperties);
+    protected L1cEWExecutionService(SharedProperties sharedProperties, L01EWCheckpointService checkpointService) {
+        super(sharedProperties, checkpointService);
     }
 
     @Override
@@ -45,7 +46,7 @@ public class L1cEWExecutionService extends L01EWExecutionService<L1ExecutionInpu
 
         List<OrchestratorMode> tasks = StringUtils.hasText(executionInput.getTile()) ? TL_TASKS : DS_TASKS;
 
-        tasks.forEach(orchestratorMode -> runMode(executionInput, parentTaskUid, orchestratorMode));
+        runModes(executionInput, parentTaskUid, tasks);
 
         log.info("Finished L1c processing");
     }
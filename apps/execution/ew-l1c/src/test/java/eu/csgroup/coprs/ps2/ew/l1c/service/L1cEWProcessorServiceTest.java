@@ -22,6 +22,8 @@ import eu.csgroup.coprs.ps2.core.common.model.trace.missing.MissingOutputProduct
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.ew.l1c.service.exec.L1cEWExecutionService;
 import eu.csgroup.coprs.ps2.ew.l1c.service.output.L1cEWOutputService;
 import eu.csgroup.coprs.ps2.ew.l1c.service.setup.L1cEWInputService;
@@ -44,6 +46,10 @@ class L1cEWProcessorServiceTest extends AbstractTest {
     private L1cEWExecutionService executionService;
     @Mock
     private L1cEWOutputService outputService;
+    @Mock
+    private EWLedgerService ledgerService;
+    @Mock
+    private EWPrefetchService prefetchService;
 
     @InjectMocks
     private L1cEWProcessorService processorService;
@@ -52,7 +58,7 @@ class L1cEWProcessorServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        processorService = new L1cEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties);
+        processorService = new L1cEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     @Override
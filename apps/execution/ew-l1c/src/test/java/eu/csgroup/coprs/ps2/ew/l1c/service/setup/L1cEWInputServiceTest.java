@@ -17,8 +17,10 @@
 package eu.csgroup.coprs.ps2.ew.l1c.service.setup;
 
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
 
 import java.util.Set;
 
@@ -26,11 +28,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class L1cEWInputServiceTest extends AbstractTest {
 
+    @Mock
+    private ClaimCheckService claimCheckService;
+
     private L1cEWInputService inputService;
 
     @Override
     public void setup() throws Exception {
-        inputService = new L1cEWInputService();
+        inputService = new L1cEWInputService(claimCheckService);
     }
 
     @Override
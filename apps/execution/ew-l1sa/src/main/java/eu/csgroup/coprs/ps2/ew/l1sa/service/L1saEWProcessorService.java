@@ -19,6 +19,8 @@ package eu.csgroup.coprs.ps2.ew.l1sa.service;
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.ew.service.l1.L1sabEWProcessorService;
 import eu.csgroup.coprs.ps2.ew.l1sa.service.exec.L1saEWExecutionService;
 import eu.csgroup.coprs.ps2.ew.l1sa.service.output.L1saEWOutputService;
@@ -39,9 +41,11 @@ public class L1saEWProcessorService extends L1sabEWProcessorService {
             L1saEWSetupService setupService,
             L1saEWExecutionService executionService,
             L1saEWOutputService outputService,
-            MissingOutputProperties missingOutputProperties
+            MissingOutputProperties missingOutputProperties,
+            EWLedgerService ledgerService,
+            EWPrefetchService prefetchService
     ) {
-        super(inputService, setupService, executionService, outputService, missingOutputProperties);
+        super(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     @Override
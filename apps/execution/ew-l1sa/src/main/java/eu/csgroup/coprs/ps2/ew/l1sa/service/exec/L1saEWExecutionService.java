@@ -19,6 +19,7 @@ package eu.csgroup.coprs.ps2.ew.l1sa.service.exec;
 import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
+import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWCheckpointService;
 import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWExecutionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -29,8 +30,8 @@ import java.util.UUID;
 @Service
 public class L1saEWExecutionService extends L01EWExecutionService<L1ExecutionInput> {
 
-    public L1saEWExecutionService(SharedProperties sharedProperties) {
-        super(sharedProperties);
+    public L1saEWExecutionService(SharedProperties sharedProperties, L01EWCheckpointService checkpointService) {
+        super(sharedProperties, checkpointService);
     }
 
     @Override
@@ -22,6 +22,7 @@ import eu.csgroup.coprs.ps2.core.common.settings.S2FileParameters;
 import eu.csgroup.coprs.ps2.core.common.utils.ArchiveUtils;
 import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
 import eu.csgroup.coprs.ps2.core.ew.service.EWDownloadService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -38,8 +39,8 @@ public class L1saEWDownloadService extends EWDownloadService {
 
     private static final String AUX_ECMWFD_REGEX = "S2D.*";
 
-    public L1saEWDownloadService(ObsService obsService) {
-        super(obsService);
+    public L1saEWDownloadService(ObsService obsService, EWPrefetchService prefetchService) {
+        super(obsService, prefetchService);
     }
 
     @Override
@@ -53,7 +54,7 @@ public class L1saEWDownloadService extends EWDownloadService {
 
         if (!fileInfoSet.isEmpty()) {
 
-            obsService.download(fileInfoSet, parentUid);
+            prefetchService.download(fileInfoSet, parentUid);
 
             fileInfoSet.forEach(fileInfo -> {
 
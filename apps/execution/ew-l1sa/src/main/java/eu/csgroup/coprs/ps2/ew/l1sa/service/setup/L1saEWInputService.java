@@ -19,6 +19,7 @@ package eu.csgroup.coprs.ps2.ew.l1sa.service.setup;
 import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProductFamily;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
 import eu.csgroup.coprs.ps2.core.ew.service.l1.L1EWInputService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -30,6 +31,10 @@ import java.util.stream.Collectors;
 @Service
 public class L1saEWInputService extends L1EWInputService {
 
+    public L1saEWInputService(ClaimCheckService claimCheckService) {
+        super(claimCheckService);
+    }
+
     @Override
     public Set<String> getTaskInputs(L1ExecutionInput executionInput) {
         final Set<String> inputs = executionInput.getFiles().stream()
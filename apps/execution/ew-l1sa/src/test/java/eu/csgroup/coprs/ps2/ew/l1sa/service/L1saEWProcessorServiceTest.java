@@ -24,6 +24,8 @@ import eu.csgroup.coprs.ps2.core.common.model.trace.missing.JobProcessingTaskMis
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.ew.l1sa.service.exec.L1saEWExecutionService;
 import eu.csgroup.coprs.ps2.ew.l1sa.service.output.L1saEWOutputService;
 import eu.csgroup.coprs.ps2.ew.l1sa.service.setup.L1saEWInputService;
@@ -47,6 +49,10 @@ class L1saEWProcessorServiceTest extends AbstractTest {
     private L1saEWExecutionService executionService;
     @Mock
     private L1saEWOutputService outputService;
+    @Mock
+    private EWLedgerService ledgerService;
+    @Mock
+    private EWPrefetchService prefetchService;
 
     @InjectMocks
     private L1saEWProcessorService processorService;
@@ -55,7 +61,7 @@ class L1saEWProcessorServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        processorService = new L1saEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties);
+        processorService = new L1saEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     @Override
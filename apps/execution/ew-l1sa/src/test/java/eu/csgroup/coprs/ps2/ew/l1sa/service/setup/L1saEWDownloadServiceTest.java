@@ -16,11 +16,13 @@
 
 package eu.csgroup.coprs.ps2.ew.l1sa.service.setup;
 
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.common.model.aux.AuxProductType;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.common.utils.ArchiveUtils;
 import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -45,7 +47,7 @@ class L1saEWDownloadServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        downloadService = new L1saEWDownloadService(obsService);
+        downloadService = new L1saEWDownloadService(obsService, new EWPrefetchService(new SharedProperties(), obsService));
     }
 
     @Override
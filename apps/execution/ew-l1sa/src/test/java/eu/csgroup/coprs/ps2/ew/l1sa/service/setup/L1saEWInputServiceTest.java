@@ -19,8 +19,10 @@ package eu.csgroup.coprs.ps2.ew.l1sa.service.setup;
 import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProductFamily;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
 
 import java.util.Set;
 
@@ -28,11 +30,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class L1saEWInputServiceTest extends AbstractTest {
 
+    @Mock
+    private ClaimCheckService claimCheckService;
+
     private L1saEWInputService inputService;
 
     @Override
     public void setup() throws Exception {
-        inputService = new L1saEWInputService();
+        inputService = new L1saEWInputService(claimCheckService);
     }
 
     @Override
@@ -20,6 +20,7 @@ import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
 import eu.csgroup.coprs.ps2.core.common.utils.FileContentUtils;
+import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWCheckpointService;
 import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWExecutionService;
 import eu.csgroup.coprs.ps2.core.ew.settings.L1EWParameters;
 import lombok.extern.slf4j.Slf4j;
@@ -33,8 +34,8 @@ import java.util.UUID;
 @Service
 public class L1sbEWExecutionService extends L01EWExecutionService<L1ExecutionInput> {
 
-    public L1sbEWExecutionService(SharedProperties sharedProperties) {
-        super(sharedProperties);
+    public L1sbEWExecutionService(SharedProperties sharedProperties, L01EWCheckpointService checkpointService) {
+        super(sharedProperties, checkpointService);
     }
 
     @Override
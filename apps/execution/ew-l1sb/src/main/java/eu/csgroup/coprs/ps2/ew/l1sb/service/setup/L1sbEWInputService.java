@@ -17,6 +17,7 @@
 package eu.csgroup.coprs.ps2.ew.l1sb.service.setup;
 
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
 import eu.csgroup.coprs.ps2.core.ew.service.l1.L1EWInputService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,6 +28,10 @@ import java.util.Set;
 @Service
 public class L1sbEWInputService extends L1EWInputService {
 
+    public L1sbEWInputService(ClaimCheckService claimCheckService) {
+        super(claimCheckService);
+    }
+
     @Override
     public Set<String> getTaskInputs(L1ExecutionInput executionInput) {
         return executionInput.getCustomTaskInputs();
@@ -24,6 +24,8 @@ import eu.csgroup.coprs.ps2.core.common.model.trace.missing.JobProcessingTaskMis
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.ew.l1sb.service.exec.L1sbEWExecutionService;
 import eu.csgroup.coprs.ps2.ew.l1sb.service.output.L1sbEWOutputService;
 import eu.csgroup.coprs.ps2.ew.l1sb.service.setup.L1sbEWInputService;
@@ -47,6 +49,10 @@ class L1sbEWProcessorServiceTest extends AbstractTest {
     private L1sbEWExecutionService executionService;
     @Mock
     private L1sbEWOutputService outputService;
+    @Mock
+    private EWLedgerService ledgerService;
+    @Mock
+    private EWPrefetchService prefetchService;
 
     @InjectMocks
     private L1sbEWProcessorService processorService;
@@ -55,7 +61,7 @@ class L1sbEWProcessorServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        processorService = new L1sbEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties);
+        processorService = new L1sbEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     @Override
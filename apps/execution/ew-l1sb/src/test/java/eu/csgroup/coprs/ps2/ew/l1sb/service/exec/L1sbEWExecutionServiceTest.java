@@ -23,6 +23,7 @@ import eu.csgroup.coprs.ps2.core.common.model.script.ScriptWrapper;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.common.utils.FileContentUtils;
 import eu.csgroup.coprs.ps2.core.common.utils.ScriptUtils;
+import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWCheckpointService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -41,13 +42,15 @@ class L1sbEWExecutionServiceTest extends AbstractTest {
 
     @Mock
     private SharedProperties sharedProperties;
+    @Mock
+    private L01EWCheckpointService checkpointService;
 
     @InjectMocks
     private L1sbEWExecutionService executionService;
 
     @Override
     public void setup() throws Exception {
-        executionService = new L1sbEWExecutionService(sharedProperties);
+        executionService = new L1sbEWExecutionService(sharedProperties, checkpointService);
     }
 
     @Override
@@ -16,8 +16,6 @@
 
 package eu.csgroup.coprs.ps2.ew.l2ds.service.output;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.csgroup.coprs.ps2.core.common.exception.ProcessingException;
 import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.common.model.l2.L2ExecutionInput;
@@ -37,11 +35,9 @@ import java.util.stream.Collectors;
 @Service
 public class L2dsEWMessageService extends EWMessageService<L2ExecutionInput> {
 
-    private final ObjectMapper objectMapper;
     private final ObsBucketProperties bucketProperties;
 
-    public L2dsEWMessageService(ObjectMapper objectMapper, ObsBucketProperties bucketProperties) {
-        this.objectMapper = objectMapper;
+    public L2dsEWMessageService(ObsBucketProperties bucketProperties) {
         this.bucketProperties = bucketProperties;
     }
 
@@ -62,12 +58,7 @@ public class L2dsEWMessageService extends EWMessageService<L2ExecutionInput> {
                 .stream()
                 .map(tile -> {
 
-                    final L2ExecutionInput tileInput;
-                    try {
-                        tileInput = objectMapper.readValue(objectMapper.writeValueAsString(executionInput), L2ExecutionInput.class);
-                    } catch (JsonProcessingException e) {
-                        throw new ProcessingException("Something went horribly wrong");
-                    }
+                    final L2ExecutionInput tileInput = executionInput.copy();
 
                     tileInput.setTile(tile);
                     tileInput.setL2aDsPath(l2ADsPath);
@@ -21,6 +21,8 @@ import eu.csgroup.coprs.ps2.core.common.model.trace.missing.JobProcessingTaskMis
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.ew.l2ds.service.exec.L2dsEWExecutionService;
 import eu.csgroup.coprs.ps2.ew.l2ds.service.output.L2dsEWOutputService;
 import eu.csgroup.coprs.ps2.ew.l2ds.service.setup.L2dsEWInputService;
@@ -43,6 +45,10 @@ class L2dsEWProcessorServiceTest extends AbstractTest {
     private L2dsEWExecutionService executionService;
     @Mock
     private L2dsEWOutputService outputService;
+    @Mock
+    private EWLedgerService ledgerService;
+    @Mock
+    private EWPrefetchService prefetchService;
 
     @InjectMocks
     private L2dsEWProcessorService processorService;
@@ -51,7 +57,7 @@ class L2dsEWProcessorServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        processorService = new L2dsEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties);
+        processorService = new L2dsEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     @Override
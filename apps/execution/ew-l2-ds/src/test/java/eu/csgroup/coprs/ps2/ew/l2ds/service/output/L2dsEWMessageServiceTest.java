@@ -16,13 +16,11 @@
 
 package eu.csgroup.coprs.ps2.ew.l2ds.service.output;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.common.model.l2.L2ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProductFamily;
+import eu.csgroup.coprs.ps2.core.common.settings.MessageParameters;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.obs.config.ObsBucketProperties;
 import org.junit.jupiter.api.Test;
@@ -32,8 +30,10 @@ import org.mockito.Mock;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.Mockito.when;
 
 class L2dsEWMessageServiceTest extends AbstractTest {
@@ -47,10 +47,7 @@ class L2dsEWMessageServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        final ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-        messageService = new L2dsEWMessageService(objectMapper, bucketProperties);
+        messageService = new L2dsEWMessageService(bucketProperties);
     }
 
     @Override
@@ -69,6 +66,14 @@ class L2dsEWMessageServiceTest extends AbstractTest {
         final Set<ProcessingMessage> messages = messageService.doBuild(executionInput, fileInfoByFamily, "output");
         // Then
         assertEquals(3, messages.size());
+        // Each tile gets its own input while the datastrip one is left untouched
+        final Set<String> tiles = messages.stream()
+                .map(message -> message.getAdditionalFields().get(MessageParameters.EXECUTION_INPUT_FIELD))
+                .filter(L2ExecutionInput.class::isInstance)
+                .map(input -> ((L2ExecutionInput) input).getTile())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("tile1", "tile2"), tiles);
+        assertNotEquals("tile1", executionInput.getTile());
     }
 
 }
@@ -17,6 +17,7 @@
 package eu.csgroup.coprs.ps2.ew.l2tl.service.setup;
 
 import eu.csgroup.coprs.ps2.core.common.model.l2.L2ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
 import eu.csgroup.coprs.ps2.core.ew.service.l2.L2EWInputService;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +26,10 @@ import java.util.Set;
 @Service
 public class L2tlEWInputService extends L2EWInputService {
 
+    public L2tlEWInputService(ClaimCheckService claimCheckService) {
+        super(claimCheckService);
+    }
+
     @Override
     public Set<String> getTaskInputs(L2ExecutionInput executionInput) {
         return Set.of(executionInput.getTile());
@@ -21,6 +21,8 @@ import eu.csgroup.coprs.ps2.core.common.model.trace.missing.JobProcessingTaskMis
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.ew.l2tl.service.exec.L2tlEWExecutionService;
 import eu.csgroup.coprs.ps2.ew.l2tl.service.output.L2tlEWOutputService;
 import eu.csgroup.coprs.ps2.ew.l2tl.service.setup.L2tlEWInputService;
@@ -43,6 +45,10 @@ class L2tlEWProcessorServiceTest extends AbstractTest {
     private L2tlEWExecutionService executionService;
     @Mock
     private L2tlEWOutputService outputService;
+    @Mock
+    private EWLedgerService ledgerService;
+    @Mock
+    private EWPrefetchService prefetchService;
 
     @InjectMocks
     private L2tlEWProcessorService processorService;
@@ -51,7 +57,7 @@ class L2tlEWProcessorServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        processorService = new L2tlEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties);
+        processorService = new L2tlEWProcessorService(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     @Override
@@ -52,9 +52,83 @@ public class SharedProperties {
      */
     private int maxParallelTasks = 8;
 
+    /**
+     * Maximum number of messages about different items processed in parallel when consuming in batch mode (for PW, EW refusing to start above 1)
+     */
+    private int messageParallelism = 1;
+
+    /**
+     * Whether independent orchestrator modes run concurrently, each in its own working folder, instead of one after the other in the shared
+     * workspace (for L0 & L1)
+     */
+    private boolean concurrentModes = false;
+
+    /**
+     * Longest duration in seconds of a job, the max.poll.interval.ms of execution workers consuming in batch mode having to cover max.poll.records
+     * of them
+     */
+    private long maxJobDuration = 3600;
+
     /**
      * Timeout in seconds for each orchestrator step to complete (for L1)
      */
     private int killTimeout = 7200;
 
+    /**
+     * Whether the files of execution inputs are stored once in the shared folder and only referenced by the messages
+     */
+    private boolean claimCheck = false;
+
+    /**
+     * Delay in hours after which stored execution input files are deleted from the shared folder
+     */
+    private long claimCheckRetention = 168;
+
+    /**
+     * Whether execution workers record the progress of their jobs in the shared folder, so that a message delivered again is not processed twice
+     */
+    private boolean ledger = false;
+
+    /**
+     * Delay in hours after which job records are deleted from the shared folder
+     */
+    private long ledgerRetention = 168;
+
+    /**
+     * Whether orchestrator modes record their outputs in the shared folder once complete, so that a retried job skips the modes whose outputs are
+     * still intact (for L0 & L1)
+     */
+    private boolean checkpoint = false;
+
+    /**
+     * Delay in hours after which mode checkpoints are deleted from the shared folder
+     */
+    private long checkpointRetention = 168;
+
+    /**
+     * Interval in seconds between two samples of the resources used by processing tasks, 0 disabling the sampling (for L0 & L1 & L2)
+     */
+    private long resourceSamplingInterval = 10;
+
+    /**
+     * Delay in seconds after which a processing task writing no logs and using neither CPU nor storage is considered stalled and killed, 0 disabling
+     * the check, which is opt-in (for L0 & L1 & L2)
+     */
+    private long stallTimeout = 0;
+
+    /**
+     * Whether execution workers consuming in batch mode download the input files of the next jobs of a poll while the current one runs
+     */
+    private boolean prefetch = false;
+
+    /**
+     * Folder where the input files of the next jobs are staged, best on the same filesystem as the workspace so that they are moved instead of copied
+     */
+    private String prefetchFolder = "/prefetch";
+
+    /**
+     * Size in GiB above which no more input files are staged
+     */
+    private long prefetchMaxSize = 50;
+
 }
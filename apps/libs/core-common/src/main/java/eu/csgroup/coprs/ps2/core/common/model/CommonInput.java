@@ -17,6 +17,7 @@
 package eu.csgroup.coprs.ps2.core.common.model;
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
@@ -26,6 +27,7 @@ import java.util.Set;
 
 @Getter
 @Setter
+@NoArgsConstructor
 @Accessors(chain = true)
 public class CommonInput {
 
@@ -36,4 +38,13 @@ public class CommonInput {
     private Instant t0PdgsDate;
     private Set<String> customTaskInputs = new HashSet<>();
 
+    protected CommonInput(CommonInput other) {
+        this.satellite = other.satellite;
+        this.station = other.station;
+        this.startTime = other.startTime;
+        this.stopTime = other.stopTime;
+        this.t0PdgsDate = other.t0PdgsDate;
+        this.customTaskInputs = other.customTaskInputs != null ? new HashSet<>(other.customTaskInputs) : null;
+    }
+
 }
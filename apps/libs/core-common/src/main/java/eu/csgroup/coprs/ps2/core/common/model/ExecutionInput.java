@@ -17,6 +17,7 @@
 package eu.csgroup.coprs.ps2.core.common.model;
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
@@ -24,9 +25,18 @@ import java.util.Set;
 
 @Getter
 @Setter
+@NoArgsConstructor
 @Accessors(chain = true)
 public abstract class ExecutionInput extends CommonInput {
 
     private Set<FileInfo> files;
 
+    /**
+     * Copies another input, its files being shared since they are only ever replaced as a whole
+     */
+    protected ExecutionInput(ExecutionInput other) {
+        super(other);
+        this.files = other.files;
+    }
+
 }
@@ -17,11 +17,13 @@
 package eu.csgroup.coprs.ps2.core.common.model;
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
 @Getter
 @Setter
+@NoArgsConstructor
 @Accessors(chain = true)
 public abstract class L012ExecutionInput extends ExecutionInput {
 
@@ -31,4 +33,13 @@ public abstract class L012ExecutionInput extends ExecutionInput {
     private String outputFolder;
     private String tile;
 
+    protected L012ExecutionInput(L012ExecutionInput other) {
+        super(other);
+        this.datastrip = other.datastrip;
+        this.auxFolder = other.auxFolder;
+        this.inputFolder = other.inputFolder;
+        this.outputFolder = other.outputFolder;
+        this.tile = other.tile;
+    }
+
 }
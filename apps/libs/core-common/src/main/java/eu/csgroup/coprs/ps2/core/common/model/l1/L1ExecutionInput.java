@@ -19,14 +19,28 @@ package eu.csgroup.coprs.ps2.core.common.model.l1;
 import eu.csgroup.coprs.ps2.core.common.model.L012ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.DatatakeType;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
 @Getter
 @Setter
+@NoArgsConstructor
 @Accessors(chain = true)
 public class L1ExecutionInput extends L012ExecutionInput {
 
     private DatatakeType datatakeType;
 
+    protected L1ExecutionInput(L1ExecutionInput other) {
+        super(other);
+        this.datatakeType = other.datatakeType;
+    }
+
+    /**
+     * Copies this input without any serialization, to be used when fanning a datastrip out to its tiles
+     */
+    public L1ExecutionInput copy() {
+        return new L1ExecutionInput(this);
+    }
+
 }
@@ -18,6 +18,7 @@ package eu.csgroup.coprs.ps2.core.common.model.l2;
 
 import eu.csgroup.coprs.ps2.core.common.model.L012ExecutionInput;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
@@ -25,10 +26,24 @@ import java.util.List;
 
 @Getter
 @Setter
+@NoArgsConstructor
 @Accessors(chain = true)
 public class L2ExecutionInput extends L012ExecutionInput {
 
     private List<String> tileList;
     private String l2aDsPath;
 
+    protected L2ExecutionInput(L2ExecutionInput other) {
+        super(other);
+        this.tileList = other.tileList;
+        this.l2aDsPath = other.l2aDsPath;
+    }
+
+    /**
+     * Copies this input without any serialization, to be used when fanning a datastrip out to its tiles
+     */
+    public L2ExecutionInput copy() {
+        return new L2ExecutionInput(this);
+    }
+
 }
@@ -16,7 +16,9 @@
 
 package eu.csgroup.coprs.ps2.core.common.model.processing;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import eu.csgroup.coprs.ps2.core.common.config.ChainProperties;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -28,6 +30,8 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @Getter
 @Setter
@@ -129,4 +133,30 @@ public class ProcessingMessage {
     // Product timeliness
     private Timeliness timeliness;
 
+    // --------------------------------------------- Internal -----------------------------------------------
+
+    // Typed forms of the received additional fields and metadata, never serialized
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final transient Map<String, Object> typedValues = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the typed form of a value, only converting it the first time it is requested as this type
+     */
+    public <T> T typedValue(String key, Class<T> clazz, Supplier<T> converter) {
+
+        final Object typedValue = typedValues.get(key);
+        if (clazz.isInstance(typedValue)) {
+            return clazz.cast(typedValue);
+        }
+
+        final T convertedValue = converter.get();
+        if (convertedValue != null) {
+            typedValues.put(key, convertedValue);
+        }
+
+        return convertedValue;
+    }
+
 }
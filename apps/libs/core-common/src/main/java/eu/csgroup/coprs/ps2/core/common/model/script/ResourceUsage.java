@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.model.script;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Resources consumed by a script and all its descendants, updated while the script runs along with the last progress it reported
+ */
+@Getter
+public class ResourceUsage {
+
+    private static final double MEBIBYTE = 1024.0 * 1024.0;
+
+    private final String task;
+
+    private volatile double cpuSeconds;
+    private volatile long rssBytes;
+    private volatile long peakRssBytes;
+    private volatile long readBytes;
+    private volatile long writeBytes;
+    private volatile int sampleCount;
+    private volatile double progressPercent;
+
+    public ResourceUsage(String task) {
+        this.task = task;
+    }
+
+    /**
+     * Records a sample, cumulated counters never going down even if a process leaves the tree without being accounted for
+     */
+    public synchronized void update(double cpuSeconds, long rssBytes, long peakRssBytes, long readBytes, long writeBytes) {
+        this.cpuSeconds = Math.max(this.cpuSeconds, cpuSeconds);
+        this.rssBytes = rssBytes;
+        this.peakRssBytes = Math.max(this.peakRssBytes, Math.max(rssBytes, peakRssBytes));
+        this.readBytes = Math.max(this.readBytes, readBytes);
+        this.writeBytes = Math.max(this.writeBytes, writeBytes);
+        this.sampleCount++;
+    }
+
+    public void setProgressPercent(double progressPercent) {
+        this.progressPercent = progressPercent;
+    }
+
+    /**
+     * Summary of the usage, as custom trace fields
+     *
+     * @return The summary, empty if the script was never sampled
+     */
+    public Map<String, Object> toCustomFields() {
+
+        if (sampleCount == 0) {
+            return Map.of();
+        }
+
+        return Map.of(
+                "task_name_string", task,
+                "cpu_time_seconds_double", cpuSeconds,
+                "peak_rss_mebibytes_double", peakRssBytes / MEBIBYTE,
+                "read_mebibytes_double", readBytes / MEBIBYTE,
+                "write_mebibytes_double", writeBytes / MEBIBYTE
+        );
+    }
+
+}
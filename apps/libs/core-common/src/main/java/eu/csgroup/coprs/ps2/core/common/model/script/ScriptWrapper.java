@@ -20,6 +20,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import javax.validation.constraints.NotBlank;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +39,9 @@ public class ScriptWrapper {
     private Map<String, String> environment = Collections.emptyMap();
     private Long timeOut = null;
     private TimeUnit timeUnit = TimeUnit.MINUTES;
+    private ResourceUsage resourceUsage = null;
+    private Duration samplingInterval = Duration.ofSeconds(10);
+    private Duration stallTimeout = null;
 
     public String[] getCommandArgs() {
         return command.toArray(new String[0]);
@@ -127,6 +127,22 @@ public class TaskReport {
                 .setMessage(message));
     }
 
+    public void error(String message, Map<String, Object> custom) {
+        end(new EndWrapper()
+                .setLevel(TraceLevel.ERROR)
+                .setStatus(TaskStatus.NOK)
+                .setMessage(message)
+                .setCustom(custom));
+    }
+
+    public void timeout(String message, Map<String, Object> custom) {
+        end(new EndWrapper()
+                .setLevel(TraceLevel.ERROR)
+                .setStatus(TaskStatus.TIMEOUT)
+                .setMessage(message)
+                .setCustom(custom));
+    }
+
     public void error(String message, List<TaskMissingOutput> missingOutputs) {
         end(new EndWrapper()
                 .setLevel(TraceLevel.ERROR)
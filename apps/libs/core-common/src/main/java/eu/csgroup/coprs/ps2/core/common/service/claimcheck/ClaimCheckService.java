@@ -0,0 +1,187 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.csgroup.coprs.ps2.core.common.service.claimcheck;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
+import eu.csgroup.coprs.ps2.core.common.exception.FileOperationException;
+import eu.csgroup.coprs.ps2.core.common.model.ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
+import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
+import eu.csgroup.coprs.ps2.core.common.settings.FolderParameters;
+import eu.csgroup.coprs.ps2.core.common.settings.MessageParameters;
+import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
+import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores the files of an execution input once in the shared folder, under the hash of their content, so that messages only carry a reference.
+ * <p>
+ * Messages sharing the same files, like the tiles of a datastrip, then share a single copy. Resolved contents are kept in memory, so that a worker
+ * handling several jobs of the same datastrip reads them once.
+ */
+@Slf4j
+@Component
+public class ClaimCheckService {
+
+    private static final String EXTENSION = ".json";
+    private static final int CACHE_SIZE = 32;
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final SharedProperties sharedProperties;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, byte[]> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private Instant lastPurge = Instant.EPOCH;
+
+    public ClaimCheckService(SharedProperties sharedProperties, ObjectMapper objectMapper) {
+        this.sharedProperties = sharedProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Stores a set of files, unless claim check is disabled
+     *
+     * @param files Files of an execution input
+     * @return The reference to the stored files, null if they were not stored
+     */
+    public String store(Set<FileInfo> files) {
+
+        if (!sharedProperties.isClaimCheck() || CollectionUtils.isEmpty(files)) {
+            return null;
+        }
+
+        final byte[] content;
+        try {
+            content = objectMapper.writeValueAsBytes(files);
+        } catch (IOException e) {
+            throw new FileOperationException("Unable to serialize execution input files", e);
+        }
+
+        final String reference = DigestUtils.sha256Hex(content);
+        final Path path = getPath(reference);
+
+        if (!Files.exists(path)) {
+            FileOperationUtils.writeAtomically(path, content);
+            log.info("Stored execution input files {} ({} bytes)", reference, content.length);
+        } else {
+            // Keeps files still referenced by new messages from being purged
+            try {
+                Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            } catch (IOException e) {
+                log.warn("Unable to refresh stored execution input files {}: {}", reference, e.getMessage());
+            }
+        }
+
+        synchronized (cache) {
+            cache.put(reference, content);
+        }
+
+        purge();
+
+        return reference;
+    }
+
+    /**
+     * Replaces the files of an execution input by a reference in its message
+     */
+    public void reference(ProcessingMessage processingMessage, ExecutionInput executionInput, String reference) {
+        if (reference != null) {
+            executionInput.setFiles(null);
+            processingMessage.getAdditionalFields().put(MessageParameters.FILES_REFERENCE_FIELD, reference);
+        }
+    }
+
+    /**
+     * Restores the files of an execution input from the reference carried by its message, if any
+     */
+    public void resolve(ProcessingMessage processingMessage, ExecutionInput executionInput) {
+
+        if (!ProcessingMessageUtils.hasAdditionalField(processingMessage, MessageParameters.FILES_REFERENCE_FIELD)) {
+            return;
+        }
+
+        final String reference = ProcessingMessageUtils.getAdditionalField(processingMessage, MessageParameters.FILES_REFERENCE_FIELD, String.class);
+
+        try {
+            executionInput.setFiles(objectMapper.readValue(load(reference), new TypeReference<Set<FileInfo>>() {}));
+        } catch (IOException e) {
+            throw new FileOperationException("Unable to read execution input files: " + reference, e);
+        }
+    }
+
+    private byte[] load(String reference) throws IOException {
+
+        synchronized (cache) {
+            final byte[] content = cache.get(reference);
+            if (content != null) {
+                return content;
+            }
+        }
+
+        // Contents are kept raw, each job getting its own instances of the files
+        final byte[] content = Files.readAllBytes(getPath(reference));
+
+        synchronized (cache) {
+            cache.put(reference, content);
+        }
+
+        return content;
+    }
+
+    private synchronized void purge() {
+
+        final Instant now = Instant.now();
+        if (Duration.between(lastPurge, now).compareTo(PURGE_INTERVAL) < 0) {
+            return;
+        }
+        lastPurge = now;
+
+        FileOperationUtils.deleteExpiredFiles(getFolder(), sharedProperties.getClaimCheckRetention());
+    }
+
+    private Path getFolder() {
+        return Paths.get(sharedProperties.getSharedFolderRoot(), FolderParameters.CLAIM_CHECK_FOLDER);
+    }
+
+    private Path getPath(String reference) {
+        return getFolder().resolve(reference + EXTENSION);
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.csgroup.coprs.ps2.core.common.service.processor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Runs tasks on a fixed set of single-threaded lanes, tasks sharing a key always going to the same lane.
+ * <p>
+ * Tasks with different keys run concurrently while tasks with the same key run in submission order, so that messages about the same item never
+ * race. Tasks without a key are spread over the lanes.
+ */
+@Slf4j
+public class KeyOrderedExecutor {
+
+    private final ExecutorService[] lanes;
+    private final AtomicInteger nextLane = new AtomicInteger();
+
+    public KeyOrderedExecutor(String name, int parallelism) {
+        this.lanes = IntStream.range(0, Math.max(1, parallelism))
+                .mapToObj(index -> Executors.newSingleThreadExecutor(runnable -> {
+                    final Thread thread = new Thread(runnable, name + "-" + index);
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .toArray(ExecutorService[]::new);
+    }
+
+    public int getParallelism() {
+        return lanes.length;
+    }
+
+    public <T> CompletableFuture<T> submit(String key, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, lanes[laneIndex(key)]);
+    }
+
+    public void shutdown() {
+
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+
+        try {
+            for (ExecutorService lane : lanes) {
+                if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                    lane.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            for (ExecutorService lane : lanes) {
+                lane.shutdownNow();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int laneIndex(String key) {
+        if (key == null) {
+            return Math.floorMod(nextLane.getAndIncrement(), lanes.length);
+        }
+        return Math.floorMod(key.hashCode(), lanes.length);
+    }
+
+}
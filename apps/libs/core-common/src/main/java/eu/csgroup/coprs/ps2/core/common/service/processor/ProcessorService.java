@@ -16,24 +16,56 @@
 
 package eu.csgroup.coprs.ps2.core.common.service.processor;
 
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
+import eu.csgroup.coprs.ps2.core.common.exception.ProcessingException;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
 import eu.csgroup.coprs.ps2.core.common.utils.DateUtils;
+import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 
+import javax.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 @Slf4j
 public abstract class ProcessorService {
 
+    public static final String BATCH_MODE_PROPERTY = "spring.cloud.stream.bindings.input.consumer.batch-mode";
+
+    @Value("${spring.cloud.stream.kafka.bindings.input.consumer.dlq-name:error-warning}")
+    private String dlqName;
+
+    @Autowired
+    private StreamBridge dlqBridge;
+
+    @Value("${spring.cloud.stream.kafka.binder.consumer-properties.max.poll.records:500}")
+    private int maxPollRecords;
+
+    @Value("${spring.cloud.stream.kafka.binder.consumer-properties.max.poll.interval.ms:300000}")
+    private long maxPollInterval;
+
+    @Autowired
+    protected SharedProperties sharedProperties;
+
+    private KeyOrderedExecutor batchExecutor;
+
     @Bean
     @Profile("!test")
+    @ConditionalOnProperty(name = BATCH_MODE_PROPERTY, havingValue = "false", matchIfMissing = true)
     public Function<ProcessingMessage, List<Message<ProcessingMessage>>> process() {
 
         return processingMessage -> {
@@ -54,12 +86,119 @@ public abstract class ProcessorService {
 
             log.info("Processed message: {} in {}", processingMessage, DateUtils.elapsed(start));
 
-            return outputMessageSet.stream().map(outputMessage -> MessageBuilder.withPayload(outputMessage).build()).toList();
+            return outputMessageSet.stream().map(ProcessingMessageUtils::toMessage).toList();
+
+        };
+
+    }
+
+    /**
+     * Opt-in replacement of {@link #process()} consuming a whole poll at once, enabled by the batch mode of the input binding.
+     * Messages about different items are processed in parallel, messages about the same item in the order they were received.
+     */
+    @Bean(name = "process")
+    @Profile("!test")
+    @ConditionalOnProperty(name = BATCH_MODE_PROPERTY, havingValue = "true")
+    public Function<List<ProcessingMessage>, List<Message<ProcessingMessage>>> processBatch() {
+
+        final int messageParallelism = sharedProperties.getMessageParallelism();
+
+        if (messageParallelism > getMaxMessageParallelism()) {
+            throw new IllegalStateException("ps2.messageParallelism cannot exceed " + getMaxMessageParallelism() + " for this worker, got " + messageParallelism);
+        }
+
+        // The consumer only polls again once the whole batch is processed, past max.poll.interval.ms it leaves the group and the poll is replayed
+        final Duration maxMessageDuration = getMaxMessageDuration();
+        final long minPollInterval = maxMessageDuration.multipliedBy(maxPollRecords).toMillis();
+
+        if (minPollInterval > maxPollInterval) {
+            throw new IllegalStateException("max.poll.interval.ms must cover " + maxPollRecords + " messages of up to " + maxMessageDuration + " each in batch mode, "
+                    + "expected at least " + minPollInterval + ", got " + maxPollInterval);
+        }
+
+        batchExecutor = new KeyOrderedExecutor("message-processor", messageParallelism);
+        final KeyOrderedExecutor executor = batchExecutor;
+
+        return processingMessages -> {
+
+            final Instant start = Instant.now();
+            log.info("Received {} messages", processingMessages.size());
+
+            beforeBatch(processingMessages);
+
+            final AtomicInteger failedCount = new AtomicInteger();
+
+            final List<CompletableFuture<List<Message<ProcessingMessage>>>> futureList = processingMessages.stream()
+                    .map(processingMessage -> executor.submit(ProcessingMessageUtils.getKey(processingMessage), () -> {
+                        try {
+
+                            return processMessage(processingMessage).stream().map(ProcessingMessageUtils::toMessage).toList();
+
+                        } catch (Exception e) {
+                            // Failing the whole poll would replay the messages already handled, so only the failed one is sent to the DLQ
+                            log.error("Failed to process message " + processingMessage, e);
+                            failedCount.incrementAndGet();
+                            sendToDlq(processingMessage);
+                            return List.<Message<ProcessingMessage>>of();
+                        }
+                    }))
+                    .toList();
+
+            final List<Message<ProcessingMessage>> outputMessageList = new ArrayList<>();
+            futureList.forEach(future -> outputMessageList.addAll(future.join()));
+
+            afterBatch();
+
+            log.info("Processed {} messages with {} failures in {}", processingMessages.size(), failedCount.get(), DateUtils.elapsed(start));
+
+            return outputMessageList;
 
         };
 
     }
 
+    @PreDestroy
+    public void stopBatchExecutor() {
+        if (batchExecutor != null) {
+            batchExecutor.shutdown();
+        }
+    }
+
+    private void sendToDlq(ProcessingMessage processingMessage) {
+        // Sent on its own rather than among the outputs, the poll failing as a whole if the DLQ cannot take it
+        if (!dlqBridge.send(dlqName, MessageBuilder.withPayload(processingMessage).build())) {
+            throw new ProcessingException("Failed to send message " + processingMessage.getUid() + " to " + dlqName);
+        }
+    }
+
     protected abstract Set<ProcessingMessage> processMessage(ProcessingMessage processingMessage);
 
+    /**
+     * Called with all the messages of a poll before any of them is processed, in batch mode
+     */
+    protected void beforeBatch(List<ProcessingMessage> processingMessages) {
+        // By default, nothing to do
+    }
+
+    /**
+     * Called once all the messages of a poll are processed, in batch mode
+     */
+    protected void afterBatch() {
+        // By default, nothing to do
+    }
+
+    /**
+     * Highest message parallelism this worker supports in batch mode
+     */
+    protected int getMaxMessageParallelism() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Longest time processing a single message may take, which max.poll.interval.ms must cover for a whole poll in batch mode, zero if negligible
+     */
+    protected Duration getMaxMessageDuration() {
+        return Duration.ZERO;
+    }
+
 }
@@ -43,6 +43,9 @@ public final class FolderParameters {
     public static final String DS_FOLDER = "DS";
     public static final String GR_FOLDER = "GR";
     public static final String TL_FOLDER = "TL";
+    public static final String CLAIM_CHECK_FOLDER = "claimcheck";
+    public static final String LEDGER_FOLDER = "ledger";
+    public static final String CHECKPOINT_FOLDER = "checkpoint";
     public static final String TMP_DS_SUFFIX_L1SA = ".L1SA";
     public static final String TMP_DS_SUFFIX_L1SB = ".L1SB";
 
@@ -33,6 +33,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Stream;
 
 
@@ -130,6 +131,25 @@ public final class FileOperationUtils {
         log.info("Finished cleaning up folder {}", rootFolder);
     }
 
+    public static void deleteExpiredFiles(Path folder, long hours) {
+
+        final long expiredTime = Instant.now().minus(hours, ChronoUnit.HOURS).toEpochMilli();
+
+        try (Stream<Path> stream = Files.list(folder)) {
+            stream.filter(Files::isRegularFile)
+                    .filter(path -> path.toFile().lastModified() < expiredTime)
+                    .forEach(path -> {
+                        try {
+                            Files.deleteIfExists(path);
+                        } catch (IOException e) {
+                            log.warn("Unable to delete expired file {}: {}", path, e.getMessage());
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("Unable to clean up expired files in folder {}: {}", folder, e.getMessage());
+        }
+    }
+
     public static void createFolders(Set<String> folderSet) {
         folderSet.forEach(folder -> {
             log.info("Creating folder: {}", folder);
@@ -197,6 +217,23 @@ public final class FileOperationUtils {
         }
     }
 
+    /**
+     * Write a file aside then move it to its final path, so that a reader never sees a partial file
+     *
+     * @param path    Path to the file to write
+     * @param content Content of the file
+     */
+    public static void writeAtomically(Path path, byte[] content) {
+        try {
+            Files.createDirectories(path.getParent());
+            final Path tmpPath = path.resolveSibling(UUID.randomUUID() + ".tmp");
+            Files.write(tmpPath, content);
+            Files.move(tmpPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new FileOperationException("Unable to write file: " + path, e);
+        }
+    }
+
     /**
      * Merge files contained in a given folder matching a given regex into a single file
      *
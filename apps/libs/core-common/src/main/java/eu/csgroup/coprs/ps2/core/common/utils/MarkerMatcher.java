@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Tells whether a text contains any of a set of markers, in a single pass over the text whatever the number of markers (Aho-Corasick automaton).
+ * Below {@link #AUTOMATON_MIN_MARKERS} markers, searching for each of them in turn is faster (see MarkerMatcherBenchmark in the tests).
+ */
+public class MarkerMatcher {
+
+    public static final int AUTOMATON_MIN_MARKERS = 16;
+
+    // Characters below this bound, nearly all of those in IPF logs, are matched through arrays rather than maps
+    private static final int TABLE_SIZE = 128;
+
+    // Lists while the automaton is built, the arrays being what matching uses
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final List<Integer> failures = new ArrayList<>();
+    private final List<Boolean> terminals = new ArrayList<>();
+
+    // Transitions of every state for each character below TABLE_SIZE, at state * TABLE_SIZE + character, failure links already followed
+    private final int[] tableArray;
+    // Transitions of each state for other characters, failure links to be followed while matching
+    private final List<Map<Character, Integer>> otherTransitions = new ArrayList<>();
+    private final int[] failureArray;
+    private final boolean[] terminalArray;
+
+    // Markers searched for in turn when too few for the automaton to pay off, null otherwise
+    private final List<String> fewMarkers;
+
+    public MarkerMatcher(Collection<String> markers) {
+        this(markers, AUTOMATON_MIN_MARKERS);
+    }
+
+    MarkerMatcher(Collection<String> markers, int automatonMinMarkers) {
+
+        fewMarkers = markers.size() < automatonMinMarkers ? List.copyOf(markers) : null;
+
+        addState();
+
+        for (String marker : markers) {
+            if (marker.isEmpty()) {
+                // Matches any text
+                terminals.set(0, true);
+                continue;
+            }
+            int state = 0;
+            for (char character : marker.toCharArray()) {
+                Integer next = transitions.get(state).get(character);
+                if (next == null) {
+                    next = addState();
+                    transitions.get(state).put(character, next);
+                }
+                state = next;
+            }
+            terminals.set(state, true);
+        }
+
+        // Failure links are set breadth first, each pointing to the state of the longest proper suffix of its path also present in the trie
+        final List<Integer> order = new ArrayList<>(List.of(0));
+        final Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+        while (!queue.isEmpty()) {
+            final int state = queue.remove();
+            order.add(state);
+            for (Map.Entry<Character, Integer> transition : transitions.get(state).entrySet()) {
+                final int next = transition.getValue();
+                int failure = failures.get(state);
+                while (failure != 0 && !transitions.get(failure).containsKey(transition.getKey())) {
+                    failure = failures.get(failure);
+                }
+                final int target = transitions.get(failure).getOrDefault(transition.getKey(), 0);
+                failures.set(next, target == next ? 0 : target);
+                terminals.set(next, terminals.get(next) || terminals.get(failures.get(next)));
+                queue.add(next);
+            }
+        }
+
+        failureArray = failures.stream().mapToInt(Integer::intValue).toArray();
+        terminalArray = new boolean[terminals.size()];
+        for (int state = 0; state < terminalArray.length; state++) {
+            terminalArray[state] = terminals.get(state);
+        }
+
+        // The failure state of each state being shallower, its row is complete by the time it is copied from
+        tableArray = new int[transitions.size() * TABLE_SIZE];
+        for (int state : order) {
+            final int offset = state * TABLE_SIZE;
+            if (state != 0) {
+                System.arraycopy(tableArray, failureArray[state] * TABLE_SIZE, tableArray, offset, TABLE_SIZE);
+            }
+            transitions.get(state).forEach((character, next) -> {
+                if (character < TABLE_SIZE) {
+                    tableArray[offset + character] = next;
+                }
+            });
+        }
+        for (Map<Character, Integer> stateTransitions : transitions) {
+            final Map<Character, Integer> others = new HashMap<>(stateTransitions);
+            others.keySet().removeIf(character -> character < TABLE_SIZE);
+            otherTransitions.add(others.isEmpty() ? Map.of() : others);
+        }
+    }
+
+    public boolean matches(CharSequence text) {
+
+        if (fewMarkers != null) {
+            final String string = text.toString();
+            for (String marker : fewMarkers) {
+                if (string.contains(marker)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        if (terminalArray[0]) {
+            return true;
+        }
+
+        int state = 0;
+        for (int index = 0; index < text.length(); index++) {
+            final char character = text.charAt(index);
+            if (character < TABLE_SIZE) {
+                state = tableArray[state * TABLE_SIZE + character];
+            } else {
+                while (state != 0 && !otherTransitions.get(state).containsKey(character)) {
+                    state = failureArray[state];
+                }
+                state = otherTransitions.get(state).getOrDefault(character, 0);
+            }
+            if (terminalArray[state]) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int addState() {
+        transitions.add(new HashMap<>());
+        failures.add(0);
+        terminals.add(false);
+        return transitions.size() - 1;
+    }
+
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.utils;
+
+import eu.csgroup.coprs.ps2.core.common.exception.ScriptExecutionException;
+import eu.csgroup.coprs.ps2.core.common.exception.ScriptStalledException;
+import eu.csgroup.coprs.ps2.core.common.model.script.ResourceUsage;
+import eu.csgroup.coprs.ps2.core.common.model.script.ScriptWrapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Starts scripts and watches them until they exit, without holding a thread per script.
+ * <p>
+ * Exits are reported through {@link Process#onExit()}, only the draining of each script's output needing its own thread, taken from a bounded pool,
+ * the lines read being logged by a single writer through a {@link ScriptLogSink}.
+ * A script running past its timeout is terminated along with all its descendants, first gracefully then forcibly if they are still alive after a grace
+ * period. Scripts given a {@link ResourceUsage} have the resources of their process tree sampled while they run, and published as gauges tagged with
+ * the usage task. Scripts given a stall timeout are terminated the same way when they make no progress for that long, see {@link StallWatchdog}.
+ * <p>
+ * The processes spawned by scripts are recorded as they are checked, so that those left behind can be killed without looking at the other processes
+ * of the node.
+ */
+@Slf4j
+public class ProcessSupervisor {
+
+    private static final int LOG_BUFFER_CAPACITY = 16 * 1024;
+
+    private final Duration killGracePeriod;
+    private final MeterRegistry registry;
+    private final ThreadPoolExecutor logExecutor;
+    private final ScriptLogSink logSink;
+    private final ScheduledExecutorService scheduler;
+    private final Set<Process> processes = ConcurrentHashMap.newKeySet();
+    private final Set<ProcessHandle> spawned = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param maxProcesses    Maximum number of scripts running at the same time
+     * @param killGracePeriod Delay between the graceful and the forced termination of a script
+     */
+    public ProcessSupervisor(int maxProcesses, Duration killGracePeriod) {
+        this(maxProcesses, killGracePeriod, Metrics.globalRegistry);
+    }
+
+    /**
+     * @param maxProcesses    Maximum number of scripts running at the same time
+     * @param killGracePeriod Delay between the graceful and the forced termination of a script
+     * @param registry        Registry the resource usage gauges are published to
+     */
+    public ProcessSupervisor(int maxProcesses, Duration killGracePeriod, MeterRegistry registry) {
+        this.killGracePeriod = killGracePeriod;
+        this.registry = registry;
+        this.logExecutor = new ThreadPoolExecutor(0, maxProcesses, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory("script-log"));
+        this.logSink = new ScriptLogSink(LOG_BUFFER_CAPACITY);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("script-scheduler"));
+    }
+
+    /**
+     * Starts a script
+     *
+     * @param scriptWrapper Script to run
+     * @return The exit code of the script, once it exits
+     */
+    public CompletableFuture<Integer> start(ScriptWrapper scriptWrapper) {
+
+        final String[] command = scriptWrapper.getCommandArgs();
+        final String workdir = scriptWrapper.getWorkdir();
+
+        log.info("Running command {} in workdir {}", command, workdir);
+
+        ProcessBuilder processBuilder = new ProcessBuilder();
+        processBuilder.command(command);
+        processBuilder.directory(new File(workdir));
+        processBuilder.environment().putAll(scriptWrapper.getEnvironment());
+        processBuilder.redirectErrorStream(true);
+
+        final Process process;
+        try {
+            process = processBuilder.start();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new ScriptExecutionException("Unable to create script process", e));
+        }
+
+        processes.add(process);
+        spawned.add(process.toHandle());
+
+        // A watched script without resource usage of its own is still sampled, just not published
+        final ResourceUsage resourceUsage = scriptWrapper.getResourceUsage() != null
+                ? scriptWrapper.getResourceUsage()
+                : new ResourceUsage(scriptWrapper.getRunId());
+        final StallWatchdog watchdog = scriptWrapper.getStallTimeout() == null
+                ? null
+                : new StallWatchdog(scriptWrapper.getStallTimeout(), resourceUsage);
+
+        try {
+            final ScriptLogger scriptLogger = new ScriptLogger(process.getInputStream(), scriptWrapper.getLogWhitelist());
+            scriptLogger.setSink(logSink);
+            if (watchdog != null) {
+                scriptLogger.setOutputListener(watchdog::outputReceived);
+            }
+            if (scriptWrapper.getResourceUsage() != null) {
+                scriptLogger.setProgressListener(resourceUsage::setProgressPercent);
+            }
+            logExecutor.submit(scriptLogger);
+        } catch (RejectedExecutionException e) {
+            terminate(process);
+            processes.remove(process);
+            return CompletableFuture.failedFuture(new ScriptExecutionException("Too many scripts running, unable to start " + scriptWrapper.getRunId(), e));
+        }
+
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        final ScheduledFuture<?> timeout = scriptWrapper.getTimeOut() == null
+                ? null
+                : scheduler.schedule(() -> {
+                    log.warn("Command {} still running after {} {}, terminating it", command, scriptWrapper.getTimeOut(), scriptWrapper.getTimeUnit());
+                    timedOut.set(true);
+                    terminate(process);
+                }, scriptWrapper.getTimeOut(), scriptWrapper.getTimeUnit());
+
+        final AtomicBoolean stalled = new AtomicBoolean();
+        final Runnable stopMonitoring = startMonitoring(process, scriptWrapper, resourceUsage, watchdog, () -> {
+            if (stalled.compareAndSet(false, true)) {
+                log.warn("Command {} made no progress for {}, terminating it", command, scriptWrapper.getStallTimeout());
+                terminate(process);
+            }
+        });
+
+        return process.onExit().thenApply(exitedProcess -> {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            stopMonitoring.run();
+            processes.remove(exitedProcess);
+            // A terminated script may still exit normally, it must not pass for a successful run
+            if (stalled.get()) {
+                throw new ScriptStalledException("Script " + scriptWrapper.getRunId() + " stalled");
+            }
+            if (timedOut.get()) {
+                throw new ScriptExecutionException("Script " + scriptWrapper.getRunId() + " timed out");
+            }
+            log.info("Finished Running command {} in workdir {}", command, workdir);
+            return exitedProcess.exitValue();
+        });
+    }
+
+    private Runnable startMonitoring(Process process, ScriptWrapper scriptWrapper, ResourceUsage resourceUsage, StallWatchdog watchdog, Runnable onStall) {
+
+        final boolean published = scriptWrapper.getResourceUsage() != null;
+        final boolean sampled = ProcessTreeSampler.isSupported() && (published || watchdog != null);
+
+        final ProcessTreeSampler sampler = sampled ? new ProcessTreeSampler(process.toHandle(), resourceUsage) : null;
+        final long interval = scriptWrapper.getSamplingInterval().toMillis();
+
+        final List<Meter> meters = new ArrayList<>();
+        if (published) {
+            meters.add(gauge("rs.ew.ipf.progress", "Last progress reported by the task, in percent", resourceUsage, ResourceUsage::getProgressPercent));
+        }
+        if (sampled && published) {
+            meters.add(gauge("rs.ew.ipf.cpu.time", "CPU time used by the task processes, in seconds", resourceUsage, ResourceUsage::getCpuSeconds));
+            meters.add(gauge("rs.ew.ipf.memory.rss", "Resident memory of the task processes, in bytes", resourceUsage, ResourceUsage::getRssBytes));
+            meters.add(gauge("rs.ew.ipf.memory.rss.peak", "Peak resident memory of the task processes, in bytes", resourceUsage,
+                    ResourceUsage::getPeakRssBytes));
+            meters.add(gauge("rs.ew.ipf.io.read", "Bytes read from storage by the task processes", resourceUsage, ResourceUsage::getReadBytes));
+            meters.add(gauge("rs.ew.ipf.io.write", "Bytes written to storage by the task processes", resourceUsage, ResourceUsage::getWriteBytes));
+        }
+
+        final ScheduledFuture<?> monitoring = scheduler.scheduleAtFixedRate(() -> {
+            track(process);
+            if (sampler != null) {
+                sampler.sample();
+            }
+            if (watchdog != null && watchdog.isStalled()) {
+                onStall.run();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+
+        return () -> {
+            monitoring.cancel(false);
+            meters.forEach(registry::remove);
+        };
+    }
+
+    private Meter gauge(String name, String description, ResourceUsage resourceUsage, ToDoubleFunction<ResourceUsage> value) {
+        return Gauge.builder(name, resourceUsage, value)
+                .tags("task", resourceUsage.getTask())
+                .description(description)
+                .register(registry);
+    }
+
+    /**
+     * Terminates a process and all its descendants, forcibly for those still alive after the grace period
+     */
+    public void terminate(Process process) {
+
+        // Descendants are listed before anything is killed, since they are no longer attached to the tree once their parent exits. They are also
+        // terminated first, so that their parents are still there to reap them.
+        final List<ProcessHandle> tree = Stream.concat(process.descendants(), Stream.of(process.toHandle())).toList();
+
+        tree.forEach(ProcessHandle::destroy);
+
+        scheduler.schedule(() -> tree.stream()
+                        .filter(ProcessHandle::isAlive)
+                        .forEach(processHandle -> {
+                            log.warn("Process {} did not terminate, killing it", processHandle.pid());
+                            processHandle.destroyForcibly();
+                        }),
+                killGracePeriod.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Forcibly kills all the processes spawned by scripts which are still alive, including those left running by scripts which already exited
+     * <p>
+     * Descendants are only known from the last time their script was checked, see {@link ScriptWrapper#getSamplingInterval()}.
+     */
+    public void killSpawned() {
+
+        spawned.removeIf(processHandle -> !processHandle.isAlive());
+
+        final Set<ProcessHandle> tree = new LinkedHashSet<>();
+        spawned.forEach(processHandle -> {
+            processHandle.descendants().forEach(tree::add);
+            tree.add(processHandle);
+        });
+
+        log.info("Killing {} processes spawned by scripts", tree.size());
+
+        tree.forEach(ProcessHandle::destroyForcibly);
+    }
+
+    /**
+     * Terminates all the scripts still running
+     */
+    public void terminateAll() {
+        processes.forEach(this::terminate);
+    }
+
+    public int getRunningCount() {
+        return processes.size();
+    }
+
+    private void track(Process process) {
+        // Handles compare their start time along with their pid, a pid reused once a process exited does not match
+        spawned.removeIf(processHandle -> !processHandle.isAlive());
+        process.descendants().forEach(spawned::add);
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        final AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + index.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.utils;
+
+import eu.csgroup.coprs.ps2.core.common.model.script.ResourceUsage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Samples the resources used by a process and all its descendants from /proc.
+ * <p>
+ * The kernel adds the CPU time and I/O of a process to its parent's counters once the parent reaps it, so summing the counters of the processes alive
+ * in the tree accounts for descendants which already exited, without counting them twice.
+ */
+@Slf4j
+public class ProcessTreeSampler {
+
+    private static final Path PROC = Paths.get("/proc");
+
+    // USER_HZ, which the kernel exposes CPU times in, is 100 on all the architectures we run on
+    private static final double CLOCK_TICKS_PER_SECOND = 100.0;
+    private static final long KIBIBYTE = 1024L;
+
+    private final ProcessHandle root;
+    private final ResourceUsage resourceUsage;
+
+    public ProcessTreeSampler(ProcessHandle root, ResourceUsage resourceUsage) {
+        this.root = root;
+        this.resourceUsage = resourceUsage;
+    }
+
+    public static boolean isSupported() {
+        return Files.isDirectory(PROC.resolve("self"));
+    }
+
+    public synchronized void sample() {
+
+        long cpuTicks = 0;
+        long rssBytes = 0;
+        long peakRssBytes = 0;
+        long readBytes = 0;
+        long writeBytes = 0;
+        boolean sampled = false;
+
+        final List<ProcessHandle> tree = Stream.concat(Stream.of(root), root.descendants()).toList();
+
+        for (ProcessHandle processHandle : tree) {
+            final ProcessStats stats = read(processHandle.pid());
+            if (stats != null) {
+                cpuTicks += stats.cpuTicks;
+                rssBytes += stats.rssBytes;
+                peakRssBytes = Math.max(peakRssBytes, stats.peakRssBytes);
+                readBytes += stats.readBytes;
+                writeBytes += stats.writeBytes;
+                sampled = true;
+            }
+        }
+
+        if (sampled) {
+            resourceUsage.update(cpuTicks / CLOCK_TICKS_PER_SECOND, rssBytes, peakRssBytes, readBytes, writeBytes);
+        }
+    }
+
+    private ProcessStats read(long pid) {
+
+        final Path processPath = PROC.resolve(String.valueOf(pid));
+
+        try {
+
+            // The command name may contain spaces, fields are counted from its closing parenthesis (utime, stime, cutime and cstime being fields 14
+            // to 17)
+            final String stat = Files.readString(processPath.resolve("stat"));
+            final String[] statFields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            long cpuTicks = 0;
+            for (int index = 11; index <= 14; index++) {
+                cpuTicks += Long.parseLong(statFields[index]);
+            }
+
+            final Map<String, Long> status = readFields(processPath.resolve("status"));
+
+            // Reading I/O counters may not be allowed
+            Map<String, Long> io = Map.of();
+            try {
+                io = readFields(processPath.resolve("io"));
+            } catch (IOException e) {
+                log.trace("Unable to read I/O of process {}", pid);
+            }
+
+            return new ProcessStats(
+                    cpuTicks,
+                    status.getOrDefault("VmRSS", 0L) * KIBIBYTE,
+                    status.getOrDefault("VmHWM", 0L) * KIBIBYTE,
+                    io.getOrDefault("read_bytes", 0L),
+                    io.getOrDefault("write_bytes", 0L)
+            );
+
+        } catch (IOException | RuntimeException e) {
+            // Most likely exited since the tree was listed
+            return null;
+        }
+    }
+
+    private static Map<String, Long> readFields(Path path) throws IOException {
+
+        final Map<String, Long> fields = new HashMap<>();
+
+        for (String line : Files.readAllLines(path)) {
+            final int separator = line.indexOf(':');
+            if (separator > 0) {
+                final String[] value = line.substring(separator + 1).trim().split("\\s+");
+                try {
+                    fields.put(line.substring(0, separator), Long.parseLong(value[0]));
+                } catch (NumberFormatException e) {
+                    // Not a numeric field
+                }
+            }
+        }
+
+        return fields;
+    }
+
+    private static class ProcessStats {
+
+        private final long cpuTicks;
+        private final long rssBytes;
+        private final long peakRssBytes;
+        private final long readBytes;
+        private final long writeBytes;
+
+        ProcessStats(long cpuTicks, long rssBytes, long peakRssBytes, long readBytes, long writeBytes) {
+            this.cpuTicks = cpuTicks;
+            this.rssBytes = rssBytes;
+            this.peakRssBytes = peakRssBytes;
+            this.readBytes = readBytes;
+            this.writeBytes = writeBytes;
+        }
+
+    }
+
+}
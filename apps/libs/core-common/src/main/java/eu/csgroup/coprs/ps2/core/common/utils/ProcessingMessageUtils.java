@@ -21,16 +21,32 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import eu.csgroup.coprs.ps2.core.common.exception.InvalidMessageException;
 import eu.csgroup.coprs.ps2.core.common.model.CommonInput;
+import eu.csgroup.coprs.ps2.core.common.model.L012ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.model.PreparationInput;
+import eu.csgroup.coprs.ps2.core.common.model.l0.L0uExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.Mission;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
 import eu.csgroup.coprs.ps2.core.common.settings.MessageParameters;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 public final class ProcessingMessageUtils {
 
+    private static final String ADDITIONAL_FIELD_PREFIX = "additionalFields.";
+    private static final String METADATA_PREFIX = "metadata.";
+
+    private static final String DATASTRIP_FIELD = "datastrip";
+    private static final String TILE_FIELD = "tile";
+    private static final String SESSION_FIELD = "session";
+
     private static final ObjectMapper objectMapper;
 
     static {
@@ -59,7 +75,7 @@ public final class ProcessingMessageUtils {
             throw new InvalidMessageException("Message does not contain additional field '" + fieldName + "'");
         }
 
-        return objectMapper.convertValue(processingMessage.getAdditionalFields().get(fieldName), clazz);
+        return getTypedValue(processingMessage, ADDITIONAL_FIELD_PREFIX + fieldName, processingMessage.getAdditionalFields().get(fieldName), clazz);
     }
 
     public static boolean hasMetadata(ProcessingMessage processingMessage, String fieldName) {
@@ -73,7 +89,7 @@ public final class ProcessingMessageUtils {
             throw new InvalidMessageException("Message does not contain metadata '" + fieldName + "'");
         }
 
-        return objectMapper.convertValue(processingMessage.getMetadata().get(fieldName), clazz);
+        return getTypedValue(processingMessage, METADATA_PREFIX + fieldName, processingMessage.getMetadata().get(fieldName), clazz);
     }
 
     public static Instant getT0PdgsDate(ProcessingMessage processingMessage) {
@@ -97,6 +113,79 @@ public final class ProcessingMessageUtils {
         return commonInput;
     }
 
+    /**
+     * Key of the item a message is about: its session, its datastrip or its datastrip tile, the product itself otherwise.
+     * Messages sharing a key land on the same partition and are handled in order.
+     */
+    public static String getKey(ProcessingMessage processingMessage) {
+
+        if (hasMetadata(processingMessage, MessageParameters.DATASTRIP_ID_FIELD)) {
+            return String.valueOf(processingMessage.getMetadata().get(MessageParameters.DATASTRIP_ID_FIELD));
+        }
+
+        final Map<String, Object> additionalFields = processingMessage.getAdditionalFields();
+        final Object input = additionalFields.containsKey(MessageParameters.EXECUTION_INPUT_FIELD)
+                ? additionalFields.get(MessageParameters.EXECUTION_INPUT_FIELD)
+                : additionalFields.get(MessageParameters.PREPARATION_INPUT_FIELD);
+
+        final String inputKey = getInputKey(input);
+        if (inputKey != null) {
+            return inputKey;
+        }
+
+        final String keyObjectStorage = processingMessage.getKeyObjectStorage();
+        return StringUtils.hasText(keyObjectStorage) && !MessageParameters.EMPTY.equals(keyObjectStorage) ? keyObjectStorage : null;
+    }
+
+    public static Message<ProcessingMessage> toMessage(ProcessingMessage processingMessage) {
+
+        final MessageBuilder<ProcessingMessage> messageBuilder = MessageBuilder.withPayload(processingMessage);
+
+        final String key = getKey(processingMessage);
+        if (key != null) {
+            // The binder producer sends raw bytes as record key
+            messageBuilder.setHeader(KafkaHeaders.MESSAGE_KEY, key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return messageBuilder.build();
+    }
+
+    private static <T> T getTypedValue(ProcessingMessage processingMessage, String key, Object value, Class<T> clazz) {
+
+        // Values of messages built by this service are already typed, received ones are converted once per message and type
+        if (clazz.isInstance(value)) {
+            return clazz.cast(value);
+        }
+
+        return processingMessage.typedValue(key, clazz, () -> objectMapper.convertValue(value, clazz));
+    }
+
+    private static String getInputKey(Object input) {
+
+        // Inputs are typed when building output messages, and plain maps once read from a received message
+        if (input instanceof L012ExecutionInput executionInput) {
+            return getItemKey(executionInput.getDatastrip(), executionInput.getTile());
+        } else if (input instanceof L0uExecutionInput executionInput) {
+            return executionInput.getSession();
+        } else if (input instanceof PreparationInput preparationInput) {
+            return preparationInput.getSession();
+        } else if (input instanceof Map<?, ?> fields) {
+            return fields.get(SESSION_FIELD) != null
+                    ? String.valueOf(fields.get(SESSION_FIELD))
+                    : getItemKey(Objects.toString(fields.get(DATASTRIP_FIELD), null), Objects.toString(fields.get(TILE_FIELD), null));
+        }
+
+        return null;
+    }
+
+    private static String getItemKey(String datastrip, String tile) {
+        // Tiles of a datastrip are processed independently, so they are spread over partitions
+        if (!StringUtils.hasText(datastrip)) {
+            return null;
+        }
+        return StringUtils.hasText(tile) ? datastrip + "/" + tile : datastrip;
+    }
+
     private ProcessingMessageUtils() {
     }
 
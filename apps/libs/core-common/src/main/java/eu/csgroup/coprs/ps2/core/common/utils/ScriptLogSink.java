@@ -0,0 +1,91 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded buffer between the threads reading script outputs and the logger, so that a slow appender does not hold the scripts back.
+ * <p>
+ * Lines logged at INFO wait for room in the buffer when it is full, while DEBUG lines are dropped.
+ */
+@Slf4j
+public class ScriptLogSink {
+
+    // Script outputs keep being logged under the category they always had
+    private static final Logger SCRIPT_LOG = LoggerFactory.getLogger(ScriptLogger.class);
+
+    private final BlockingQueue<LogLine> buffer;
+
+    public ScriptLogSink(int capacity) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        final Thread writer = new Thread(this::write, "script-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isDebugEnabled() {
+        return SCRIPT_LOG.isDebugEnabled();
+    }
+
+    public void info(String line) throws InterruptedException {
+        buffer.put(new LogLine(line, true));
+    }
+
+    /**
+     * @return Whether the line was buffered, false if it was dropped for lack of room
+     */
+    public boolean debug(String line) {
+        return buffer.offer(new LogLine(line, false));
+    }
+
+    private void write() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                final LogLine logLine = buffer.take();
+                if (logLine.info) {
+                    SCRIPT_LOG.info(logLine.line);
+                } else {
+                    SCRIPT_LOG.debug(logLine.line);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // The writer must outlive a failing appender
+                log.warn("Unable to log script output", e);
+            }
+        }
+    }
+
+    private static class LogLine {
+
+        private final String line;
+        private final boolean info;
+
+        LogLine(String line, boolean info) {
+            this.line = line;
+            this.info = info;
+        }
+
+    }
+
+}
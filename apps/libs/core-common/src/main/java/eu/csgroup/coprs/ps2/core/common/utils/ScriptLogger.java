@@ -27,38 +27,97 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Logs the output of a script, at INFO for lines containing a whitelist marker (or all lines without whitelist) and at DEBUG for the others.
+ * <p>
+ * With a {@link ScriptLogSink}, lines are handed over to it instead of being logged by the reading thread, DEBUG ones being dropped when the sink is
+ * full. Progress percentages found in the output are reported to the progress listener.
+ */
 @Slf4j
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ScriptLogger implements Runnable {
 
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern PROGRESS_PATTERN = Pattern.compile("(?i)progress\\D{0,32}?(\\d{1,3}(?:\\.\\d+)?)\\s*%");
+
     private InputStream standardStream;
     private List<String> whitelist;
+    private ScriptLogSink sink;
+    private Runnable outputListener = () -> {
+    };
+    private DoubleConsumer progressListener = progress -> {
+    };
+
+    public ScriptLogger(InputStream standardStream, List<String> whitelist) {
+        this.standardStream = standardStream;
+        this.whitelist = whitelist;
+    }
 
     @Override
     public void run() {
-        try (BufferedReader standardBufferReader = new BufferedReader(new InputStreamReader(standardStream))) {
-            standardBufferReader.lines().forEach(logger());
+
+        final MarkerMatcher markerMatcher = CollectionUtils.isEmpty(whitelist) ? null : new MarkerMatcher(whitelist);
+        long droppedCount = 0;
+
+        try (BufferedReader standardBufferReader = new BufferedReader(new InputStreamReader(standardStream), READ_BUFFER_SIZE)) {
+
+            String line;
+            while ((line = standardBufferReader.readLine()) != null) {
+
+                outputListener.run();
+                readProgress(line);
+
+                if (markerMatcher == null || markerMatcher.matches(line)) {
+                    info(line);
+                } else if (!debug(line)) {
+                    droppedCount++;
+                }
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScriptExecutionException("Interrupted while processing script logs", e);
         } catch (Exception e) {
             throw new ScriptExecutionException("Unable to process script logs", e);
         }
+
+        if (droppedCount > 0) {
+            log.warn("Dropped {} debug lines of script output, logs could not keep up", droppedCount);
+        }
+    }
+
+    private void info(String line) throws InterruptedException {
+        if (sink == null) {
+            log.info(line);
+        } else {
+            sink.info(line);
+        }
     }
 
-    private Consumer<String> logger() {
-        if (CollectionUtils.isEmpty(whitelist)) {
-            return log::info;
-        } else return string -> {
-            for (String marker : whitelist) {
-                if (string.contains(marker)) {
-                    log.info(string);
-                    return;
+    private boolean debug(String line) {
+        if (sink == null) {
+            log.debug(line);
+            return true;
+        }
+        return !sink.isDebugEnabled() || sink.debug(line);
+    }
+
+    private void readProgress(String line) {
+        if (line.indexOf('%') >= 0) {
+            final Matcher matcher = PROGRESS_PATTERN.matcher(line);
+            if (matcher.find()) {
+                final double progress = Double.parseDouble(matcher.group(1));
+                if (progress <= 100) {
+                    progressListener.accept(progress);
                 }
             }
-            log.debug(string);
-        };
+        }
     }
 
 }
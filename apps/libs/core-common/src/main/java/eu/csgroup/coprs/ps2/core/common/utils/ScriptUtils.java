@@ -18,16 +18,16 @@ package eu.csgroup.coprs.ps2.core.common.utils;
 
 
 import eu.csgroup.coprs.ps2.core.common.exception.ScriptExecutionException;
+import eu.csgroup.coprs.ps2.core.common.exception.ScriptStalledException;
 import eu.csgroup.coprs.ps2.core.common.model.script.ScriptWrapper;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.File;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -36,18 +36,28 @@ public final class ScriptUtils {
     private static final String SCRIPT_EXECUTION_INTERRUPTED = "Script execution interrupted";
     private static final String SCRIPT_EXECUTION_FAILED = "Script execution failed";
 
+    private static final int MAX_PROCESSES = 64;
+    private static final Duration KILL_GRACE_PERIOD = Duration.ofSeconds(30);
+
+    private static final ProcessSupervisor SUPERVISOR = new ProcessSupervisor(MAX_PROCESSES, KILL_GRACE_PERIOD);
+
+    static {
+        // Scripts are not left running on their own when the worker stops
+        Runtime.getRuntime().addShutdownHook(new Thread(SUPERVISOR::terminateAll, "script-shutdown"));
+    }
+
     public static Integer run(ScriptWrapper scriptWrapper) {
         try {
-            return doRun(scriptWrapper)
-                    .get()
-                    .entrySet()
-                    .stream()
-                    .findAny()
-                    .orElseThrow(() -> new ScriptExecutionException(SCRIPT_EXECUTION_FAILED))
-                    .getValue();
+            return runAsync(scriptWrapper).get();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new ScriptExecutionException(SCRIPT_EXECUTION_INTERRUPTED, e);
+        } catch (ExecutionException e) {
+            // Kept as is so that callers can report stalls apart from other failures
+            if (e.getCause() instanceof ScriptStalledException scriptStalledException) {
+                throw scriptStalledException;
+            }
+            throw new ScriptExecutionException(SCRIPT_EXECUTION_FAILED, e);
         } catch (Exception e) {
             throw new ScriptExecutionException(SCRIPT_EXECUTION_FAILED, e);
         }
@@ -57,7 +67,7 @@ public final class ScriptUtils {
 
         final List<CompletableFuture<Map<String, Integer>>> futures = scriptWrapperSet
                 .stream()
-                .map(ScriptUtils::doRun)
+                .map(scriptWrapper -> runAsync(scriptWrapper).thenApply(exitCode -> Map.of(scriptWrapper.getRunId(), exitCode)))
                 .toList();
 
         try {
@@ -80,57 +90,21 @@ public final class ScriptUtils {
         }
     }
 
-    private static CompletableFuture<Map<String, Integer>> doRun(ScriptWrapper scriptWrapper) {
-
-        return CompletableFuture.supplyAsync(() -> {
-
-                    final String[] command = scriptWrapper.getCommandArgs();
-                    final String workdir = scriptWrapper.getWorkdir();
-
-                    log.info("Running command {} in workdir {}", command, workdir);
-
-                    Process process;
-                    ProcessBuilder processBuilder = new ProcessBuilder();
-                    int exitCode;
-
-                    processBuilder.command(command);
-                    processBuilder.directory(new File(workdir));
-                    processBuilder.environment().putAll(scriptWrapper.getEnvironment());
-                    processBuilder.redirectErrorStream(true);
-
-                    try {
-                        process = processBuilder.start();
-                    } catch (Exception e) {
-                        throw new ScriptExecutionException("Unable to create script process", e);
-                    }
-
-                    ExecutorService executorService = Executors.newSingleThreadExecutor();
-
-                    try {
-
-                        executorService.submit(new ScriptLogger(process.getInputStream(), scriptWrapper.getLogWhitelist()));
-
-                        if (scriptWrapper.getTimeOut() == null) {
-                            exitCode = process.waitFor();
-                        } else {
-                            process.waitFor(scriptWrapper.getTimeOut(), scriptWrapper.getTimeUnit());
-                            exitCode = process.exitValue();
-                        }
-
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new ScriptExecutionException(SCRIPT_EXECUTION_INTERRUPTED, e);
-                    } catch (Exception e) {
-                        throw new ScriptExecutionException(SCRIPT_EXECUTION_FAILED, e);
-                    } finally {
-                        executorService.shutdown();
-                    }
-
-                    log.info("Finished Running command {} in workdir {}", command, workdir);
+    /**
+     * Starts a script without waiting for it
+     *
+     * @param scriptWrapper Script to run
+     * @return The exit code of the script, once it exits
+     */
+    public static CompletableFuture<Integer> runAsync(ScriptWrapper scriptWrapper) {
+        return SUPERVISOR.start(scriptWrapper);
+    }
 
-                    return Map.of(scriptWrapper.getRunId(), exitCode);
-                }
-        );
+    /**
+     * Kills the processes spawned by scripts which are still alive
+     */
+    public static void killSpawned() {
+        SUPERVISOR.killSpawned();
     }
 
     private ScriptUtils() {
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.utils;
+
+import eu.csgroup.coprs.ps2.core.common.model.script.ResourceUsage;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Tells whether a script stalled, a script making progress as long as it writes output or its process tree uses CPU time or storage I/O
+ */
+public class StallWatchdog {
+
+    private final long stallTimeoutNanos;
+    private final ResourceUsage resourceUsage;
+    private final LongSupplier clock;
+
+    private volatile long lastProgress;
+    private double lastCpuSeconds;
+    private long lastReadBytes;
+    private long lastWriteBytes;
+
+    public StallWatchdog(Duration stallTimeout, ResourceUsage resourceUsage) {
+        this(stallTimeout, resourceUsage, System::nanoTime);
+    }
+
+    StallWatchdog(Duration stallTimeout, ResourceUsage resourceUsage, LongSupplier clock) {
+        this.stallTimeoutNanos = stallTimeout.toNanos();
+        this.resourceUsage = resourceUsage;
+        this.clock = clock;
+        this.lastProgress = clock.getAsLong();
+    }
+
+    public void outputReceived() {
+        lastProgress = clock.getAsLong();
+    }
+
+    /**
+     * Checks the resource usage against the one of the previous check
+     *
+     * @return Whether the script made no progress during the whole stall timeout
+     */
+    public synchronized boolean isStalled() {
+
+        final double cpuSeconds = resourceUsage.getCpuSeconds();
+        final long readBytes = resourceUsage.getReadBytes();
+        final long writeBytes = resourceUsage.getWriteBytes();
+
+        if (cpuSeconds > lastCpuSeconds || readBytes > lastReadBytes || writeBytes > lastWriteBytes) {
+            lastCpuSeconds = cpuSeconds;
+            lastReadBytes = readBytes;
+            lastWriteBytes = writeBytes;
+            lastProgress = clock.getAsLong();
+        }
+
+        return clock.getAsLong() - lastProgress > stallTimeoutNanos;
+    }
+
+}
@@ -20,6 +20,7 @@ import eu.csgroup.coprs.ps2.core.common.test.AbstractSpringBootTest;
 import nl.altindag.log.LogCaptor;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -132,6 +133,26 @@ class TaskReportTest extends AbstractSpringBootTest {
         }
     }
 
+    @Test
+    void timeout() {
+
+        try (LogCaptor logCaptor = LogCaptor.forClass(TraceLogger.class)) {
+
+            final TaskReport taskReport = fullTraceManager("chainTask");
+
+            taskReport.begin("begin message");
+            taskReport.timeout("timeout message", Map.of("cpu_time_seconds_double", 1.5));
+
+            assertEquals(2, logCaptor.getLogs().size());
+
+            final String endLog = logCaptor.getLogs().get(1);
+
+            assertTrue(endLog.contains("ERROR"));
+            assertTrue(endLog.contains("\"status\":\"TIMEOUT\""));
+            assertTrue(endLog.contains("cpu_time_seconds_double"));
+        }
+    }
+
     private TaskReport basicTraceManager(String taskName) {
         return traceManager(taskName, satellite, null, null);
     }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.csgroup.coprs.ps2.core.common.service.claimcheck;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
+import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
+import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
+import eu.csgroup.coprs.ps2.core.common.settings.FolderParameters;
+import eu.csgroup.coprs.ps2.core.common.settings.MessageParameters;
+import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
+import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimCheckServiceTest extends AbstractTest {
+
+    private Path sharedFolder;
+    private SharedProperties sharedProperties;
+    private ClaimCheckService claimCheckService;
+    private Set<FileInfo> files;
+
+    @Override
+    public void setup() throws Exception {
+
+        sharedFolder = Files.createTempDirectory("shared");
+
+        sharedProperties = new SharedProperties();
+        sharedProperties.setSharedFolderRoot(sharedFolder.toString());
+        sharedProperties.setClaimCheck(true);
+
+        claimCheckService = new ClaimCheckService(sharedProperties, new ObjectMapper());
+
+        files = Set.of(podamFactory.manufacturePojo(FileInfo.class), podamFactory.manufacturePojo(FileInfo.class));
+    }
+
+    @Override
+    public void teardown() throws Exception {
+        FileSystemUtils.deleteRecursively(sharedFolder);
+    }
+
+    @Test
+    void store() throws Exception {
+        // When
+        final String reference = claimCheckService.store(files);
+        final String otherReference = claimCheckService.store(files);
+        // Then
+        assertNotNull(reference);
+        assertEquals(reference, otherReference);
+        try (Stream<Path> pathStream = Files.list(sharedFolder.resolve(FolderParameters.CLAIM_CHECK_FOLDER))) {
+            assertEquals(1, pathStream.count());
+        }
+    }
+
+    @Test
+    void store_disabled() {
+        // Given
+        sharedProperties.setClaimCheck(false);
+        // When
+        final String reference = claimCheckService.store(files);
+        // Then
+        assertNull(reference);
+        assertFalse(Files.exists(sharedFolder.resolve(FolderParameters.CLAIM_CHECK_FOLDER)));
+    }
+
+    @Test
+    void reference() {
+        // Given
+        final ProcessingMessage processingMessage = ProcessingMessageUtils.create();
+        final L1ExecutionInput executionInput = (L1ExecutionInput) new L1ExecutionInput().setFiles(files);
+        // When
+        claimCheckService.reference(processingMessage, executionInput, "reference");
+        // Then
+        assertNull(executionInput.getFiles());
+        assertEquals("reference", processingMessage.getAdditionalFields().get(MessageParameters.FILES_REFERENCE_FIELD));
+    }
+
+    @Test
+    void resolve() {
+        // Given
+        final ProcessingMessage processingMessage = ProcessingMessageUtils.create();
+        final L1ExecutionInput executionInput = (L1ExecutionInput) new L1ExecutionInput().setFiles(files);
+        claimCheckService.reference(processingMessage, executionInput, claimCheckService.store(files));
+        // A fresh instance has to read the files from the shared folder
+        final ClaimCheckService workerClaimCheckService = new ClaimCheckService(sharedProperties, new ObjectMapper());
+        // When
+        workerClaimCheckService.resolve(processingMessage, executionInput);
+        // Then
+        assertEquals(files, executionInput.getFiles());
+    }
+
+    @Test
+    void resolve_none() {
+        // Given
+        final L1ExecutionInput executionInput = (L1ExecutionInput) new L1ExecutionInput().setFiles(files);
+        // When
+        claimCheckService.resolve(ProcessingMessageUtils.create(), executionInput);
+        // Then
+        assertEquals(files, executionInput.getFiles());
+    }
+
+}
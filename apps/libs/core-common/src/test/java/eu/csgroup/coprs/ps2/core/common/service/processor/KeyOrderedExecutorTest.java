@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.csgroup.coprs.ps2.core.common.service.processor;
+
+import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class KeyOrderedExecutorTest extends AbstractTest {
+
+    private KeyOrderedExecutor executor;
+
+    @Override
+    public void setup() throws Exception {
+        executor = new KeyOrderedExecutor("test", 4);
+    }
+
+    @Override
+    public void teardown() throws Exception {
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_sameKey() {
+
+        // Given
+        final List<Integer> processed = new CopyOnWriteArrayList<>();
+
+        // When
+        final List<CompletableFuture<Integer>> futureList = IntStream.range(0, 100)
+                .mapToObj(value -> executor.submit("key", () -> {
+                    processed.add(value);
+                    return value;
+                }))
+                .toList();
+        futureList.forEach(CompletableFuture::join);
+
+        // Then
+        assertEquals(IntStream.range(0, 100).boxed().toList(), processed);
+    }
+
+    @Test
+    void laneIndex() {
+        // When Then
+        assertEquals(executor.laneIndex("key"), executor.laneIndex("key"));
+        assertNotEquals(executor.laneIndex(null), executor.laneIndex(null));
+    }
+
+    @Test
+    void parallelism() {
+        // When Then
+        assertEquals(1, new KeyOrderedExecutor("serial", 0).getParallelism());
+        assertEquals(4, executor.getParallelism());
+    }
+
+}
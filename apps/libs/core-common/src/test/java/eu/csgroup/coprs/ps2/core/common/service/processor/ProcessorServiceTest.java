@@ -16,20 +16,32 @@
 
 package eu.csgroup.coprs.ps2.core.common.service.processor;
 
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.exception.ProcessingException;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.messaging.Message;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ProcessorServiceTest extends AbstractTest {
@@ -37,16 +49,24 @@ class ProcessorServiceTest extends AbstractTest {
     private static final ProcessingMessage inputMessage = ProcessingMessageUtils.create();
     private static final ProcessingMessage outputMessage = ProcessingMessageUtils.create();
 
+    @Mock
+    private StreamBridge streamBridge;
+
     private ProcessorService processorService;
 
     @Override
     public void setup() throws Exception {
         processorService = Mockito.mock(ProcessorService.class, Mockito.CALLS_REAL_METHODS);
+        ReflectionTestUtils.setField(processorService, "dlqName", "dlq");
+        ReflectionTestUtils.setField(processorService, "dlqBridge", streamBridge);
+        final SharedProperties sharedProperties = new SharedProperties();
+        sharedProperties.setMessageParallelism(2);
+        ReflectionTestUtils.setField(processorService, "sharedProperties", sharedProperties);
     }
 
     @Override
     public void teardown() throws Exception {
-        //
+        processorService.stopBatchExecutor();
     }
 
     @Test
@@ -80,4 +100,108 @@ class ProcessorServiceTest extends AbstractTest {
         assertThrows(ProcessingException.class, () -> function.apply(inputMessage));
     }
 
+    @Test
+    void processBatch() {
+
+        // Given
+        when(processorService.processMessage(any())).thenReturn(Set.of(outputMessage));
+
+        // When
+        final Function<List<ProcessingMessage>, List<Message<ProcessingMessage>>> function = processorService.processBatch();
+
+        // Then
+        assertNotNull(function);
+        final List<Message<ProcessingMessage>> outputList = function.apply(List.of(inputMessage, inputMessage));
+        assertEquals(2, outputList.size());
+        assertEquals(outputMessage.getUid(), outputList.get(0).getPayload().getUid());
+        verify(processorService, times(2)).processMessage(inputMessage);
+        verify(streamBridge, never()).send(any(), any());
+    }
+
+    @Test
+    void processBatch_with_exception() {
+
+        // Given
+        final ProcessingMessage failingMessage = ProcessingMessageUtils.create();
+        when(processorService.processMessage(inputMessage)).thenReturn(Set.of(outputMessage));
+        when(processorService.processMessage(failingMessage)).thenThrow(new ProcessingException("Nope"));
+        when(streamBridge.send(eq("dlq"), any())).thenReturn(true);
+
+        // When
+        final Function<List<ProcessingMessage>, List<Message<ProcessingMessage>>> function = processorService.processBatch();
+
+        // Then
+        final List<Message<ProcessingMessage>> outputList = function.apply(List.of(failingMessage, inputMessage));
+        assertEquals(1, outputList.size());
+        assertEquals(outputMessage.getUid(), outputList.get(0).getPayload().getUid());
+        verify(streamBridge).send(eq("dlq"), argThat(message -> message instanceof Message<?> dlqMessage && dlqMessage.getPayload() == failingMessage));
+    }
+
+    @Test
+    void processBatch_dlqFailed() {
+
+        // Given
+        when(processorService.processMessage(inputMessage)).thenThrow(new ProcessingException("Nope"));
+        when(streamBridge.send(eq("dlq"), any())).thenReturn(false);
+
+        // When
+        final Function<List<ProcessingMessage>, List<Message<ProcessingMessage>>> function = processorService.processBatch();
+
+        // Then
+        final List<ProcessingMessage> inputList = List.of(inputMessage);
+        final CompletionException exception = assertThrows(CompletionException.class, () -> function.apply(inputList));
+        assertInstanceOf(ProcessingException.class, exception.getCause());
+    }
+
+    @Test
+    void processBatch_parallelismTooHigh() {
+
+        // Given
+        when(processorService.getMaxMessageParallelism()).thenReturn(1);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> processorService.processBatch());
+    }
+
+    @Test
+    void processBatch_pollIntervalTooShort() {
+
+        // Given
+        ReflectionTestUtils.setField(processorService, "maxPollRecords", 2);
+        ReflectionTestUtils.setField(processorService, "maxPollInterval", 3600000L);
+        when(processorService.getMaxMessageDuration()).thenReturn(Duration.ofHours(1));
+
+        // When
+        assertThrows(IllegalStateException.class, () -> processorService.processBatch());
+    }
+
+    @Test
+    void processBatch_pollIntervalCovered() {
+
+        // Given
+        ReflectionTestUtils.setField(processorService, "maxPollRecords", 2);
+        ReflectionTestUtils.setField(processorService, "maxPollInterval", 7200000L);
+        when(processorService.getMaxMessageDuration()).thenReturn(Duration.ofHours(1));
+
+        // When
+        final Function<List<ProcessingMessage>, List<Message<ProcessingMessage>>> function = processorService.processBatch();
+
+        // Then
+        assertNotNull(function);
+    }
+
+    @Test
+    void stopBatchExecutor() {
+
+        // Given
+        final Function<List<ProcessingMessage>, List<Message<ProcessingMessage>>> function = processorService.processBatch();
+
+        // When
+        processorService.stopBatchExecutor();
+
+        // Then
+        final List<ProcessingMessage> inputList = List.of(inputMessage);
+        assertThrows(RejectedExecutionException.class, () -> function.apply(inputList));
+    }
+
 }
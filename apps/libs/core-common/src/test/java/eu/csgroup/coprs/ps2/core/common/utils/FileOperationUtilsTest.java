@@ -28,6 +28,9 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Set;
 
@@ -128,6 +131,18 @@ class FileOperationUtilsTest {
         assertTrue(Files.exists(dir2));
     }
 
+    @Test
+    void deleteExpiredFiles() throws IOException {
+        final Path expired = COPY_PATH.resolve("expired");
+        final Path recent = COPY_PATH.resolve("recent");
+        Files.createFile(expired);
+        Files.createFile(recent);
+        Files.setLastModifiedTime(expired, FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS)));
+        FileOperationUtils.deleteExpiredFiles(COPY_PATH, 1);
+        assertFalse(Files.exists(expired));
+        assertTrue(Files.exists(recent));
+    }
+
     @Test
     void findFiles() {
         final List<Path> foo = FileOperationUtils.findFiles(COPY_PATH, "fo*");
@@ -164,6 +179,14 @@ class FileOperationUtilsTest {
         assertEquals(1, folders.size());
     }
 
+    @Test
+    void writeAtomically() throws IOException {
+        final Path path = COPY_PATH.resolve("written").resolve("file");
+        FileOperationUtils.writeAtomically(path, "foo".getBytes());
+        assertEquals("foo", Files.readString(path));
+        assertEquals(1, FileOperationUtils.countFiles(path.getParent()));
+    }
+
     @Test
     void merge() {
         FileOperationUtils.mergeFiles(MERGE_PATH, MERGE_FILE, "S2D.*");
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the time {@link MarkerMatcher} takes per log line against checking each marker in turn, run on demand from the test classpath
+ * with the number of markers as optional argument
+ */
+public class MarkerMatcherBenchmark {
+
+    private static final int LINE_COUNT = 100_000;
+    private static final int LINE_LENGTH = 120;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+
+        final int markerCount = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        final Random random = new Random(42);
+
+        final List<String> markers = new ArrayList<>();
+        for (int index = 0; index < markerCount; index++) {
+            markers.add("[" + randomText(random, 6) + "]");
+        }
+
+        // Lines as written by the IPFs, one in ten carrying a marker
+        final List<String> lines = new ArrayList<>();
+        for (int index = 0; index < LINE_COUNT; index++) {
+            final String line = randomText(random, LINE_LENGTH);
+            lines.add(index % 10 == 0 ? line + markers.get(random.nextInt(markerCount)) : line);
+        }
+
+        final MarkerMatcher markerMatcher = new MarkerMatcher(markers);
+
+        for (int round = 0; round < ROUNDS; round++) {
+
+            long start = System.nanoTime();
+            int matcherCount = 0;
+            for (String line : lines) {
+                matcherCount += markerMatcher.matches(line) ? 1 : 0;
+            }
+            final long matcherTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int containsCount = 0;
+            for (String line : lines) {
+                containsCount += markers.stream().anyMatch(line::contains) ? 1 : 0;
+            }
+            final long containsTime = System.nanoTime() - start;
+
+            if (matcherCount != containsCount) {
+                throw new IllegalStateException("Matcher found " + matcherCount + " lines, contains " + containsCount);
+            }
+
+            System.out.printf("Round %d: matcher %d ns/line, contains %d ns/line%n", round,
+                    matcherTime / LINE_COUNT, containsTime / LINE_COUNT);
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        final StringBuilder stringBuilder = new StringBuilder(length);
+        for (int index = 0; index < length; index++) {
+            stringBuilder.append((char) (' ' + random.nextInt('~' - ' ')));
+        }
+        return stringBuilder.toString();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MarkerMatcherTest {
+
+    @Test
+    void matches() {
+        // Given
+        final MarkerMatcher markerMatcher = new MarkerMatcher(List.of("[I]", "[W]", "[E]", "Progress"));
+        // When Then
+        assertTrue(markerMatcher.matches("2023-01-01 [I] Starting step"));
+        assertTrue(markerMatcher.matches("[E]"));
+        assertTrue(markerMatcher.matches("Step Progress 45%"));
+        assertFalse(markerMatcher.matches("2023-01-01 [D] Reading tile"));
+        assertFalse(markerMatcher.matches("[I"));
+        assertFalse(markerMatcher.matches(""));
+    }
+
+    @Test
+    void matches_overlapping() {
+        // Given
+        final MarkerMatcher markerMatcher = new MarkerMatcher(List.of("abcd", "bce"));
+        // When Then
+        assertTrue(markerMatcher.matches("xabce"));
+        assertFalse(markerMatcher.matches("abcbd"));
+    }
+
+    @Test
+    void matches_automaton() {
+        // Given
+        final MarkerMatcher markerMatcher = new MarkerMatcher(List.of("[I]", "[W]", "[E]", "Progress"), 0);
+        // When Then
+        assertTrue(markerMatcher.matches("2023-01-01 [I] Starting step"));
+        assertTrue(markerMatcher.matches("[E]"));
+        assertTrue(markerMatcher.matches("Step Progress 45%"));
+        assertFalse(markerMatcher.matches("2023-01-01 [D] Reading tile"));
+        assertFalse(markerMatcher.matches("[I"));
+        assertFalse(markerMatcher.matches(""));
+    }
+
+    @Test
+    void matches_automaton_overlapping() {
+        // Given
+        final MarkerMatcher markerMatcher = new MarkerMatcher(List.of("abcd", "bce"), 0);
+        // When Then
+        assertTrue(markerMatcher.matches("xabce"));
+        assertFalse(markerMatcher.matches("abcbd"));
+    }
+
+    @Test
+    void matches_automaton_nonAscii() {
+        // Given
+        final MarkerMatcher markerMatcher = new MarkerMatcher(List.of("\u00e9a", "a\u00e9b", "\u00b0C"), 0);
+        // When Then
+        assertTrue(markerMatcher.matches("xa\u00e9a"));
+        assertTrue(markerMatcher.matches("Temperature 20\u00b0C"));
+        assertFalse(markerMatcher.matches("a\u00e9\u00b0b"));
+        assertFalse(markerMatcher.matches("ab\u00e9c"));
+    }
+
+    @Test
+    void matches_automaton_empty() {
+        // Given
+        final MarkerMatcher markerMatcher = new MarkerMatcher(List.of("[I]", ""), 0);
+        // When Then
+        assertTrue(markerMatcher.matches("anything"));
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.utils;
+
+import eu.csgroup.coprs.ps2.core.common.exception.ScriptStalledException;
+import eu.csgroup.coprs.ps2.core.common.model.script.ResourceUsage;
+import eu.csgroup.coprs.ps2.core.common.model.script.ScriptWrapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ProcessSupervisorTest {
+
+    private static final String WORKDIR_PATH = Paths.get("src/test/resources/scriptUtilsTest").toAbsolutePath().toString();
+
+    private ProcessSupervisor processSupervisor;
+    private Path tmpFolder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        processSupervisor = new ProcessSupervisor(2, Duration.ofSeconds(1));
+        tmpFolder = Files.createTempDirectory("supervisor");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        processSupervisor.terminateAll();
+        FileSystemUtils.deleteRecursively(tmpFolder);
+    }
+
+    @Test
+    void start() throws Exception {
+        // When
+        final Integer exitCode = processSupervisor.start(new ScriptWrapper().setRunId("id").setWorkdir(WORKDIR_PATH).setCommand(List.of("./script_exit.sh")))
+                .get(10, TimeUnit.SECONDS);
+        // Then
+        assertEquals(3, exitCode);
+        assertEquals(0, processSupervisor.getRunningCount());
+    }
+
+    @Test
+    void start_sampling() throws Exception {
+        // Given
+        assumeTrue(ProcessTreeSampler.isSupported());
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final ProcessSupervisor samplingSupervisor = new ProcessSupervisor(2, Duration.ofSeconds(1), registry);
+        final ResourceUsage resourceUsage = new ResourceUsage("task");
+        final ScriptWrapper scriptWrapper = new ScriptWrapper()
+                .setRunId("id")
+                .setWorkdir(tmpFolder.toString())
+                .setCommand(List.of("bash", "-c", "end=$((SECONDS + 2)); while [ $SECONDS -lt $end ]; do :; done"))
+                .setResourceUsage(resourceUsage)
+                .setSamplingInterval(Duration.ofMillis(200));
+        // When
+        final CompletableFuture<Integer> result = samplingSupervisor.start(scriptWrapper);
+        // Then
+        assertNotNull(registry.find("rs.ew.ipf.cpu.time").tag("task", "task").gauge());
+        assertEquals(0, result.get(10, TimeUnit.SECONDS));
+        assertTrue(resourceUsage.getSampleCount() > 0);
+        assertTrue(resourceUsage.getCpuSeconds() > 0);
+        assertTrue(resourceUsage.getPeakRssBytes() > 0);
+        final Map<String, Object> customFields = resourceUsage.toCustomFields();
+        assertEquals("task", customFields.get("task_name_string"));
+        assertTrue(customFields.containsKey("cpu_time_seconds_double"));
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    void start_stalled() {
+        // Given
+        final ScriptWrapper scriptWrapper = new ScriptWrapper()
+                .setRunId("id")
+                .setWorkdir(tmpFolder.toString())
+                .setCommand(List.of("bash", "-c", "sleep 60"))
+                .setSamplingInterval(Duration.ofMillis(200))
+                .setStallTimeout(Duration.ofSeconds(1));
+        // When
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> processSupervisor.start(scriptWrapper).get(10, TimeUnit.SECONDS));
+        // Then
+        assertInstanceOf(ScriptStalledException.class, exception.getCause());
+    }
+
+    @Test
+    void start_progressing() throws Exception {
+        // Given
+        final ScriptWrapper scriptWrapper = new ScriptWrapper()
+                .setRunId("id")
+                .setWorkdir(tmpFolder.toString())
+                .setCommand(List.of("bash", "-c", "for i in $(seq 8); do echo $i; sleep 0.3; done"))
+                .setSamplingInterval(Duration.ofMillis(200))
+                .setStallTimeout(Duration.ofSeconds(1));
+        // When
+        final Integer exitCode = processSupervisor.start(scriptWrapper).get(10, TimeUnit.SECONDS);
+        // Then
+        assertEquals(0, exitCode);
+    }
+
+    @Test
+    void start_unknownCommand() {
+        final ScriptWrapper scriptWrapper = new ScriptWrapper().setRunId("id").setWorkdir(WORKDIR_PATH).setCommand(List.of("./unknown.sh"));
+        assertThrows(ExecutionException.class, () -> processSupervisor.start(scriptWrapper).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void start_timeout() throws Exception {
+        // Given
+        final Path pidFile = tmpFolder.resolve("pid");
+        final ScriptWrapper scriptWrapper = new ScriptWrapper()
+                .setRunId("id")
+                .setWorkdir(tmpFolder.toString())
+                .setCommand(List.of("bash", "-c", "sleep 60 & echo $! > " + pidFile + "; wait"))
+                .setTimeOut(1L)
+                .setTimeUnit(TimeUnit.SECONDS);
+        // When
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> processSupervisor.start(scriptWrapper).get(10, TimeUnit.SECONDS));
+        // Then
+        assertTrue(exception.getCause().getMessage().contains("timed out"));
+        final Optional<ProcessHandle> child = ProcessHandle.of(Long.parseLong(Files.readString(pidFile).trim()));
+        final Instant deadline = Instant.now().plusSeconds(10);
+        while (child.map(ProcessHandle::isAlive).orElse(false) && Instant.now().isBefore(deadline)) {
+            Thread.sleep(100);
+        }
+        assertFalse(child.map(ProcessHandle::isAlive).orElse(false));
+    }
+
+    @Test
+    void killSpawned() throws Exception {
+        // Given
+        final Path pidFile = tmpFolder.resolve("pid");
+        final ScriptWrapper scriptWrapper = new ScriptWrapper()
+                .setRunId("id")
+                .setWorkdir(tmpFolder.toString())
+                .setCommand(List.of("bash", "-c", "sleep 60 & echo $! > " + pidFile + "; sleep 1"))
+                .setSamplingInterval(Duration.ofMillis(200));
+        assertEquals(0, processSupervisor.start(scriptWrapper).get(10, TimeUnit.SECONDS));
+        final long orphanPid = Long.parseLong(Files.readString(pidFile).trim());
+        assertTrue(isRunning(orphanPid));
+        // When
+        processSupervisor.killSpawned();
+        // Then
+        final Instant deadline = Instant.now().plusSeconds(10);
+        while (isRunning(orphanPid) && Instant.now().isBefore(deadline)) {
+            Thread.sleep(100);
+        }
+        assertFalse(isRunning(orphanPid));
+    }
+
+    @Test
+    void start_tooMany() throws Exception {
+        // Given
+        final ScriptWrapper sleepWrapper = new ScriptWrapper().setRunId("sleep").setWorkdir(tmpFolder.toString()).setCommand(List.of("sleep", "60"));
+        processSupervisor.start(sleepWrapper);
+        processSupervisor.start(sleepWrapper);
+        // When Then
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> processSupervisor.start(sleepWrapper).get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause().getMessage().contains("Too many scripts"));
+        assertEquals(2, processSupervisor.getRunningCount());
+    }
+
+    private static boolean isRunning(long pid) {
+        // A killed orphan may be left as a zombie when nothing reaps it
+        final Path stat = Paths.get("/proc", String.valueOf(pid), "stat");
+        if (!Files.exists(stat)) {
+            return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+        }
+        try {
+            final String content = Files.readString(stat);
+            return content.charAt(content.lastIndexOf(')') + 2) != 'Z';
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+}
@@ -17,10 +17,16 @@
 package eu.csgroup.coprs.ps2.core.common.utils;
 
 import eu.csgroup.coprs.ps2.core.common.exception.InvalidMessageException;
+import eu.csgroup.coprs.ps2.core.common.model.CommonInput;
+import eu.csgroup.coprs.ps2.core.common.model.l0.L0cPreparationInput;
+import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
 import eu.csgroup.coprs.ps2.core.common.settings.MessageParameters;
 import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Map;
 
@@ -136,6 +142,113 @@ class ProcessingMessageUtilsTest {
         assertEquals(Instant.EPOCH, t0PdgsDate);
     }
 
+    @Test
+    void getAdditionalField_typed() {
+        // Given
+        final L1ExecutionInput executionInput = new L1ExecutionInput();
+        final ProcessingMessage processingMessage = ProcessingMessageUtils.create();
+        processingMessage.getAdditionalFields().put(MessageParameters.EXECUTION_INPUT_FIELD, executionInput);
+        // When
+        final L1ExecutionInput additionalField = ProcessingMessageUtils.getAdditionalField(processingMessage, MessageParameters.EXECUTION_INPUT_FIELD, L1ExecutionInput.class);
+        // Then
+        assertSame(executionInput, additionalField);
+    }
+
+    @Test
+    void getAdditionalField_received() {
+        // Given
+        final ProcessingMessage processingMessage = ProcessingMessageUtils.create();
+        processingMessage.getAdditionalFields().put(MessageParameters.EXECUTION_INPUT_FIELD, Map.of("datastrip", "datastrip", "satellite", "A"));
+        // When
+        final CommonInput commonInput = ProcessingMessageUtils.getCommonInput(processingMessage);
+        final L1ExecutionInput executionInput = ProcessingMessageUtils.getAdditionalField(processingMessage, MessageParameters.EXECUTION_INPUT_FIELD, L1ExecutionInput.class);
+        final L1ExecutionInput cachedInput = ProcessingMessageUtils.getAdditionalField(processingMessage, MessageParameters.EXECUTION_INPUT_FIELD, L1ExecutionInput.class);
+        // Then
+        assertEquals("A", commonInput.getSatellite());
+        // A value first read through a parent type is still fully converted when read as its own type
+        assertEquals("datastrip", executionInput.getDatastrip());
+        assertSame(executionInput, cachedInput);
+        assertSame(executionInput, ProcessingMessageUtils.getCommonInput(processingMessage));
+    }
+
+    @Test
+    void getKey_metadata() {
+        // Given
+        final ProcessingMessage processingMessage = ProcessingMessageUtils.create().setKeyObjectStorage("granule");
+        processingMessage.getMetadata().put(MessageParameters.DATASTRIP_ID_FIELD, "datastrip");
+        // When
+        final String key = ProcessingMessageUtils.getKey(processingMessage);
+        // Then
+        assertEquals("datastrip", key);
+    }
+
+    @Test
+    void getKey_executionInput() {
+        // Given
+        final ProcessingMessage processingMessage = ProcessingMessageUtils.create().setKeyObjectStorage(MessageParameters.EMPTY);
+        processingMessage.getAdditionalFields().put(MessageParameters.EXECUTION_INPUT_FIELD, new L1ExecutionInput().setDatastrip("datastrip").setTile("tile"));
+        // When
+        final String key = ProcessingMessageUtils.getKey(processingMessage);
+        // Then
+        assertEquals("datastrip/tile", key);
+    }
+
+    @Test
+    void getKey_preparationInput() {
+        // Given
+        final L0cPreparationInput preparationInput = new L0cPreparationInput();
+        preparationInput.setSession("session");
+        final ProcessingMessage processingMessage = ProcessingMessageUtils.create();
+        processingMessage.getAdditionalFields().put(MessageParameters.PREPARATION_INPUT_FIELD, preparationInput);
+        // When
+        final String key = ProcessingMessageUtils.getKey(processingMessage);
+        // Then
+        assertEquals("session", key);
+    }
+
+    @Test
+    void getKey_received() {
+        // Given
+        final ProcessingMessage processingMessage = ProcessingMessageUtils.create();
+        processingMessage.getAdditionalFields().put(MessageParameters.EXECUTION_INPUT_FIELD, Map.of("datastrip", "datastrip"));
+        // When
+        final String key = ProcessingMessageUtils.getKey(processingMessage);
+        // Then
+        assertEquals("datastrip", key);
+    }
+
+    @Test
+    void getKey_product() {
+        // When
+        final String key = ProcessingMessageUtils.getKey(ProcessingMessageUtils.create().setKeyObjectStorage("product"));
+        // Then
+        assertEquals("product", key);
+    }
+
+    @Test
+    void getKey_none() {
+        // When
+        final String key = ProcessingMessageUtils.getKey(withoutFields());
+        // Then
+        assertNull(key);
+    }
+
+    @Test
+    void toMessage() {
+        // When
+        final Message<ProcessingMessage> message = ProcessingMessageUtils.toMessage(ProcessingMessageUtils.create().setKeyObjectStorage("product"));
+        // Then
+        assertArrayEquals("product".getBytes(StandardCharsets.UTF_8), (byte[]) message.getHeaders().get(KafkaHeaders.MESSAGE_KEY));
+    }
+
+    @Test
+    void toMessage_noKey() {
+        // When
+        final Message<ProcessingMessage> message = ProcessingMessageUtils.toMessage(withoutFields());
+        // Then
+        assertFalse(message.getHeaders().containsKey(KafkaHeaders.MESSAGE_KEY));
+    }
+
     private ProcessingMessage withFields() {
         return ProcessingMessageUtils.create()
                 .setAdditionalFields(Map.of(fieldName, fieldValue))
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.utils;
+
+import nl.altindag.log.LogCaptor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScriptLoggerTest {
+
+    private static final String OUTPUT = """
+            [I] Starting step
+            [D] Reading tile
+            [I] Progress: 45 %
+            [D] Progress of tile 12.5%
+            """;
+
+    @Test
+    void run() {
+        try (LogCaptor logCaptor = LogCaptor.forClass(ScriptLogger.class)) {
+            // Given
+            final List<Double> progress = new ArrayList<>();
+            final ScriptLogger scriptLogger = new ScriptLogger(new ByteArrayInputStream(OUTPUT.getBytes(StandardCharsets.UTF_8)), List.of("[I]"));
+            scriptLogger.setProgressListener(progress::add);
+            // When
+            scriptLogger.run();
+            // Then
+            assertEquals(List.of("[I] Starting step", "[I] Progress: 45 %"), logCaptor.getInfoLogs());
+            assertEquals(List.of("[D] Reading tile", "[D] Progress of tile 12.5%"), logCaptor.getDebugLogs());
+            assertEquals(List.of(45.0, 12.5), progress);
+        }
+    }
+
+    @Test
+    void run_noWhitelist() {
+        try (LogCaptor logCaptor = LogCaptor.forClass(ScriptLogger.class)) {
+            // Given
+            final ScriptLogger scriptLogger = new ScriptLogger(new ByteArrayInputStream(OUTPUT.getBytes(StandardCharsets.UTF_8)), List.of());
+            // When
+            scriptLogger.run();
+            // Then
+            assertEquals(4, logCaptor.getInfoLogs().size());
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.common.utils;
+
+import eu.csgroup.coprs.ps2.core.common.model.script.ResourceUsage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StallWatchdogTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private ResourceUsage resourceUsage;
+    private StallWatchdog watchdog;
+
+    @BeforeEach
+    void setUp() {
+        resourceUsage = new ResourceUsage("task");
+        watchdog = new StallWatchdog(Duration.ofSeconds(10), resourceUsage, clock::get);
+    }
+
+    @Test
+    void isStalled() {
+        // Given
+        clock.addAndGet(11 * SECOND);
+        // When Then
+        assertTrue(watchdog.isStalled());
+    }
+
+    @Test
+    void isStalled_output() {
+        // Given
+        clock.addAndGet(9 * SECOND);
+        watchdog.outputReceived();
+        clock.addAndGet(9 * SECOND);
+        // When Then
+        assertFalse(watchdog.isStalled());
+    }
+
+    @Test
+    void isStalled_resources() {
+        // Given
+        clock.addAndGet(9 * SECOND);
+        resourceUsage.update(1.0, 0, 0, 0, 0);
+        assertFalse(watchdog.isStalled());
+        clock.addAndGet(9 * SECOND);
+        resourceUsage.update(1.0, 0, 0, 0, 1024);
+        assertFalse(watchdog.isStalled());
+        // When
+        clock.addAndGet(11 * SECOND);
+        resourceUsage.update(1.0, 0, 0, 0, 1024);
+        // Then
+        assertTrue(watchdog.isStalled());
+    }
+
+}
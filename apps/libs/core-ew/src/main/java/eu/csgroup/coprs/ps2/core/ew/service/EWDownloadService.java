@@ -36,9 +36,11 @@ import java.util.stream.Collectors;
 public abstract class EWDownloadService {
 
     protected final ObsService obsService;
+    protected final EWPrefetchService prefetchService;
 
-    protected EWDownloadService(ObsService obsService) {
+    protected EWDownloadService(ObsService obsService, EWPrefetchService prefetchService) {
         this.obsService = obsService;
+        this.prefetchService = prefetchService;
     }
 
     public void download(Set<FileInfo> fileInfoSet, UUID parentUid) {
@@ -55,7 +57,7 @@ public abstract class EWDownloadService {
         if (!stdFiles.isEmpty()) {
             log.info("Downloading standard files ({})", stdFiles.size());
             prepareStandardFiles(stdFiles);
-            obsService.download(stdFiles, parentUid);
+            prefetchService.download(stdFiles, parentUid);
             log.info("Finished downloading standard files");
         }
 
@@ -93,7 +95,7 @@ public abstract class EWDownloadService {
 
         if (!fileInfoSet.isEmpty()) {
 
-            obsService.download(fileInfoSet, parentUid);
+            prefetchService.download(fileInfoSet, parentUid);
 
             Set<String> trashFolders = new HashSet<>();
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.ew.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
+import eu.csgroup.coprs.ps2.core.common.exception.FileOperationException;
+import eu.csgroup.coprs.ps2.core.common.model.ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
+import eu.csgroup.coprs.ps2.core.common.settings.FolderParameters;
+import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
+import eu.csgroup.coprs.ps2.core.ew.model.LedgerEntry;
+import eu.csgroup.coprs.ps2.core.ew.model.LedgerPhase;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Records the progress of jobs in the shared folder, under the hash of their execution input.
+ * <p>
+ * A message delivered again, after a rebalance or a restart, is then recognized whatever its uid, and a job already done is not run twice.
+ * Failing to read or write a record never fails a job, it is only processed as if it were new.
+ */
+@Slf4j
+@Component
+public class EWLedgerService {
+
+    private static final String EXTENSION = ".json";
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final SharedProperties sharedProperties;
+    private final ObjectMapper objectMapper;
+
+    private Instant lastPurge = Instant.EPOCH;
+
+    public EWLedgerService(SharedProperties sharedProperties, ObjectMapper objectMapper) {
+        this.sharedProperties = sharedProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Computes the key identifying a job
+     *
+     * @param executionInput Execution input of the job
+     * @return The key of the job, null if the ledger is disabled or the input cannot be serialized
+     */
+    public String getKey(ExecutionInput executionInput) {
+
+        if (!sharedProperties.isLedger()) {
+            return null;
+        }
+
+        try {
+            return DigestUtils.sha256Hex(objectMapper.writeValueAsBytes(executionInput));
+        } catch (IOException e) {
+            log.warn("Unable to compute ledger key, job will not be recorded: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public Optional<LedgerEntry> find(String key) {
+
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        final Path path = getPath(key);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(objectMapper.readValue(path.toFile(), LedgerEntry.class));
+        } catch (IOException e) {
+            log.warn("Unable to read ledger entry {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void record(String key, LedgerPhase phase, String jobUid) {
+        record(key, phase, jobUid, Set.of());
+    }
+
+    public void record(String key, LedgerPhase phase, String jobUid, Set<ProcessingMessage> outputs) {
+
+        if (key == null) {
+            return;
+        }
+
+        final LedgerEntry ledgerEntry = new LedgerEntry()
+                .setKey(key)
+                .setPhase(phase)
+                .setJobUid(jobUid)
+                .setOutputs(outputs);
+
+        try {
+            FileOperationUtils.writeAtomically(getPath(key), objectMapper.writeValueAsBytes(ledgerEntry));
+            log.info("Recorded phase {} for job {}", phase, jobUid);
+        } catch (IOException | FileOperationException e) {
+            log.warn("Unable to record phase {} for job {}: {}", phase, jobUid, e.getMessage());
+        }
+
+        purge();
+    }
+
+    private synchronized void purge() {
+
+        final Instant now = Instant.now();
+        if (Duration.between(lastPurge, now).compareTo(PURGE_INTERVAL) < 0) {
+            return;
+        }
+        lastPurge = now;
+
+        FileOperationUtils.deleteExpiredFiles(getFolder(), sharedProperties.getLedgerRetention());
+    }
+
+    private Path getFolder() {
+        return Paths.get(sharedProperties.getSharedFolderRoot(), FolderParameters.LEDGER_FOLDER);
+    }
+
+    private Path getPath(String key) {
+        return getFolder().resolve(key + EXTENSION);
+    }
+
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.ew.service;
+
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
+import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
+import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
+import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Downloads the input files of upcoming jobs into a staging folder while the current job runs, so that their setup only has to move them into the
+ * workspace.
+ * <p>
+ * Jobs are staged one at a time, in the order they will be processed, and only while no job is downloading its own files. Staging stops while the
+ * staging folder is above its size budget. A job whose files are not staged yet when it starts simply downloads them, waiting only for a staging
+ * already in progress.
+ */
+@Slf4j
+@Component
+public class EWPrefetchService {
+
+    private static final long GIBIBYTE = 1024L * 1024L * 1024L;
+
+    private final SharedProperties sharedProperties;
+    private final ObsService obsService;
+
+    private final Map<String, Staging> stagingByKey = new ConcurrentHashMap<>();
+    private final Object foregroundLock = new Object();
+    private int foregroundCount = 0;
+    private ExecutorService executor;
+
+    public EWPrefetchService(SharedProperties sharedProperties, ObsService obsService) {
+
+        this.sharedProperties = sharedProperties;
+        this.obsService = obsService;
+
+        if (sharedProperties.isPrefetch()) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "ew-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Files staged before a restart are not tracked anymore
+            FileOperationUtils.createFolders(Set.of(sharedProperties.getPrefetchFolder()));
+            FileOperationUtils.deleteFolderContent(sharedProperties.getPrefetchFolder());
+        }
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * Stages the input files of upcoming jobs in the background
+     *
+     * @param jobFiles Input files of each job, in the order the jobs will be processed
+     */
+    public void prefetch(List<Set<FileInfo>> jobFiles) {
+
+        if (executor == null) {
+            return;
+        }
+
+        for (Set<FileInfo> files : jobFiles) {
+
+            final Staging staging = new Staging();
+
+            // A file needed by several jobs is staged for the first one only
+            files.stream()
+                    .filter(fileInfo -> stagingByKey.putIfAbsent(getKey(fileInfo), staging) == null)
+                    .forEach(staging.files::add);
+
+            if (!staging.files.isEmpty()) {
+                executor.submit(() -> stage(staging));
+            }
+        }
+    }
+
+    /**
+     * Downloads files, moving the staged ones into place instead of downloading them again
+     *
+     * @param fileInfoSet Files to download
+     * @param parentUid   UUID of the parent task
+     */
+    public void download(Set<FileInfo> fileInfoSet, UUID parentUid) {
+
+        if (executor == null) {
+            obsService.download(fileInfoSet, parentUid);
+            return;
+        }
+
+        synchronized (foregroundLock) {
+            foregroundCount++;
+        }
+
+        try {
+
+            final Set<FileInfo> remaining = take(fileInfoSet);
+
+            log.info("Found {} staged files out of {}", fileInfoSet.size() - remaining.size(), fileInfoSet.size());
+
+            if (!remaining.isEmpty()) {
+                obsService.download(remaining, parentUid);
+            }
+
+        } finally {
+            synchronized (foregroundLock) {
+                foregroundCount--;
+                foregroundLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Drops the files which were staged but not used, once the jobs they were staged for are over
+     */
+    public void clear() {
+
+        if (executor == null) {
+            return;
+        }
+
+        stagingByKey.values().forEach(Staging::cancel);
+        stagingByKey.clear();
+
+        // Queued after any staging in progress
+        executor.submit(() -> FileOperationUtils.deleteFolderContent(sharedProperties.getPrefetchFolder()));
+    }
+
+    private Set<FileInfo> take(Set<FileInfo> fileInfoSet) {
+
+        final Set<FileInfo> remaining = new HashSet<>();
+
+        for (FileInfo fileInfo : fileInfoSet) {
+
+            final Staging staging = stagingByKey.remove(getKey(fileInfo));
+
+            // Waiting for a staging in progress is always faster than downloading again, a staging not started yet is not worth waiting for
+            if (staging == null || !staging.cancelIfNotStarted()) {
+                remaining.add(fileInfo);
+                continue;
+            }
+
+            try {
+                staging.result.join();
+                final Path destinationPath = Paths.get(fileInfo.getFullLocalPath());
+                Files.createDirectories(destinationPath.getParent());
+                FileOperationUtils.move(getStagedPath(fileInfo), destinationPath);
+            } catch (Exception e) {
+                log.warn("Unable to use staged file {}, downloading it: {}", fileInfo.getObsName(), e.getMessage());
+                remaining.add(fileInfo);
+            }
+        }
+
+        return remaining;
+    }
+
+    private void stage(Staging staging) {
+
+        try {
+
+            waitForForeground();
+
+            final long size = FileUtils.sizeOfDirectory(Paths.get(sharedProperties.getPrefetchFolder()).toFile());
+            if (size >= sharedProperties.getPrefetchMaxSize() * GIBIBYTE) {
+                log.info("Staging folder full ({} bytes), not staging {} files", size, staging.files.size());
+                staging.cancel();
+                return;
+            }
+
+            if (!staging.start()) {
+                return;
+            }
+
+            final Set<FileInfo> stagedFiles = new HashSet<>();
+            for (FileInfo fileInfo : staging.files) {
+                final Path stagedPath = getStagedPath(fileInfo);
+                Files.createDirectories(stagedPath.getParent());
+                stagedFiles.add(new FileInfo()
+                        .setBucket(fileInfo.getBucket())
+                        .setKey(fileInfo.getKey())
+                        .setFullLocalPath(stagedPath.toString())
+                        .setSimpleFile(fileInfo.isSimpleFile()));
+            }
+
+            log.info("Staging {} files", stagedFiles.size());
+            obsService.download(stagedFiles, null);
+            log.info("Finished staging {} files", stagedFiles.size());
+
+            staging.result.complete(null);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            staging.cancel();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to stage files: {}", e.getMessage());
+            staging.result.completeExceptionally(e);
+        }
+    }
+
+    private void waitForForeground() throws InterruptedException {
+        synchronized (foregroundLock) {
+            while (foregroundCount > 0) {
+                foregroundLock.wait();
+            }
+        }
+    }
+
+    private Path getStagedPath(FileInfo fileInfo) {
+        return Paths.get(sharedProperties.getPrefetchFolder(), getKey(fileInfo), fileInfo.getLocalName());
+    }
+
+    private static String getKey(FileInfo fileInfo) {
+        return DigestUtils.sha256Hex(fileInfo.getBucket() + "/" + fileInfo.getKey());
+    }
+
+    private static class Staging {
+
+        private final Set<FileInfo> files = new HashSet<>();
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private boolean started = false;
+        private boolean cancelled = false;
+
+        synchronized boolean start() {
+            started = !cancelled;
+            return started;
+        }
+
+        /**
+         * @return Whether the staging had started, a staging not started yet being cancelled
+         */
+        synchronized boolean cancelIfNotStarted() {
+            if (!started) {
+                cancelled = true;
+            }
+            return started;
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (!started) {
+                result.cancel(false);
+            }
+        }
+
+    }
+
+}
@@ -18,6 +18,7 @@ package eu.csgroup.coprs.ps2.core.ew.service;
 
 import eu.csgroup.coprs.ps2.core.common.model.CommonInput;
 import eu.csgroup.coprs.ps2.core.common.model.ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
 import eu.csgroup.coprs.ps2.core.common.model.trace.TaskReport;
 import eu.csgroup.coprs.ps2.core.common.model.trace.input.JobProcessingInput;
@@ -31,14 +32,21 @@ import eu.csgroup.coprs.ps2.core.common.service.processor.ProcessorService;
 import eu.csgroup.coprs.ps2.core.common.utils.ObsUtils;
 import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.model.LedgerEntry;
+import eu.csgroup.coprs.ps2.core.ew.model.LedgerPhase;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+@Slf4j
 public abstract class EWProcessorService<T extends ExecutionInput> extends ProcessorService {
 
     protected final EWInputService<T> inputService;
@@ -46,13 +54,17 @@ public abstract class EWProcessorService<T extends ExecutionInput> extends Proce
     protected final EWExecutionService<T> executionService;
     protected final EWOutputService<T> outputService;
     protected final MissingOutputProperties missingOutputProperties;
+    protected final EWLedgerService ledgerService;
+    protected final EWPrefetchService prefetchService;
 
-    protected EWProcessorService(EWInputService<T> inputService, EWSetupService<T> setupService, EWExecutionService<T> executionService, EWOutputService<T> outputService, MissingOutputProperties missingOutputProperties) {
+    protected EWProcessorService(EWInputService<T> inputService, EWSetupService<T> setupService, EWExecutionService<T> executionService, EWOutputService<T> outputService, MissingOutputProperties missingOutputProperties, EWLedgerService ledgerService, EWPrefetchService prefetchService) {
         this.inputService = inputService;
         this.setupService = setupService;
         this.executionService = executionService;
         this.outputService = outputService;
         this.missingOutputProperties = missingOutputProperties;
+        this.ledgerService = ledgerService;
+        this.prefetchService = prefetchService;
     }
 
     protected abstract List<TaskMissingOutput> getMissingOutputs(T executionInput);
@@ -66,18 +78,36 @@ public abstract class EWProcessorService<T extends ExecutionInput> extends Proce
 
         final T executionInput = inputService.extract(processingMessage);
 
+        final String ledgerKey = ledgerService.getKey(executionInput);
+        final Optional<LedgerEntry> ledgerEntry = ledgerService.find(ledgerKey);
+
+        if (ledgerEntry.isPresent()) {
+            if (ledgerEntry.get().getPhase() == LedgerPhase.DONE) {
+                log.info("Job {} already done for this input, sending its {} output messages again", ledgerEntry.get().getJobUid(), ledgerEntry.get().getOutputs().size());
+                return ledgerEntry.get().getOutputs();
+            }
+            // Setup wipes the workspace, so an interrupted job is always run again from the start
+            log.info("Job {} was interrupted after phase {}, processing it again", ledgerEntry.get().getJobUid(), ledgerEntry.get().getPhase());
+        }
+
         taskReport.begin("Start Job Processing", new JobProcessingInput(inputService.getTaskInputs(executionInput)));
 
         Set<ProcessingMessage> outputMessageSet;
 
         try {
 
+            ledgerService.record(ledgerKey, LedgerPhase.STARTED, taskReport.getUid());
+
             setupService.setup(executionInput, taskReport.getUid());
 
             executionService.execute(executionInput, taskReport.getUid());
 
+            ledgerService.record(ledgerKey, LedgerPhase.EXECUTED, taskReport.getUid());
+
             outputMessageSet = outputService.output(executionInput, taskReport.getUid());
 
+            ledgerService.record(ledgerKey, LedgerPhase.DONE, taskReport.getUid(), outputMessageSet);
+
             taskReport.end(
                     "End Job Processing",
                     new JobProcessingOutput(getTaskOutputs(outputMessageSet), executionInput.getT0PdgsDate()),
@@ -91,6 +121,54 @@ public abstract class EWProcessorService<T extends ExecutionInput> extends Proce
         return outputMessageSet;
     }
 
+    /**
+     * Stages the input files of the jobs following the first one of the poll, which starts right away
+     */
+    @Override
+    protected void beforeBatch(List<ProcessingMessage> processingMessages) {
+
+        if (!prefetchService.isEnabled() || processingMessages.size() < 2) {
+            return;
+        }
+
+        final List<Set<FileInfo>> jobFiles = new ArrayList<>();
+
+        for (ProcessingMessage processingMessage : processingMessages.subList(1, processingMessages.size())) {
+            try {
+                final Set<FileInfo> files = inputService.extract(processingMessage).getFiles();
+                if (files != null) {
+                    jobFiles.add(files);
+                }
+            } catch (Exception e) {
+                // The message fails on its own when processed
+                log.debug("Unable to extract input of message {}, not prefetching it", processingMessage.getUid());
+            }
+        }
+
+        prefetchService.prefetch(jobFiles);
+    }
+
+    @Override
+    protected void afterBatch() {
+        prefetchService.clear();
+    }
+
+    /**
+     * Jobs share the workspace and the IPF binaries, so only one of them may run at a time
+     */
+    @Override
+    protected int getMaxMessageParallelism() {
+        return 1;
+    }
+
+    /**
+     * Jobs can run for hours, so batch mode is refused unless max.poll.interval.ms covers a whole poll of them
+     */
+    @Override
+    protected Duration getMaxMessageDuration() {
+        return Duration.ofSeconds(sharedProperties.getMaxJobDuration());
+    }
+
     protected Set<String> getTaskOutputs(Set<ProcessingMessage> outputMessages) {
 
         // Adding entries for products going into the catalog
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.ew.service.l01;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
+import eu.csgroup.coprs.ps2.core.common.exception.FileOperationException;
+import eu.csgroup.coprs.ps2.core.common.model.L012ExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
+import eu.csgroup.coprs.ps2.core.common.settings.FolderParameters;
+import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
+import eu.csgroup.coprs.ps2.core.ew.model.ModeCheckpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Records the files written by each orchestrator mode once it completes, so that a retried job skips the modes whose outputs are still intact.
+ * <p>
+ * Checkpoints are kept in the shared folder, next to the output folder they describe, since the workspace is wiped before each job. They are keyed by
+ * the hash of the execution input and the mode, a job with different inputs never reusing them.
+ */
+@Slf4j
+@Component
+public class L01EWCheckpointService {
+
+    private static final String EXTENSION = ".json";
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final SharedProperties sharedProperties;
+    private final ObjectMapper objectMapper;
+
+    private Instant lastPurge = Instant.EPOCH;
+
+    public L01EWCheckpointService(SharedProperties sharedProperties, ObjectMapper objectMapper) {
+        this.sharedProperties = sharedProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Checks whether a mode already completed for this input, with all its outputs still present and unchanged
+     */
+    public boolean isComplete(L012ExecutionInput executionInput, OrchestratorMode mode) {
+
+        if (!sharedProperties.isCheckpoint()) {
+            return false;
+        }
+
+        final ModeCheckpoint checkpoint;
+        try {
+            final Path path = getPath(getInputHash(executionInput), mode);
+            if (!Files.exists(path)) {
+                return false;
+            }
+            checkpoint = objectMapper.readValue(path.toFile(), ModeCheckpoint.class);
+        } catch (IOException | FileOperationException e) {
+            log.warn("Unable to read checkpoint for task {}: {}", mode.getMode(), e.getMessage());
+            return false;
+        }
+
+        final Path outputPath = Paths.get(executionInput.getOutputFolder());
+
+        for (Map.Entry<String, Long> entry : checkpoint.getManifest().entrySet()) {
+            final Path outputFile = outputPath.resolve(entry.getKey());
+            if (!Files.isRegularFile(outputFile) || outputFile.toFile().length() != entry.getValue()) {
+                log.info("Output {} of task {} is missing or changed, running it again", outputFile, mode.getMode());
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Records the files written in the output folder since they started by modes that ran together.
+     * <p>
+     * Modes running at the same time write to the same output folder, so their outputs cannot be told apart. They are only recorded once all of them
+     * succeeded, each mode sharing the same manifest.
+     */
+    public void complete(L012ExecutionInput executionInput, Collection<OrchestratorMode> modes, Instant start) {
+
+        if (!sharedProperties.isCheckpoint() || modes.isEmpty()) {
+            return;
+        }
+
+        final Path outputPath = Paths.get(executionInput.getOutputFolder());
+        // Filesystems may only keep modification times to the second
+        final long startTime = start.truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+
+        try (Stream<Path> pathStream = Files.walk(outputPath)) {
+
+            final String inputHash = getInputHash(executionInput);
+
+            final Map<String, Long> manifest = pathStream
+                    .filter(Files::isRegularFile)
+                    .filter(file -> file.toFile().lastModified() >= startTime)
+                    .collect(Collectors.toMap(file -> outputPath.relativize(file).toString(), file -> file.toFile().length()));
+
+            for (OrchestratorMode mode : modes) {
+
+                // Nothing would tell a retry that the mode really ran, its products may well have stayed in the wiped workspace
+                if (manifest.isEmpty()) {
+                    Files.deleteIfExists(getPath(inputHash, mode));
+                    log.info("Task {} wrote no outputs, not recording a checkpoint", mode.getMode());
+                    continue;
+                }
+
+                final ModeCheckpoint checkpoint = new ModeCheckpoint()
+                        .setMode(mode.getMode())
+                        .setInputHash(inputHash)
+                        .setManifest(manifest);
+
+                FileOperationUtils.writeAtomically(getPath(inputHash, mode), objectMapper.writeValueAsBytes(checkpoint));
+
+                log.info("Recorded checkpoint for task {} with {} outputs", mode.getMode(), manifest.size());
+            }
+
+        } catch (IOException | UncheckedIOException | FileOperationException e) {
+            log.warn("Unable to record checkpoint for tasks {}: {}", modes, e.getMessage());
+        }
+
+        purge();
+    }
+
+    private String getInputHash(L012ExecutionInput executionInput) {
+        try {
+            return DigestUtils.sha256Hex(objectMapper.writeValueAsBytes(executionInput));
+        } catch (IOException e) {
+            throw new FileOperationException("Unable to serialize execution input", e);
+        }
+    }
+
+    private synchronized void purge() {
+
+        final Instant now = Instant.now();
+        if (Duration.between(lastPurge, now).compareTo(PURGE_INTERVAL) < 0) {
+            return;
+        }
+        lastPurge = now;
+
+        FileOperationUtils.deleteExpiredFiles(getFolder(), sharedProperties.getCheckpointRetention());
+    }
+
+    private Path getFolder() {
+        return Paths.get(sharedProperties.getSharedFolderRoot(), FolderParameters.CHECKPOINT_FOLDER);
+    }
+
+    private Path getPath(String inputHash, OrchestratorMode mode) {
+        return getFolder().resolve(inputHash + "_" + mode.getMode() + EXTENSION);
+    }
+
+}
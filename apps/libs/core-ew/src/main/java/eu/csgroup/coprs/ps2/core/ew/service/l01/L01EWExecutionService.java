@@ -18,38 +18,141 @@ package eu.csgroup.coprs.ps2.core.ew.service.l01;
 
 import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.exception.ScriptExecutionException;
+import eu.csgroup.coprs.ps2.core.common.exception.ScriptStalledException;
 import eu.csgroup.coprs.ps2.core.common.model.L012ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
 import eu.csgroup.coprs.ps2.core.common.model.processing.Mission;
+import eu.csgroup.coprs.ps2.core.common.model.script.ResourceUsage;
 import eu.csgroup.coprs.ps2.core.common.model.script.ScriptWrapper;
 import eu.csgroup.coprs.ps2.core.common.model.trace.TaskReport;
 import eu.csgroup.coprs.ps2.core.common.model.trace.task.ReportTask;
 import eu.csgroup.coprs.ps2.core.common.settings.FolderParameters;
+import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
 import eu.csgroup.coprs.ps2.core.common.utils.ScriptUtils;
 import eu.csgroup.coprs.ps2.core.ew.service.EWExecutionService;
 import eu.csgroup.coprs.ps2.core.ew.settings.L1EWParameters;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 public abstract class L01EWExecutionService<T extends L012ExecutionInput> implements EWExecutionService<T> {
 
     protected final SharedProperties sharedProperties;
+    protected final L01EWCheckpointService checkpointService;
 
-    protected L01EWExecutionService(SharedProperties sharedProperties) {
+    protected L01EWExecutionService(SharedProperties sharedProperties, L01EWCheckpointService checkpointService) {
         this.sharedProperties = sharedProperties;
+        this.checkpointService = checkpointService;
+    }
+
+    /**
+     * Runs modes in the given order in the shared workspace, or in the order of their prerequisites when concurrent modes are enabled, independent
+     * modes then running concurrently
+     */
+    protected void runModes(T executionInput, UUID parentTaskUid, List<OrchestratorMode> modes) {
+
+        final Set<OrchestratorMode> completeModes = getCompleteModes(executionInput, modes);
+
+        // Whether a mode reads intermediates left by the previous ones in the workspace is up to the IPF, so modes only leave it when enabled
+        if (!sharedProperties.isConcurrentModes()) {
+            modes.stream()
+                    .filter(mode -> !completeModes.contains(mode))
+                    .forEach(mode -> runCheckpointedTask(executionInput, parentTaskUid, mode));
+            return;
+        }
+
+        for (List<OrchestratorMode> stage : OrchestratorModeScheduler.plan(modes)) {
+
+            final List<OrchestratorMode> pendingModes = stage.stream().filter(mode -> !completeModes.contains(mode)).toList();
+
+            if (pendingModes.isEmpty()) {
+                continue;
+            }
+
+            final Instant start = Instant.now();
+
+            OrchestratorModeScheduler.runStage(
+                    pendingModes,
+                    sharedProperties.getMaxParallelTasks(),
+                    (mode, parallelTasks, concurrent) -> runTask(executionInput, parentTaskUid, mode, parallelTasks, concurrent)
+            );
+
+            checkpointService.complete(executionInput, pendingModes, start);
+        }
     }
 
     protected void runMode(T executionInput, UUID parentTaskUid, OrchestratorMode mode) {
+        if (getCompleteModes(executionInput, List.of(mode)).isEmpty()) {
+            runCheckpointedTask(executionInput, parentTaskUid, mode);
+        }
+    }
+
+    /**
+     * Finds the modes of a job that can be skipped, their outputs being checkpointed.
+     * <p>
+     * The workspace is wiped before each job, so the intermediates a mode leaves there for the modes depending on it are gone on a retry. A complete
+     * mode is thus only skipped when all the modes of the job depending on it, directly or not, are skipped too.
+     */
+    private Set<OrchestratorMode> getCompleteModes(T executionInput, List<OrchestratorMode> modes) {
+
+        final Set<OrchestratorMode> completeModes = modes.stream()
+                .filter(mode -> checkpointService.isComplete(executionInput, mode))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (OrchestratorMode mode : List.copyOf(completeModes)) {
+                final Optional<OrchestratorMode> pendingDependent = modes.stream()
+                        .filter(other -> !completeModes.contains(other) && other.getPrerequisites().contains(mode))
+                        .findFirst();
+                if (pendingDependent.isPresent()) {
+                    log.info("Task " + mode.getMode() + " already complete, running it again for task " + pendingDependent.get().getMode());
+                    completeModes.remove(mode);
+                    changed = true;
+                }
+            }
+        }
+
+        completeModes.forEach(mode -> log.info("Task " + mode.getMode() + " already complete, skipping it"));
+
+        return completeModes;
+    }
+
+    private void runCheckpointedTask(T executionInput, UUID parentTaskUid, OrchestratorMode mode) {
+
+        final Instant start = Instant.now();
+
+        runTask(executionInput, parentTaskUid, mode, sharedProperties.getMaxParallelTasks(), false);
+
+        checkpointService.complete(executionInput, List.of(mode), start);
+    }
+
+    private void runTask(T executionInput, UUID parentTaskUid, OrchestratorMode mode, int parallelTasks, boolean concurrent) {
 
         final String task = mode.getMode();
 
         log.info("Running task " + task);
 
+        // Concurrent runs of the orchestrator must not share a working folder, each one gets its own
+        final String workingFolder = concurrent
+                ? Paths.get(FolderParameters.WORKING_FOLDER_ROOT, task).toString()
+                : FolderParameters.WORKING_FOLDER_ROOT;
+        final String runId = concurrent
+                ? executionInput.getDatastrip() + "_" + task
+                : executionInput.getDatastrip();
+
         TaskReport taskReport = new TaskReport()
                 .setTaskName(ReportTask.PROCESSING_TASK.getName())
                 .setSatellite(Mission.S2.name() + executionInput.getSatellite())
@@ -57,8 +160,14 @@ public abstract class L01EWExecutionService<T extends L012ExecutionInput> implem
 
         taskReport.begin("Start task: " + task);
 
+        final ResourceUsage resourceUsage = new ResourceUsage(task);
+
         try {
 
+            if (concurrent) {
+                FileOperationUtils.createFolders(Set.of(workingFolder));
+            }
+
             List<String> command = new ArrayList<>(List.of(
                     L1EWParameters.SCRIPT_NAME,
                     "-m", task,
@@ -66,9 +175,9 @@ public abstract class L01EWExecutionService<T extends L012ExecutionInput> implem
                     "-s", sharedProperties.getDemFolderRoot(),
                     "-g", sharedProperties.getGridFolderRoot(),
                     "-i", executionInput.getInputFolder(),
-                    "-w", FolderParameters.WORKING_FOLDER_ROOT,
+                    "-w", workingFolder,
                     "-o", executionInput.getOutputFolder(),
-                    "-p", String.valueOf(sharedProperties.getMaxParallelTasks()),
+                    "-p", String.valueOf(parallelTasks),
                     "--exeversionfile", L1EWParameters.VERSION_FILE,
                     "-k", String.valueOf(sharedProperties.getKillTimeout())
             ));
@@ -78,21 +187,34 @@ public abstract class L01EWExecutionService<T extends L012ExecutionInput> implem
                 command.add(executionInput.getTile());
             }
 
-            final Integer exitCode = ScriptUtils.run(
-                    new ScriptWrapper()
-                            .setRunId(executionInput.getDatastrip())
-                            .setWorkdir(FolderParameters.WORKING_FOLDER_ROOT)
-                            .setCommand(command)
-            );
+            final ScriptWrapper scriptWrapper = new ScriptWrapper()
+                    .setRunId(runId)
+                    .setWorkdir(workingFolder)
+                    .setCommand(command);
+
+            if (sharedProperties.getResourceSamplingInterval() > 0) {
+                scriptWrapper
+                        .setResourceUsage(resourceUsage)
+                        .setSamplingInterval(Duration.ofSeconds(sharedProperties.getResourceSamplingInterval()));
+            }
+
+            if (sharedProperties.getStallTimeout() > 0) {
+                scriptWrapper.setStallTimeout(Duration.ofSeconds(sharedProperties.getStallTimeout()));
+            }
+
+            final Integer exitCode = ScriptUtils.run(scriptWrapper);
 
             if (exitCode != 0) {
                 throw new ScriptExecutionException("Error during task " + task + " - Exit code: " + exitCode);
             }
 
-            taskReport.end("End task " + task + " with exit code " + exitCode);
+            taskReport.end("End task " + task + " with exit code " + exitCode, resourceUsage.toCustomFields());
 
+        } catch (ScriptStalledException e) {
+            taskReport.timeout(e.getLocalizedMessage(), resourceUsage.toCustomFields());
+            throw e;
         } catch (Exception e) {
-            taskReport.error(e.getLocalizedMessage());
+            taskReport.error(e.getLocalizedMessage(), resourceUsage.toCustomFields());
             throw e;
         }
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.ew.service.l01;
+
+import eu.csgroup.coprs.ps2.core.common.exception.ProcessingException;
+import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs orchestrator modes in the order of their prerequisites, modes only depending on modes already done running concurrently.
+ */
+@Slf4j
+public final class OrchestratorModeScheduler {
+
+    @FunctionalInterface
+    public interface ModeRunner {
+
+        /**
+         * @param mode          Mode to run
+         * @param parallelTasks Share of the parallel tasks budget of the mode
+         * @param concurrent    Whether other modes run at the same time
+         */
+        void run(OrchestratorMode mode, int parallelTasks, boolean concurrent);
+
+    }
+
+    /**
+     * Splits modes into successive stages, each mode coming after all of its prerequisites among the given modes.
+     * <p>
+     * Prerequisites that are not part of the given modes are considered done by a previous job.
+     *
+     * @param modes Modes to run, in their preferred order
+     * @return Stages of modes that can run concurrently
+     */
+    public static List<List<OrchestratorMode>> plan(Collection<OrchestratorMode> modes) {
+
+        final Set<OrchestratorMode> remaining = new LinkedHashSet<>(modes);
+        final List<List<OrchestratorMode>> stages = new ArrayList<>();
+
+        while (!remaining.isEmpty()) {
+
+            final List<OrchestratorMode> stage = remaining.stream()
+                    .filter(mode -> mode.getPrerequisites().stream().noneMatch(remaining::contains))
+                    .toList();
+
+            if (stage.isEmpty()) {
+                throw new ProcessingException("Circular prerequisites between modes: " + remaining);
+            }
+
+            stage.forEach(remaining::remove);
+            stages.add(stage);
+        }
+
+        return stages;
+    }
+
+    /**
+     * Runs modes stage by stage, the parallel tasks budget being shared between the modes of a stage
+     *
+     * @param modes            Modes to run, in their preferred order
+     * @param maxParallelTasks Parallel tasks budget
+     * @param runner           Runs a mode with its share of the parallel tasks budget
+     */
+    public static void run(Collection<OrchestratorMode> modes, int maxParallelTasks, ModeRunner runner) {
+        plan(modes).forEach(stage -> runStage(stage, maxParallelTasks, runner));
+    }
+
+    /**
+     * Runs the modes of a stage concurrently, the parallel tasks budget being shared between them, and returns once all of them are done
+     *
+     * @param stage            Modes to run
+     * @param maxParallelTasks Parallel tasks budget
+     * @param runner           Runs a mode with its share of the parallel tasks budget
+     */
+    public static void runStage(List<OrchestratorMode> stage, int maxParallelTasks, ModeRunner runner) {
+
+        final int concurrency = Math.max(1, Math.min(stage.size(), maxParallelTasks));
+        final int parallelTasks = Math.max(1, maxParallelTasks / concurrency);
+
+        if (concurrency == 1) {
+            stage.forEach(mode -> runner.run(mode, parallelTasks, false));
+            return;
+        }
+
+        log.info("Running tasks {} concurrently with {} parallel tasks each", stage, parallelTasks);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(concurrency);
+
+        try {
+
+            final List<CompletableFuture<Void>> futures = stage.stream()
+                    .map(mode -> CompletableFuture.runAsync(() -> runner.run(mode, parallelTasks, true), executorService))
+                    .toList();
+
+            // Letting every mode of the stage finish before reporting the first failure
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .exceptionally(throwable -> null)
+                    .join();
+
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    throw e;
+                }
+            }
+
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private OrchestratorModeScheduler() {
+    }
+
+}
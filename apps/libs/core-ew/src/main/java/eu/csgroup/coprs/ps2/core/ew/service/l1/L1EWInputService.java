@@ -18,6 +18,7 @@ package eu.csgroup.coprs.ps2.core.ew.service.l1;
 
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
 import eu.csgroup.coprs.ps2.core.common.settings.MessageParameters;
 import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
 import eu.csgroup.coprs.ps2.core.ew.service.EWInputService;
@@ -26,6 +27,12 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public abstract class L1EWInputService implements EWInputService<L1ExecutionInput> {
 
+    protected final ClaimCheckService claimCheckService;
+
+    protected L1EWInputService(ClaimCheckService claimCheckService) {
+        this.claimCheckService = claimCheckService;
+    }
+
     @Override
     public L1ExecutionInput extract(ProcessingMessage processingMessage) {
 
@@ -37,6 +44,8 @@ public abstract class L1EWInputService implements EWInputService<L1ExecutionInpu
                 L1ExecutionInput.class
         );
 
+        claimCheckService.resolve(processingMessage, l1ExecutionInput);
+
         log.info("Finished extracting execution input from message: {}", processingMessage);
 
         return l1ExecutionInput;
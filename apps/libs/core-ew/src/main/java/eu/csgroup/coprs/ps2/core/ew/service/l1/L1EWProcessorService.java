@@ -20,6 +20,8 @@ import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.JobProcessingTaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.MissingOutputProductType;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.ew.service.EWProcessorService;
 import eu.csgroup.coprs.ps2.core.ew.service.EWSetupService;
 import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWExecutionService;
@@ -30,9 +32,11 @@ public abstract class L1EWProcessorService extends EWProcessorService<L1Executio
             EWSetupService<L1ExecutionInput> setupService,
             L01EWExecutionService<L1ExecutionInput> executionService,
             L1EWOutputService outputService,
-            MissingOutputProperties missingOutputProperties
+            MissingOutputProperties missingOutputProperties,
+            EWLedgerService ledgerService,
+            EWPrefetchService prefetchService
     ) {
-        super(inputService, setupService, executionService, outputService, missingOutputProperties);
+        super(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     protected JobProcessingTaskMissingOutput buildL1MissingOutput(MissingOutputProductType type, Integer count, L1ExecutionInput executionInput) {
@@ -22,6 +22,8 @@ import eu.csgroup.coprs.ps2.core.common.model.processing.ProductFamily;
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.MissingOutputProductType;
 import eu.csgroup.coprs.ps2.core.common.model.trace.missing.TaskMissingOutput;
 import eu.csgroup.coprs.ps2.core.ew.config.MissingOutputProperties;
+import eu.csgroup.coprs.ps2.core.ew.service.EWLedgerService;
+import eu.csgroup.coprs.ps2.core.ew.service.EWPrefetchService;
 import eu.csgroup.coprs.ps2.core.ew.service.EWSetupService;
 import eu.csgroup.coprs.ps2.core.ew.service.l01.L01EWExecutionService;
 
@@ -35,9 +37,11 @@ public abstract class L1sabEWProcessorService extends L1EWProcessorService {
             EWSetupService<L1ExecutionInput> setupService,
             L01EWExecutionService<L1ExecutionInput> executionService,
             L1EWOutputService outputService,
-            MissingOutputProperties missingOutputProperties
+            MissingOutputProperties missingOutputProperties,
+            EWLedgerService ledgerService,
+            EWPrefetchService prefetchService
     ) {
-        super(inputService, setupService, executionService, outputService, missingOutputProperties);
+        super(inputService, setupService, executionService, outputService, missingOutputProperties, ledgerService, prefetchService);
     }
 
     protected List<TaskMissingOutput> getL1abMissingOutput(L1ExecutionInput executionInput) {
@@ -18,8 +18,10 @@ package eu.csgroup.coprs.ps2.core.ew.service.l2;
 
 import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.exception.ScriptExecutionException;
+import eu.csgroup.coprs.ps2.core.common.exception.ScriptStalledException;
 import eu.csgroup.coprs.ps2.core.common.model.l2.L2ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.Mission;
+import eu.csgroup.coprs.ps2.core.common.model.script.ResourceUsage;
 import eu.csgroup.coprs.ps2.core.common.model.script.ScriptWrapper;
 import eu.csgroup.coprs.ps2.core.common.model.trace.TaskReport;
 import eu.csgroup.coprs.ps2.core.common.model.trace.task.ReportTask;
@@ -28,6 +30,7 @@ import eu.csgroup.coprs.ps2.core.common.utils.ScriptUtils;
 import eu.csgroup.coprs.ps2.core.ew.service.EWExecutionService;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -54,23 +57,38 @@ public abstract class L2EWExecutionService implements EWExecutionService<L2Execu
 
         taskReport.begin("Start task: " + task);
 
+        final ResourceUsage resourceUsage = new ResourceUsage(task);
+
         try {
 
-            final Integer exitCode = ScriptUtils.run(
-                    new ScriptWrapper()
-                            .setRunId(executionInput.getDatastrip())
-                            .setWorkdir(FolderParameters.WORKING_FOLDER_ROOT)
-                            .setCommand(getCommand(executionInput))
-            );
+            final ScriptWrapper scriptWrapper = new ScriptWrapper()
+                    .setRunId(executionInput.getDatastrip())
+                    .setWorkdir(FolderParameters.WORKING_FOLDER_ROOT)
+                    .setCommand(getCommand(executionInput));
+
+            if (sharedProperties.getResourceSamplingInterval() > 0) {
+                scriptWrapper
+                        .setResourceUsage(resourceUsage)
+                        .setSamplingInterval(Duration.ofSeconds(sharedProperties.getResourceSamplingInterval()));
+            }
+
+            if (sharedProperties.getStallTimeout() > 0) {
+                scriptWrapper.setStallTimeout(Duration.ofSeconds(sharedProperties.getStallTimeout()));
+            }
+
+            final Integer exitCode = ScriptUtils.run(scriptWrapper);
 
             if (exitCode != 0) {
                 throw new ScriptExecutionException("Error during task " + task + " - Exit code: " + exitCode);
             }
 
-            taskReport.end("End task " + task + " with exit code " + exitCode);
+            taskReport.end("End task " + task + " with exit code " + exitCode, resourceUsage.toCustomFields());
 
+        } catch (ScriptStalledException e) {
+            taskReport.timeout(e.getLocalizedMessage(), resourceUsage.toCustomFields());
+            throw e;
         } catch (Exception e) {
-            taskReport.error(e.getLocalizedMessage());
+            taskReport.error(e.getLocalizedMessage(), resourceUsage.toCustomFields());
             throw e;
         }
 
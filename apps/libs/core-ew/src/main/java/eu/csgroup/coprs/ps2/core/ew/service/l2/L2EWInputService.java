@@ -18,6 +18,7 @@ package eu.csgroup.coprs.ps2.core.ew.service.l2;
 
 import eu.csgroup.coprs.ps2.core.common.model.l2.L2ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
 import eu.csgroup.coprs.ps2.core.common.settings.MessageParameters;
 import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
 import eu.csgroup.coprs.ps2.core.ew.service.EWInputService;
@@ -26,6 +27,12 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public abstract class L2EWInputService implements EWInputService<L2ExecutionInput> {
 
+    protected final ClaimCheckService claimCheckService;
+
+    protected L2EWInputService(ClaimCheckService claimCheckService) {
+        this.claimCheckService = claimCheckService;
+    }
+
     @Override
     public L2ExecutionInput extract(ProcessingMessage processingMessage) {
 
@@ -37,6 +44,8 @@ public abstract class L2EWInputService implements EWInputService<L2ExecutionInpu
                 L2ExecutionInput.class
         );
 
+        claimCheckService.resolve(processingMessage, executionInput);
+
         log.info("Finished extracting execution input from message: {}", processingMessage);
 
         return executionInput;
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.ew.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
+import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
+import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
+import eu.csgroup.coprs.ps2.core.common.settings.FolderParameters;
+import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
+import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
+import eu.csgroup.coprs.ps2.core.ew.model.LedgerEntry;
+import eu.csgroup.coprs.ps2.core.ew.model.LedgerPhase;
+import eu.csgroup.coprs.ps2.core.ew.model.helper.Input;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EWLedgerServiceTest extends AbstractTest {
+
+    private Path sharedFolder;
+    private SharedProperties sharedProperties;
+    private EWLedgerService ledgerService;
+    private Input input;
+
+    @Override
+    public void setup() throws Exception {
+
+        sharedFolder = Files.createTempDirectory("shared");
+
+        sharedProperties = new SharedProperties();
+        sharedProperties.setSharedFolderRoot(sharedFolder.toString());
+        sharedProperties.setLedger(true);
+
+        ledgerService = new EWLedgerService(sharedProperties, new ObjectMapper().registerModule(new JavaTimeModule()));
+
+        input = new Input();
+        input.setFiles(Set.of(podamFactory.manufacturePojo(FileInfo.class)));
+    }
+
+    @Override
+    public void teardown() throws Exception {
+        FileSystemUtils.deleteRecursively(sharedFolder);
+    }
+
+    @Test
+    void getKey() {
+        // Given
+        final Input otherInput = new Input();
+        otherInput.setFiles(input.getFiles());
+        // When
+        final String key = ledgerService.getKey(input);
+        // Then
+        assertNotNull(key);
+        assertEquals(key, ledgerService.getKey(otherInput));
+        assertNotEquals(key, ledgerService.getKey(new Input()));
+    }
+
+    @Test
+    void getKey_disabled() {
+        // Given
+        sharedProperties.setLedger(false);
+        // When Then
+        assertNull(ledgerService.getKey(input));
+    }
+
+    @Test
+    void record() {
+        // Given
+        final String key = ledgerService.getKey(input);
+        final ProcessingMessage outputMessage = ProcessingMessageUtils.create().setKeyObjectStorage("foo");
+        // When
+        ledgerService.record(key, LedgerPhase.STARTED, "job");
+        ledgerService.record(key, LedgerPhase.DONE, "job", Set.of(outputMessage));
+        // Then
+        final Optional<LedgerEntry> ledgerEntry = ledgerService.find(key);
+        assertTrue(ledgerEntry.isPresent());
+        assertEquals(LedgerPhase.DONE, ledgerEntry.get().getPhase());
+        assertEquals("job", ledgerEntry.get().getJobUid());
+        assertEquals(Set.of(outputMessage), ledgerEntry.get().getOutputs());
+        assertEquals("foo", ledgerEntry.get().getOutputs().iterator().next().getKeyObjectStorage());
+    }
+
+    @Test
+    void record_disabled() {
+        // When
+        ledgerService.record(null, LedgerPhase.STARTED, "job");
+        // Then
+        assertFalse(Files.exists(sharedFolder.resolve(FolderParameters.LEDGER_FOLDER)));
+        assertTrue(ledgerService.find(null).isEmpty());
+    }
+
+    @Test
+    void find_unknown() {
+        assertTrue(ledgerService.find("unknown").isEmpty());
+    }
+
+}
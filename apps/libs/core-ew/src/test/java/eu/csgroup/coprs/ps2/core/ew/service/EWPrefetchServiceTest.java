@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.ew.service;
+
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
+import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
+import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
+import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+class EWPrefetchServiceTest extends AbstractTest {
+
+    @Mock
+    private ObsService obsService;
+
+    private Path tmpFolder;
+    private SharedProperties sharedProperties;
+
+    @Override
+    public void setup() throws Exception {
+        tmpFolder = Files.createTempDirectory("prefetch");
+        sharedProperties = new SharedProperties();
+        sharedProperties.setPrefetch(true);
+        sharedProperties.setPrefetchFolder(tmpFolder.resolve("staging").toString());
+    }
+
+    @Override
+    public void teardown() throws Exception {
+        FileSystemUtils.deleteRecursively(tmpFolder);
+    }
+
+    @Test
+    void download() throws Exception {
+        // Given
+        final EWPrefetchService prefetchService = new EWPrefetchService(sharedProperties, obsService);
+        final FileInfo stagedFile = fileInfo("staged");
+        final FileInfo otherFile = fileInfo("other");
+        final UUID parentUid = UUID.randomUUID();
+        doAnswer(invocation -> {
+            final Set<FileInfo> fileInfoSet = invocation.getArgument(0);
+            for (FileInfo fileInfo : fileInfoSet) {
+                Files.writeString(Paths.get(fileInfo.getFullLocalPath()), fileInfo.getObsName());
+            }
+            return null;
+        }).when(obsService).download(anySet(), any());
+        prefetchService.prefetch(List.of(Set.of(stagedFile)));
+        awaitStaged();
+        // When
+        prefetchService.download(Set.of(stagedFile, otherFile), parentUid);
+        // Then
+        assertEquals("staged", Files.readString(Paths.get(stagedFile.getFullLocalPath())));
+        verify(obsService).download(Set.of(otherFile), parentUid);
+    }
+
+    @Test
+    void download_disabled() {
+        // Given
+        sharedProperties.setPrefetch(false);
+        final EWPrefetchService prefetchService = new EWPrefetchService(sharedProperties, obsService);
+        final Set<FileInfo> fileInfoSet = Set.of(fileInfo("file"));
+        // When
+        prefetchService.prefetch(List.of(fileInfoSet));
+        prefetchService.download(fileInfoSet, null);
+        // Then
+        assertFalse(prefetchService.isEnabled());
+        verify(obsService).download(fileInfoSet, null);
+    }
+
+    private FileInfo fileInfo(String name) {
+        return new FileInfo()
+                .setBucket("bucket")
+                .setKey("path/" + name)
+                .setFullLocalPath(tmpFolder.resolve("workspace").resolve(name).toString())
+                .setSimpleFile(true);
+    }
+
+    private void awaitStaged() throws Exception {
+        final Instant deadline = Instant.now().plusSeconds(10);
+        while (Instant.now().isBefore(deadline)) {
+            try (Stream<Path> stream = Files.walk(Paths.get(sharedProperties.getPrefetchFolder()))) {
+                if (stream.anyMatch(Files::isRegularFile)) {
+                    return;
+                }
+            }
+            Thread.sleep(50);
+        }
+        fail("Files not staged");
+    }
+
+}
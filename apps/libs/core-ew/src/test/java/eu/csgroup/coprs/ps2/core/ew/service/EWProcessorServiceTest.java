@@ -16,6 +16,7 @@
 
 package eu.csgroup.coprs.ps2.core.ew.service;
 
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
 import eu.csgroup.coprs.ps2.core.common.exception.ProcessingException;
 import eu.csgroup.coprs.ps2.core.common.model.CommonInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
@@ -23,6 +24,8 @@ import eu.csgroup.coprs.ps2.core.common.model.trace.TraceLogger;
 import eu.csgroup.coprs.ps2.core.common.settings.MessageParameters;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
+import eu.csgroup.coprs.ps2.core.ew.model.LedgerEntry;
+import eu.csgroup.coprs.ps2.core.ew.model.LedgerPhase;
 import eu.csgroup.coprs.ps2.core.ew.model.helper.Input;
 import nl.altindag.log.LogCaptor;
 import org.junit.jupiter.api.Test;
@@ -30,11 +33,14 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,6 +56,10 @@ class EWProcessorServiceTest extends AbstractTest {
     private EWExecutionService<Input> executionService;
     @Mock
     private EWOutputService<Input> outputService;
+    @Mock
+    private EWLedgerService ledgerService;
+    @Mock
+    private EWPrefetchService prefetchService;
 
     private EWProcessorService<Input> processorService;
     private Set<ProcessingMessage> outputMessageSet;
@@ -65,6 +75,8 @@ class EWProcessorServiceTest extends AbstractTest {
         ReflectionTestUtils.setField(processorService, "setupService", setupService);
         ReflectionTestUtils.setField(processorService, "executionService", executionService);
         ReflectionTestUtils.setField(processorService, "outputService", outputService);
+        ReflectionTestUtils.setField(processorService, "ledgerService", ledgerService);
+        ReflectionTestUtils.setField(processorService, "prefetchService", prefetchService);
 
         outputMessageSet = Set.of(ProcessingMessageUtils.create());
 
@@ -122,6 +134,42 @@ class EWProcessorServiceTest extends AbstractTest {
         }
     }
 
+    @Test
+    void processMessage_recorded() {
+        // Given
+        when(outputService.output(eq(input), any())).thenReturn(outputMessageSet);
+        when(inputService.extract(inputMessage)).thenReturn(input);
+        when(ledgerService.getKey(input)).thenReturn("key");
+        when(ledgerService.find("key")).thenReturn(Optional.of(new LedgerEntry().setPhase(LedgerPhase.EXECUTED)));
+
+        // When
+        final Set<ProcessingMessage> output = processorService.processMessage(inputMessage);
+
+        // Then
+        verify(executionService).execute(eq(input), any());
+        verify(ledgerService).record(eq("key"), eq(LedgerPhase.STARTED), any());
+        verify(ledgerService).record(eq("key"), eq(LedgerPhase.EXECUTED), any());
+        verify(ledgerService).record(eq("key"), eq(LedgerPhase.DONE), any(), eq(outputMessageSet));
+        assertEquals(outputMessageSet, output);
+    }
+
+    @Test
+    void processMessage_done() {
+        // Given
+        when(inputService.extract(inputMessage)).thenReturn(input);
+        when(ledgerService.getKey(input)).thenReturn("key");
+        when(ledgerService.find("key")).thenReturn(Optional.of(new LedgerEntry().setPhase(LedgerPhase.DONE).setOutputs(outputMessageSet)));
+
+        // When
+        final Set<ProcessingMessage> output = processorService.processMessage(inputMessage);
+
+        // Then
+        verify(setupService, never()).setup(any(), any());
+        verify(executionService, never()).execute(any(), any());
+        verify(outputService, never()).output(any(), any());
+        assertEquals(outputMessageSet, output);
+    }
+
     @Test
     void getTaskOutputs() {
 
@@ -137,4 +185,48 @@ class EWProcessorServiceTest extends AbstractTest {
         assertEquals(1, taskOutputs.size());
     }
 
+    @Test
+    void beforeBatch() {
+        // Given
+        final ProcessingMessage nextMessage = ProcessingMessageUtils.create();
+        when(prefetchService.isEnabled()).thenReturn(true);
+        when(inputService.extract(nextMessage)).thenReturn(input);
+        // When
+        processorService.beforeBatch(List.of(inputMessage, nextMessage));
+        // Then
+        verify(inputService, never()).extract(inputMessage);
+        verify(prefetchService).prefetch(List.of(input.getFiles()));
+    }
+
+    @Test
+    void beforeBatch_disabled() {
+        // When
+        processorService.beforeBatch(List.of(inputMessage, ProcessingMessageUtils.create()));
+        // Then
+        verify(inputService, never()).extract(any());
+        verify(prefetchService, never()).prefetch(any());
+    }
+
+    @Test
+    void processBatch_parallelismTooHigh() {
+        // Given
+        final SharedProperties sharedProperties = new SharedProperties();
+        sharedProperties.setMessageParallelism(2);
+        ReflectionTestUtils.setField(processorService, "sharedProperties", sharedProperties);
+        // When
+        assertThrows(IllegalStateException.class, () -> processorService.processBatch());
+    }
+
+    @Test
+    void processBatch_pollIntervalTooShort() {
+        // Given
+        final SharedProperties sharedProperties = new SharedProperties();
+        sharedProperties.setMaxJobDuration(7200);
+        ReflectionTestUtils.setField(processorService, "sharedProperties", sharedProperties);
+        ReflectionTestUtils.setField(processorService, "maxPollRecords", 1);
+        ReflectionTestUtils.setField(processorService, "maxPollInterval", 3600000L);
+        // When
+        assertThrows(IllegalStateException.class, () -> processorService.processBatch());
+    }
+
 }
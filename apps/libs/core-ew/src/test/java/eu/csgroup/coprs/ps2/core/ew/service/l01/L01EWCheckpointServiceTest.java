@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.ew.service.l01;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import eu.csgroup.coprs.ps2.core.common.config.SharedProperties;
+import eu.csgroup.coprs.ps2.core.common.model.l0.L0cExecutionInput;
+import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
+import eu.csgroup.coprs.ps2.core.common.settings.FolderParameters;
+import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class L01EWCheckpointServiceTest extends AbstractTest {
+
+    private Path sharedFolder;
+    private Path outputFolder;
+    private SharedProperties sharedProperties;
+    private L01EWCheckpointService checkpointService;
+    private L0cExecutionInput executionInput;
+
+    @Override
+    public void setup() throws Exception {
+
+        sharedFolder = Files.createTempDirectory("shared");
+        outputFolder = Files.createDirectories(sharedFolder.resolve("DT").resolve(FolderParameters.OUTPUT_FOLDER));
+
+        sharedProperties = new SharedProperties();
+        sharedProperties.setSharedFolderRoot(sharedFolder.toString());
+        sharedProperties.setCheckpoint(true);
+
+        checkpointService = new L01EWCheckpointService(sharedProperties, new ObjectMapper().registerModule(new JavaTimeModule()));
+
+        executionInput = (L0cExecutionInput) new L0cExecutionInput().setDatastrip("DT").setOutputFolder(outputFolder.toString());
+    }
+
+    @Override
+    public void teardown() throws Exception {
+        FileSystemUtils.deleteRecursively(sharedFolder);
+    }
+
+    @Test
+    void complete() throws Exception {
+        // Given
+        final Instant start = Instant.now();
+        Files.writeString(Files.createDirectories(outputFolder.resolve("DS")).resolve("product"), "foo");
+        // When
+        checkpointService.complete(executionInput, List.of(OrchestratorMode.L0C), start);
+        // Then
+        assertTrue(checkpointService.isComplete(executionInput, OrchestratorMode.L0C));
+        assertFalse(checkpointService.isComplete(executionInput, OrchestratorMode.OLQC_L0DS));
+    }
+
+    @Test
+    void complete_noOutput() throws Exception {
+        // Given
+        Files.writeString(outputFolder.resolve("product"), "foo");
+        final Instant start = Instant.now().plusSeconds(2);
+        // When
+        checkpointService.complete(executionInput, List.of(OrchestratorMode.L0C), start);
+        // Then
+        assertFalse(checkpointService.isComplete(executionInput, OrchestratorMode.L0C));
+    }
+
+    @Test
+    void complete_stage() throws Exception {
+        // Given
+        final Instant start = Instant.now();
+        Files.writeString(outputFolder.resolve("product"), "foo");
+        // When
+        checkpointService.complete(executionInput, List.of(OrchestratorMode.OLQC_L0DS, OrchestratorMode.OLQC_L0GR), start);
+        // Then
+        assertTrue(checkpointService.isComplete(executionInput, OrchestratorMode.OLQC_L0DS));
+        assertTrue(checkpointService.isComplete(executionInput, OrchestratorMode.OLQC_L0GR));
+    }
+
+    @Test
+    void isComplete_changed() throws Exception {
+        // Given
+        final Instant start = Instant.now();
+        final Path product = outputFolder.resolve("product");
+        Files.writeString(product, "foo");
+        checkpointService.complete(executionInput, List.of(OrchestratorMode.L0C), start);
+        Files.writeString(product, "foobar");
+        // When Then
+        assertFalse(checkpointService.isComplete(executionInput, OrchestratorMode.L0C));
+    }
+
+    @Test
+    void isComplete_otherInput() throws Exception {
+        // Given
+        final Instant start = Instant.now();
+        Files.writeString(outputFolder.resolve("product"), "foo");
+        checkpointService.complete(executionInput, List.of(OrchestratorMode.L0C), start);
+        final L0cExecutionInput otherInput = (L0cExecutionInput) new L0cExecutionInput().setDatastrip("other").setOutputFolder(outputFolder.toString());
+        // When Then
+        assertFalse(checkpointService.isComplete(otherInput, OrchestratorMode.L0C));
+    }
+
+    @Test
+    void complete_disabled() {
+        // Given
+        sharedProperties.setCheckpoint(false);
+        // When
+        checkpointService.complete(executionInput, List.of(OrchestratorMode.L0C), Instant.now());
+        // Then
+        assertFalse(Files.exists(sharedFolder.resolve(FolderParameters.CHECKPOINT_FOLDER)));
+        assertFalse(checkpointService.isComplete(executionInput, OrchestratorMode.L0C));
+    }
+
+}
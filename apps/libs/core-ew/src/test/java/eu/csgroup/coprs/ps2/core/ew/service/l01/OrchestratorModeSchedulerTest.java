@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.ew.service.l01;
+
+import eu.csgroup.coprs.ps2.core.common.exception.ScriptExecutionException;
+import eu.csgroup.coprs.ps2.core.common.model.l01.OrchestratorMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrchestratorModeSchedulerTest {
+
+    private static final List<OrchestratorMode> L0C_TASKS = List.of(OrchestratorMode.L0C, OrchestratorMode.OLQC_L0DS, OrchestratorMode.OLQC_L0GR);
+
+    @Test
+    void plan() {
+        // When
+        final List<List<OrchestratorMode>> stages = OrchestratorModeScheduler.plan(L0C_TASKS);
+        // Then
+        assertEquals(List.of(List.of(OrchestratorMode.L0C), List.of(OrchestratorMode.OLQC_L0DS, OrchestratorMode.OLQC_L0GR)), stages);
+    }
+
+    @Test
+    void plan_missingPrerequisite() {
+        // When
+        final List<List<OrchestratorMode>> stages = OrchestratorModeScheduler.plan(List.of(OrchestratorMode.OLQC_L1BDS, OrchestratorMode.L1B_FORMAT_GR));
+        // Then
+        assertEquals(1, stages.size());
+        assertEquals(2, stages.get(0).size());
+    }
+
+    @Test
+    void run() {
+        // Given
+        final Map<OrchestratorMode, Integer> parallelTasksByMode = new ConcurrentHashMap<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        // When
+        OrchestratorModeScheduler.run(L0C_TASKS, 8, (mode, parallelTasks, concurrent) -> {
+            parallelTasksByMode.put(mode, parallelTasks);
+            assertEquals(mode != OrchestratorMode.L0C, concurrent);
+            if (mode != OrchestratorMode.L0C) {
+                // Both checks have to be running at the same time to get past this point
+                latch.countDown();
+                awaitQuietly(latch);
+            }
+        });
+        // Then
+        assertEquals(0, latch.getCount());
+        assertEquals(Map.of(OrchestratorMode.L0C, 8, OrchestratorMode.OLQC_L0DS, 4, OrchestratorMode.OLQC_L0GR, 4), parallelTasksByMode);
+    }
+
+    @Test
+    void run_serial() {
+        // Given
+        final Thread caller = Thread.currentThread();
+        // When Then
+        OrchestratorModeScheduler.run(L0C_TASKS, 1, (mode, parallelTasks, concurrent) -> {
+            assertSame(caller, Thread.currentThread());
+            assertFalse(concurrent);
+            assertEquals(1, parallelTasks);
+        });
+    }
+
+    @Test
+    void run_failure() {
+        // Given
+        final Map<OrchestratorMode, Integer> parallelTasksByMode = new ConcurrentHashMap<>();
+        // When Then
+        assertThrows(ScriptExecutionException.class, () -> OrchestratorModeScheduler.run(L0C_TASKS, 8, (mode, parallelTasks, concurrent) -> {
+            parallelTasksByMode.put(mode, parallelTasks);
+            if (mode == OrchestratorMode.OLQC_L0DS) {
+                throw new ScriptExecutionException("Nope");
+            }
+        }));
+        assertEquals(3, parallelTasksByMode.size());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
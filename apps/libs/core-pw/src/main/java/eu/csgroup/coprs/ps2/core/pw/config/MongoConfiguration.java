@@ -16,6 +16,7 @@
 
 package eu.csgroup.coprs.ps2.core.pw.config;
 
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMapReadConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -23,22 +24,32 @@ import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.util.List;
+
 
 @Configuration
 @EnableMongoAuditing
 @EnableMongoRepositories(basePackages = "eu.csgroup.coprs.ps2")
 public class MongoConfiguration {
 
+    public static final String MAP_KEY_DOT_REPLACEMENT = "#";
+
     @Bean
     MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
         return new MongoTransactionManager(mongoDatabaseFactory);
     }
 
+    @Bean
+    MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new AvailabilityMapReadConverter()));
+    }
+
     @Autowired
     public void setMapKeyDotReplacement(MappingMongoConverter mongoConverter) {
-        mongoConverter.setMapKeyDotReplacement("#");
+        mongoConverter.setMapKeyDotReplacement(MAP_KEY_DOT_REPLACEMENT);
     }
 
 }
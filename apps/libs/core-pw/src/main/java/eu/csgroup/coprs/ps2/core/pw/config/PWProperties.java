@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.pw.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("pw")
+public class PWProperties {
+
+    /**
+     * Minimum delay in seconds between two OBS checks of the input products of a waiting item
+     */
+    private long reconciliationInterval = 900;
+
+    /**
+     * Delay in milliseconds during which received inputs are gathered into a single readiness pass
+     */
+    private long readinessDebounce = 1000;
+
+    /**
+     * Delay in seconds between two readiness passes when no input is received
+     */
+    private long readinessPeriod = 60;
+
+    /**
+     * Maximum number of ready items handled at once when generating job orders
+     */
+    private int readyPageSize = 100;
+
+    /**
+     * Maximum number of ready items turned into jobs during a single pass, 0 for no limit
+     */
+    private int maxJobsPerPass = 0;
+
+    /**
+     * Delay in seconds after the T0 PDGS date within which the products of this level are due, 0 if not monitored
+     */
+    private long timeliness = 0;
+
+    /**
+     * Topic consumed by the execution workers of this level, whose lag throttles the job generation, empty to disable
+     */
+    private String backpressureTopic = "";
+
+    /**
+     * Consumer group of the execution workers reading the backpressure topic
+     */
+    private String backpressureGroup = "";
+
+    /**
+     * Maximum number of job messages waiting in the backpressure topic before the job generation is paused, 0 for no limit
+     */
+    private long maxDownstreamLag = 0;
+
+    /**
+     * Delay in seconds after which a lag query is given up, the job generation then being left unthrottled
+     */
+    private long backpressureTimeout = 10;
+
+    /**
+     * Maximum number of waiting items held at once when updating their status
+     */
+    private int backlogPageSize = 500;
+
+    /**
+     * Identifier of this PW instance when claiming ready items, must be unique among the replicas
+     */
+    private String leaseOwner = UUID.randomUUID().toString();
+
+    /**
+     * Delay in seconds after which an item claimed by a replica that did not create its job order can be claimed again
+     */
+    private long leaseDuration = 300;
+
+}
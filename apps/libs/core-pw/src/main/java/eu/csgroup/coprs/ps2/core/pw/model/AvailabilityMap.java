@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.pw.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Availability of a fixed set of named products (GR, TL, AUX types ...).
+ * <p>
+ * Names are stored once, in order, and availability as a bitmap indexed on that order. The bitmap is stored as an array of 64 bits words so that a single
+ * product can be flagged in Mongo with a {@code $bit} update on its word, without rewriting the names.
+ */
+@Getter
+@Setter
+public class AvailabilityMap {
+
+    public static final String NAMES_FIELD = "names";
+    public static final String BITS_FIELD = "bits";
+
+    private static final int WORD_SIZE = Long.SIZE;
+
+    private List<String> names = new ArrayList<>();
+    private long[] bits = new long[0];
+
+    public static AvailabilityMap of(Collection<String> names) {
+        final AvailabilityMap availabilityMap = new AvailabilityMap();
+        availabilityMap.names = new ArrayList<>(names);
+        availabilityMap.bits = new long[wordCount(names.size())];
+        return availabilityMap;
+    }
+
+    public static int wordIndex(int index) {
+        return index / WORD_SIZE;
+    }
+
+    public static long wordMask(int index) {
+        return 1L << (index % WORD_SIZE);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public boolean contains(String name) {
+        return names.contains(name);
+    }
+
+    public int indexOf(String name) {
+        return names.indexOf(name);
+    }
+
+    public boolean isAvailable(String name) {
+        final int index = indexOf(name);
+        return index >= 0 && isAvailable(index);
+    }
+
+    public AvailabilityMap setAvailable(String name, boolean available) {
+
+        final int index = indexOf(name);
+
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown product: " + name);
+        }
+
+        final long mask = wordMask(index);
+        if (available) {
+            bits[wordIndex(index)] |= mask;
+        } else {
+            bits[wordIndex(index)] &= ~mask;
+        }
+
+        return this;
+    }
+
+    public int availableCount() {
+        return Arrays.stream(bits).mapToInt(Long::bitCount).sum();
+    }
+
+    public boolean allAvailable() {
+        return availableCount() == names.size();
+    }
+
+    public List<String> availableNames() {
+        final BitSet bitSet = BitSet.valueOf(bits);
+        return bitSet.stream().mapToObj(names::get).toList();
+    }
+
+    public List<String> missingNames() {
+        final BitSet bitSet = BitSet.valueOf(bits);
+        return IntStream.range(0, names.size()).filter(index -> !bitSet.get(index)).mapToObj(names::get).toList();
+    }
+
+    private boolean isAvailable(int index) {
+        return (bits[wordIndex(index)] & wordMask(index)) != 0;
+    }
+
+    private static int wordCount(int size) {
+        return (size + WORD_SIZE - 1) / WORD_SIZE;
+    }
+
+}
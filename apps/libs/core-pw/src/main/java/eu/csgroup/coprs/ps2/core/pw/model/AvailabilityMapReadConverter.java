@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.pw.model;
+
+import eu.csgroup.coprs.ps2.core.pw.config.MongoConfiguration;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+import java.util.List;
+
+/**
+ * Reads availability maps stored either as names and bitmap, or as a map of flags by name as they were stored before.
+ * <p>
+ * Items still stored with the former shape are rewritten at startup, see {@code PWItemService#migrateAvailability()}.
+ */
+@ReadingConverter
+public class AvailabilityMapReadConverter implements Converter<Document, AvailabilityMap> {
+
+    @Override
+    public AvailabilityMap convert(Document source) {
+
+        if (!source.containsKey(AvailabilityMap.NAMES_FIELD)) {
+            return convertLegacy(source);
+        }
+
+        final AvailabilityMap availabilityMap = AvailabilityMap.of(source.getList(AvailabilityMap.NAMES_FIELD, String.class));
+
+        // Projections may leave the bits out
+        final List<Number> bits = source.getList(AvailabilityMap.BITS_FIELD, Number.class, List.of());
+        for (int word = 0; word < Math.min(bits.size(), availabilityMap.getBits().length); word++) {
+            availabilityMap.getBits()[word] = bits.get(word).longValue();
+        }
+
+        return availabilityMap;
+    }
+
+    private AvailabilityMap convertLegacy(Document source) {
+
+        // Map keys were stored with their dots replaced
+        final AvailabilityMap availabilityMap = AvailabilityMap.of(
+                source.keySet().stream().map(key -> key.replace(MongoConfiguration.MAP_KEY_DOT_REPLACEMENT, ".")).toList()
+        );
+
+        source.forEach((key, available) -> {
+            if (Boolean.TRUE.equals(available)) {
+                availabilityMap.setAvailable(key.replace(MongoConfiguration.MAP_KEY_DOT_REPLACEMENT, "."), true);
+            }
+        });
+
+        return availabilityMap;
+    }
+
+}
@@ -21,7 +21,6 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.time.Instant;
-import java.util.Map;
 
 @Getter
 @Setter
@@ -34,19 +33,23 @@ public abstract class PWItem {
 
     protected Instant createdDate;
     protected Instant lastModifiedDate;
+    protected Integer version;
 
     protected Instant startTime;
     protected Instant stopTime;
 
     protected Instant t0PdgsDate;
 
-    protected Map<String, Boolean> availableByAux;
+    protected AvailabilityMap availableByAux;
 
     protected boolean ready;
     protected boolean jobOrderCreated;
 
+    protected String leaseOwner;
+    protected Instant leaseExpiry;
+
     public boolean allAuxAvailable() {
-        return availableByAux.values().stream().allMatch(Boolean::booleanValue);
+        return availableByAux.allAvailable();
     }
 
     public String getSatelliteName() {
@@ -22,7 +22,6 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
-import java.util.Map;
 
 @Getter
 @Setter
@@ -40,9 +39,12 @@ public class PWItemEntity extends AuditableEntity {
 
     private Instant t0PdgsDate;
 
-    private Map<String, Boolean> availableByAux;
+    private AvailabilityMap availableByAux;
 
     private boolean ready;
     private boolean jobOrderCreated;
 
+    private String leaseOwner;
+    private Instant leaseExpiry;
+
 }
@@ -47,10 +47,9 @@ public abstract class PWAuxService<S extends PWItem> {
 
     public Map<AuxProductType, List<FileInfo>> getAux(S item) {
         return item.getAvailableByAux()
-                .entrySet()
+                .availableNames()
                 .stream()
-                .filter(Map.Entry::getValue)
-                .map(entry -> AuxProductType.valueOf(entry.getKey()))
+                .map(AuxProductType::valueOf)
                 .collect(Collectors.toMap(
                         Function.identity(),
                         auxProductType -> {
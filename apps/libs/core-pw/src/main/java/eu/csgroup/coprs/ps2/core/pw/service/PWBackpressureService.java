@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.csgroup.coprs.ps2.core.pw.service;
+
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Throttles the job generation on the consumer lag of the execution workers, so that a backlog recovery does not flood their topic.
+ * <p>
+ * Items that do not get any credit stay ready in Mongo and are handled by a later pass.
+ */
+@Slf4j
+@Service
+public class PWBackpressureService {
+
+    private final PWProperties pwProperties;
+    private final KafkaProperties kafkaProperties;
+
+    private Admin admin;
+
+    public PWBackpressureService(PWProperties pwProperties, KafkaProperties kafkaProperties) {
+        this.pwProperties = pwProperties;
+        this.kafkaProperties = kafkaProperties;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (isEnabled()) {
+            log.info("Throttling job generation on the lag of group {} on topic {}", pwProperties.getBackpressureGroup(), pwProperties.getBackpressureTopic());
+            admin = Admin.create(kafkaProperties.buildAdminProperties());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (admin != null) {
+            admin.close();
+        }
+    }
+
+    /**
+     * Number of jobs that can be published before reaching the maximum downstream lag, unlimited when backpressure is disabled or the lag cannot be read
+     */
+    public int availableCredits() {
+
+        if (!isEnabled()) {
+            return Integer.MAX_VALUE;
+        }
+
+        try {
+            final long lag = readLag();
+            log.debug("Downstream lag: {}", lag);
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, pwProperties.getMaxDownstreamLag() - lag));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Integer.MAX_VALUE;
+        } catch (ExecutionException | TimeoutException e) {
+            // Publishing would fail anyway if the brokers were down, so an unreadable lag does not stop production
+            log.warn("Failed to read downstream lag: {}", e.getMessage());
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private boolean isEnabled() {
+        return pwProperties.getMaxDownstreamLag() > 0
+                && StringUtils.hasText(pwProperties.getBackpressureTopic())
+                && StringUtils.hasText(pwProperties.getBackpressureGroup());
+    }
+
+    private long readLag() throws ExecutionException, InterruptedException, TimeoutException {
+
+        final String topic = pwProperties.getBackpressureTopic();
+        final long timeout = pwProperties.getBackpressureTimeout();
+
+        final List<TopicPartition> partitions = admin.describeTopics(List.of(topic)).allTopicNames().get(timeout, TimeUnit.SECONDS)
+                .get(topic)
+                .partitions()
+                .stream()
+                .map(partitionInfo -> new TopicPartition(topic, partitionInfo.partition()))
+                .toList();
+
+        final Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(pwProperties.getBackpressureGroup())
+                .partitionsToOffsetAndMetadata()
+                .get(timeout, TimeUnit.SECONDS);
+
+        final Map<TopicPartition, ListOffsetsResultInfo> endOffsets = listOffsets(partitions, OffsetSpec.latest(), timeout);
+
+        // Partitions never consumed by the group are read from their first retained message
+        final List<TopicPartition> uncommitted = partitions.stream().filter(partition -> committed.get(partition) == null).toList();
+        final Map<TopicPartition, ListOffsetsResultInfo> startOffsets = uncommitted.isEmpty() ? Map.of() : listOffsets(uncommitted, OffsetSpec.earliest(), timeout);
+
+        return partitions.stream()
+                .mapToLong(partition -> {
+                    final long position = committed.get(partition) != null ? committed.get(partition).offset() : startOffsets.get(partition).offset();
+                    return Math.max(0, endOffsets.get(partition).offset() - position);
+                })
+                .sum();
+    }
+
+    private Map<TopicPartition, ListOffsetsResultInfo> listOffsets(List<TopicPartition> partitions, OffsetSpec offsetSpec, long timeout)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        return admin.listOffsets(partitions.stream().collect(Collectors.toMap(Function.identity(), partition -> offsetSpec)))
+                .all()
+                .get(timeout, TimeUnit.SECONDS);
+    }
+
+}
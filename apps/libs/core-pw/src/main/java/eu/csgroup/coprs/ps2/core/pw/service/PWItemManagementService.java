@@ -19,21 +19,19 @@ package eu.csgroup.coprs.ps2.core.pw.service;
 import eu.csgroup.coprs.ps2.core.common.model.aux.AuxProductType;
 import eu.csgroup.coprs.ps2.core.common.model.processing.Band;
 import eu.csgroup.coprs.ps2.core.common.service.catalog.CatalogService;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItem;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItemEntity;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.CollectionUtils;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Slf4j
 public abstract class PWItemManagementService<S extends PWItem, I extends PWItemEntity, V extends PWItemService<S, I>> {
 
-    private static final long DELETION_GRACE_PERIOD = 60L;
-
     protected final CatalogService catalogService;
     protected final V itemService;
 
@@ -42,79 +40,73 @@ public abstract class PWItemManagementService<S extends PWItem, I extends PWItem
         this.itemService = itemService;
     }
 
-    public abstract List<S> getMissingAux();
-
     public abstract boolean isReady(S item);
 
-    public List<S> getReady() {
-        return itemService.readAll(true, false);
-    }
-
-    public List<S> getNotReady() {
-        return itemService.readAll(false, false);
+    public List<S> claimReady(String owner, Duration leaseDuration, int pageSize) {
+        return itemService.claimReady(owner, leaseDuration, pageSize);
     }
 
-    public List<S> getDeletable() {
-        final Instant now = Instant.now();
-        return itemService.readAllByJobOrderCreated(true).stream()
-                .filter(item -> Duration.between(item.getLastModifiedDate(), now).getSeconds() > DELETION_GRACE_PERIOD)
-                .toList();
+    public void reconcile() {
+        // Nothing to reconcile by default, items relying on event-driven inputs can check them against OBS here
     }
 
-    public void updateAvailableAux() {
+    public void updateAvailableAux(int pageSize) {
 
         log.info("Updating AUX availability for all waiting items");
 
-        final List<S> missingAux = getMissingAux();
+        itemService.forEachWaitingForAux(pageSize, page -> {
 
-        log.debug("Found {} items waiting for AUX", missingAux.size());
+            final List<S> missingAux = page.stream().filter(item -> !item.allAuxAvailable()).toList();
 
-        if (!CollectionUtils.isEmpty(missingAux)) {
-            missingAux.forEach(this::updateAvailableAux);
-            itemService.updateAll(missingAux);
-        }
+            log.debug("Found {} items waiting for AUX", missingAux.size());
+
+            if (!CollectionUtils.isEmpty(missingAux)) {
+                missingAux.forEach(this::updateAvailableAux);
+                itemService.updateAll(missingAux, List.of(PWItemService.AVAILABLE_BY_AUX_FIELD));
+            }
+        });
 
         log.info("Finished updating AUX availability for all waiting items");
     }
 
-    public void updateNotReady() {
+    public void updateNotReady(int pageSize) {
 
         log.info("Updating ready status for all items not yet ready");
 
-        final List<S> items = getNotReady();
+        itemService.forEachPage(false, false, pageSize, items -> {
 
-        log.info("Found {} items not ready", items.size());
+            log.info("Found {} items not ready", items.size());
 
-        if (!CollectionUtils.isEmpty(items)) {
             items.forEach(item -> {
                 item.setReady(isReady(item));
                 if (item.isReady()) {
                     log.info("Item {} is now ready", item.getName());
                 }
             });
-            itemService.updateAll(items);
-        }
-        log.info("Finished updating ready status for all items not yet ready");
-    }
+            // Items still not ready are left untouched
+            itemService.updateAll(items.stream().filter(PWItem::isReady).toList(), List.of(PWItemService.READY_FIELD));
+        });
 
-    public void setJobOrderCreated(List<S> itemList) {
-        itemList.forEach(item -> item.setJobOrderCreated(true));
-        itemService.updateAll(itemList);
+        log.info("Finished updating ready status for all items not yet ready");
     }
 
-    public void cleanup() {
-
-        log.info("Removing created items");
+    public void setJobOrderCreated(List<S> itemList, String owner) {
 
-        final List<S> deletableItems = getDeletable();
+        itemList.forEach(item -> item.setJobOrderCreated(true));
 
-        log.debug("Found {} deletable items", deletableItems.size());
+        final long flagged = itemService.setJobOrderCreated(itemList.stream().map(PWItem::getName).collect(Collectors.toSet()), owner);
 
-        if (!CollectionUtils.isEmpty(deletableItems)) {
-            itemService.deleteAll(deletableItems.stream().map(S::getName).collect(Collectors.toSet()));
+        if (flagged != itemList.size()) {
+            log.warn("Lease lost on {} items out of {}, their job order may be created twice", itemList.size() - flagged, itemList.size());
         }
+    }
+
+    public void flush() {
+        itemService.flush();
+    }
 
-        log.info("Finished Removing created items");
+    public void releaseLeases(String owner) {
+        itemService.releaseLeases(owner);
     }
 
     protected void updateAvailableAux(S item) {
@@ -123,36 +115,37 @@ public abstract class PWItemManagementService<S extends PWItem, I extends PWItem
 
         if (!item.allAuxAvailable()) {
 
-            item.getAvailableByAux()
-                    .entrySet()
-                    .forEach(entry -> {
-
-                        final AuxProductType auxProductType = AuxProductType.valueOf(entry.getKey());
-
-                        if (Boolean.FALSE.equals(entry.getValue())) {
-
-                            if (auxProductType.isBandDependent()) {
-                                entry.setValue(
-                                        Band.allBandIndexIds().stream()
-                                                .map(bandIndexId ->
-                                                        catalogService.retrieveLatestAuxData(
-                                                                        auxProductType,
-                                                                        item.getSatellite(),
-                                                                        item.getStartTime(),
-                                                                        item.getStopTime(),
-                                                                        bandIndexId)
-                                                                .isPresent())
-                                                .allMatch(isPresent -> true)
-                                );
-                            } else {
-                                entry.setValue(
-                                        catalogService.retrieveLatestAuxData(
-                                                        auxProductType,
-                                                        item.getSatellite(),
-                                                        item.getStartTime(),
-                                                        item.getStopTime())
-                                                .isPresent());
-                            }
+            final AvailabilityMap availableByAux = item.getAvailableByAux();
+
+            availableByAux
+                    .missingNames()
+                    .forEach(auxName -> {
+
+                        final AuxProductType auxProductType = AuxProductType.valueOf(auxName);
+
+                        if (auxProductType.isBandDependent()) {
+                            availableByAux.setAvailable(
+                                    auxName,
+                                    Band.allBandIndexIds().stream()
+                                            .map(bandIndexId ->
+                                                    catalogService.retrieveLatestAuxData(
+                                                                    auxProductType,
+                                                                    item.getSatellite(),
+                                                                    item.getStartTime(),
+                                                                    item.getStopTime(),
+                                                                    bandIndexId)
+                                                            .isPresent())
+                                            .allMatch(isPresent -> true)
+                            );
+                        } else {
+                            availableByAux.setAvailable(
+                                    auxName,
+                                    catalogService.retrieveLatestAuxData(
+                                                    auxProductType,
+                                                    item.getSatellite(),
+                                                    item.getStartTime(),
+                                                    item.getStopTime())
+                                            .isPresent());
                         }
                     });
         }
@@ -17,14 +17,39 @@
 package eu.csgroup.coprs.ps2.core.pw.service;
 
 import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
+import eu.csgroup.coprs.ps2.core.pw.model.AuditableEntity;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItem;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItemEntity;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItemMapper;
 import eu.csgroup.coprs.ps2.core.pw.repository.PWItemRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
 
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 
 @Slf4j
@@ -32,88 +57,613 @@ public abstract class PWItemService<S extends PWItem, I extends PWItemEntity> {
 
     protected static final String RETRIEVING_MULTIPLE_ITEMS = "Retrieving multiple items ({})";
 
+    protected static final String ID_FIELD = "_id";
+    protected static final String TYPE_FIELD = "_class";
+    protected static final String VERSION_FIELD = "version";
+    protected static final String CREATED_DATE_FIELD = "createdDate";
+    protected static final String T0_PDGS_DATE_FIELD = "t0PdgsDate";
+    protected static final String LAST_MODIFIED_DATE_FIELD = "lastModifiedDate";
+    protected static final String AVAILABLE_BY_AUX_FIELD = "availableByAux";
+    protected static final String READY_FIELD = "ready";
+    protected static final String JOB_ORDER_CREATED_FIELD = "jobOrderCreated";
+    protected static final String LEASE_OWNER_FIELD = "leaseOwner";
+    protected static final String LEASE_EXPIRY_FIELD = "leaseExpiry";
+
+    // Delay in seconds after which items with a created job order are removed by Mongo
+    private static final long JOB_ORDER_CREATED_RETENTION = 60L;
+    // Delay after which a known state is read again from Mongo, to see the changes written by other replicas
+    private static final Duration STATE_TTL = Duration.ofSeconds(60);
+    // Number of times the changes of durable fields are written before giving up when their item keeps being modified
+    private static final int WRITE_ATTEMPTS = 3;
+
     protected final PWItemRepository<I> itemRepository;
     protected final PWItemMapper<S, I> itemMapper;
+    protected final MongoTemplate mongoTemplate;
+    protected final Class<I> entityClass;
+    protected final PWItemStateCache stateCache = new PWItemStateCache(STATE_TTL);
 
-    protected PWItemService(PWItemRepository<I> itemRepository, PWItemMapper<S, I> itemMapper) {
+    protected PWItemService(PWItemRepository<I> itemRepository, PWItemMapper<S, I> itemMapper, MongoTemplate mongoTemplate, Class<I> entityClass) {
         this.itemRepository = itemRepository;
         this.itemMapper = itemMapper;
+        this.mongoTemplate = mongoTemplate;
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * @return Names of the fields an update may change
+     */
+    protected abstract List<String> getUpdatableFields();
+
+    /**
+     * @return Name of the flag set once all the inputs of an item are available, if the item waits for other inputs than AUX
+     */
+    protected Optional<String> getInputCompleteField() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return Names of the fields that no later pass rebuilds if their change is lost, written by an update right away instead of on the next flush
+     */
+    protected List<String> getDurableFields() {
+        return getInputCompleteField().map(List::of).orElse(List.of());
+    }
+
+    /**
+     * @return Names of the availability map fields of an item
+     */
+    protected List<String> getAvailabilityFields() {
+        return List.of(AVAILABLE_BY_AUX_FIELD);
     }
 
-    protected abstract void updateEntity(I itemEntity, I updatedItemEntity);
+    /**
+     * @return Names of the fields only needed to create the job order of an item, left out when browsing the backlog
+     */
+    protected List<String> getJobOnlyFields() {
+        return List.of();
+    }
+
+
+    @PostConstruct
+    public void init() {
+        ensureIndexes();
+        migrateAvailability();
+    }
+
+    public void ensureIndexes() {
+
+        log.info("Ensuring indexes for {}", entityClass.getSimpleName());
+
+        final IndexOperations indexOperations = mongoTemplate.indexOps(entityClass);
+
+        // All PWs share the collection, so each index starts with the item type and only covers the items of this PW
+        indexOperations.ensureIndex(new Index()
+                .named("status")
+                .on(TYPE_FIELD, Sort.Direction.ASC)
+                .on(READY_FIELD, Sort.Direction.ASC)
+                .on(JOB_ORDER_CREATED_FIELD, Sort.Direction.ASC)
+                .on(CREATED_DATE_FIELD, Sort.Direction.ASC));
 
+        // Ready items are claimed by deadline, which follows their T0 PDGS date as all items of a PW share the same timeliness
+        indexOperations.ensureIndex(new Index()
+                .named("claim")
+                .on(TYPE_FIELD, Sort.Direction.ASC)
+                .on(T0_PDGS_DATE_FIELD, Sort.Direction.ASC)
+                .on(CREATED_DATE_FIELD, Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where(READY_FIELD).is(true).and(JOB_ORDER_CREATED_FIELD).is(false))));
+
+        // Input tracking is only queried for items waiting for a job order
+        getInputCompleteField().ifPresent(field -> indexOperations.ensureIndex(new Index()
+                .named("input_" + field)
+                .on(TYPE_FIELD, Sort.Direction.ASC)
+                .on(field, Sort.Direction.ASC)
+                .on(READY_FIELD, Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where(JOB_ORDER_CREATED_FIELD).is(false)))));
+
+        // Items are never read again once their job order is created
+        indexOperations.ensureIndex(new Index()
+                .named("jobOrderCreated_ttl")
+                .on(LAST_MODIFIED_DATE_FIELD, Sort.Direction.ASC)
+                .expire(JOB_ORDER_CREATED_RETENTION, TimeUnit.SECONDS)
+                .partial(PartialIndexFilter.of(Criteria.where(JOB_ORDER_CREATED_FIELD).is(true))));
+    }
+
+    /**
+     * Rewrites as names and bitmap the availability maps of the items waiting for a job order that are still stored as a map of flags by name.
+     * <p>
+     * Availability bits are flagged in place, which needs the current shape, so these items are converted before any event is handled.
+     */
+    public void migrateAvailability() {
+
+        getAvailabilityFields().forEach(field -> {
+
+            final Criteria legacyCriteria = Criteria.where(field).exists(true).and(field + "." + AvailabilityMap.NAMES_FIELD).exists(false);
+
+            final Query legacyQuery = Query.query(Criteria.where(TYPE_FIELD).is(entityClass.getName()).and(JOB_ORDER_CREATED_FIELD).is(false)
+                    .andOperator(legacyCriteria));
+            legacyQuery.fields().include(field);
+
+            int migrated = 0;
+
+            // Streamed from a cursor, so that a large backlog is never held at once
+            try (CloseableIterator<I> iterator = mongoTemplate.stream(legacyQuery, entityClass)) {
+                while (iterator.hasNext()) {
+                    final I itemEntity = iterator.next();
+                    // Other replicas may migrate the same items, only the ones still in the former shape are written
+                    mongoTemplate.updateFirst(
+                            Query.query(Criteria.where(ID_FIELD).is(itemEntity.getName()).andOperator(legacyCriteria)),
+                            newUpdate().set(field, toDocument(itemEntity).get(field)),
+                            entityClass
+                    );
+                    migrated++;
+                }
+            }
+
+            if (migrated > 0) {
+                log.info("Migrated {} of {} items ({})", field, entityClass.getSimpleName(), migrated);
+            }
+        });
+    }
 
     public boolean exists(String itemName) {
-        return itemRepository.existsById(itemName);
+        // Items created by another replica are not known yet, so only a known item spares the request
+        return stateCache.contains(itemName) || itemRepository.existsById(itemName);
     }
 
     public S read(String itemName) {
         log.debug("Retrieving item: {}", itemName);
-        return itemMapper.toItem(readEntity(itemName));
+        return stateCache.get(itemName)
+                .map(this::toItem)
+                .orElseGet(() -> {
+                    final I itemEntity = readEntity(itemName);
+                    stateCache.put(itemName, toDocument(itemEntity));
+                    return itemMapper.toItem(itemEntity);
+                });
+    }
+
+    /**
+     * Browses the items with the given status, a page at a time, without their job only fields.
+     * <p>
+     * As these fields are missing, pages must only be written back with {@link #updateAll(List, List)} on other fields.
+     *
+     * @param pageSize     Maximum number of items per page
+     * @param pageConsumer Handles each page
+     */
+    public void forEachPage(boolean ready, boolean jobOrderCreated, int pageSize, Consumer<List<S>> pageConsumer) {
+        forEachPage(statusCriteria(ready, jobOrderCreated), getJobOnlyFields(), pageSize, pageConsumer);
+    }
+
+    /**
+     * Browses the items only waiting for AUX, a page at a time, without their job only fields.
+     *
+     * @see #forEachPage(boolean, boolean, int, Consumer)
+     */
+    public void forEachWaitingForAux(int pageSize, Consumer<List<S>> pageConsumer) {
+        forEachPage(waitingForAuxCriteria(), getJobOnlyFields(), pageSize, pageConsumer);
     }
 
-    public List<S> readAllByJobOrderCreated(boolean jobOrderCreated) {
-        final List<S> items = toItems(itemRepository.findAllByJobOrderCreated(jobOrderCreated));
-        log.debug(RETRIEVING_MULTIPLE_ITEMS, items.size());
-        return items;
+    public long count(boolean ready, boolean jobOrderCreated) {
+        return mongoTemplate.count(Query.query(statusCriteria(ready, jobOrderCreated)), entityClass);
     }
 
-    public List<S> readAll(boolean ready, boolean jobOrderCreated) {
-        final List<S> items = toItems(itemRepository.findAllByReadyAndJobOrderCreated(ready, jobOrderCreated));
-        log.debug(RETRIEVING_MULTIPLE_ITEMS, items.size());
-        return items;
+    public long countWaitingForInput() {
+        return getInputCompleteField()
+                .map(field -> mongoTemplate.count(Query.query(statusCriteria(false, false).and(field).is(false)), entityClass))
+                .orElse(0L);
+    }
+
+    public long countWaitingForAux() {
+        return mongoTemplate.count(Query.query(waitingForAuxCriteria()), entityClass);
+    }
+
+    public Optional<Instant> readOldestCreatedDate(boolean ready, boolean jobOrderCreated) {
+
+        final Query query = Query.query(statusCriteria(ready, jobOrderCreated))
+                .with(Sort.by(CREATED_DATE_FIELD))
+                .limit(1);
+        query.fields().include(CREATED_DATE_FIELD);
+
+        return Optional.ofNullable(mongoTemplate.findOne(query, entityClass)).map(AuditableEntity::getCreatedDate);
     }
 
     public void delete(String itemName) {
         log.debug("Deleting item: {}", itemName);
         I itemEntity = readEntity(itemName);
         itemRepository.delete(itemEntity);
+        stateCache.remove(List.of(itemName));
     }
 
     public void deleteAll(Set<String> itemNameSet) {
         log.debug("Deleting items ({})", itemNameSet.size());
         itemRepository.deleteAllByNameIn(itemNameSet);
+        stateCache.remove(itemNameSet);
     }
 
+    /**
+     * Records the changes of an item, they are written to Mongo on the next {@link #flush()}.
+     * <p>
+     * Changes of durable fields are written before returning, along with the other changes of the item, as the event they come from is
+     * acknowledged once handled.
+     *
+     * @param item Item to update
+     * @return The item
+     */
     public S update(S item) {
 
         log.debug("Updating item: {}", item.getName());
 
-        I itemEntity = readEntity(item.getName());
-        I updatedItemEntity = itemMapper.toItemEntity(item);
+        // Changes are computed against the known state, so it is loaded first if missing
+        final Document known = stateCache.get(item.getName()).orElseGet(() -> {
+            final Document document = toDocument(readEntity(item.getName()));
+            stateCache.put(item.getName(), document);
+            return document;
+        });
+
+        final Document document = toDocument(itemMapper.toItemEntity(item));
+
+        final boolean durableChange = getDurableFields().stream().anyMatch(field -> !Objects.equals(known.get(field), document.get(field)));
+
+        stateCache.stage(item.getName(), document, getUpdatableFields());
+
+        if (durableChange) {
+            writeNow(item.getName());
+        }
+
+        return item;
+    }
+
+    /**
+     * Writes the changes recorded since the last call in a single bulk request.
+     * <p>
+     * Only the changed fields are written, so changes made meanwhile on other fields, by another replica or by a readiness pass, are kept.
+     * Changes are put back if the request fails, to be written by the next call.
+     */
+    public void flush() {
+
+        write(stateCache.drain());
+
+        // States are loaded on first access, only the ones of recently handled items are kept in memory
+        final int purged = stateCache.purgeExpired();
+        if (purged > 0) {
+            log.debug("Forgot expired states of multiple items ({})", purged);
+        }
+    }
+
+    /**
+     * Writes the given changes in a single bulk request, each update only matching the item version the changes were recorded against.
+     * <p>
+     * If an item was modified in the meantime, the states of all the items are read again: changes whose field was written by someone else are
+     * dropped, the others are kept to be written over the version read.
+     *
+     * @return Whether all the changes were written
+     */
+    private boolean write(Map<String, PWItemStateCache.Changes> changesByName) {
+
+        if (changesByName.isEmpty()) {
+            return true;
+        }
+
+        log.debug("Writing changes of multiple items ({})", changesByName.size());
+
+        final BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass);
+
+        changesByName.forEach((itemName, changes) -> {
+            final Update update = newUpdate();
+            changes.getValues().forEach(update::set);
+            bulkOperations.updateOne(Query.query(Criteria.where(ID_FIELD).is(itemName).and(VERSION_FIELD).is(changes.getVersion())), update);
+        });
+
+        final int matchedCount;
+        try {
+            matchedCount = bulkOperations.execute().getMatchedCount();
+        } catch (RuntimeException e) {
+            stateCache.restore(changesByName);
+            throw e;
+        }
+
+        if (matchedCount == changesByName.size()) {
+            stateCache.confirm(changesByName);
+            return true;
+        }
+
+        log.info("Changes of {} items out of {} were written over a different version, reading them again", changesByName.size() - matchedCount,
+                changesByName.size());
+
+        // Written changes no longer match the value they were recorded against, so putting the states read drops them
+        stateCache.restore(changesByName);
+        reloadStates(changesByName.keySet());
+
+        return false;
+    }
+
+    private void writeNow(String itemName) {
+
+        // A write over a different version reads the item again, keeping the changes that still apply, which are then written again
+        for (int attempt = 0; attempt < WRITE_ATTEMPTS; attempt++) {
+            if (write(stateCache.drain(List.of(itemName)))) {
+                return;
+            }
+        }
+
+        throw new MongoDBException("Failed to write changes of item " + itemName + ": modified concurrently");
+    }
+
+    private void reloadStates(Set<String> itemNameSet) {
+
+        final List<Document> documents = mongoTemplate.find(
+                Query.query(Criteria.where(ID_FIELD).in(itemNameSet)),
+                Document.class,
+                mongoTemplate.getCollectionName(entityClass)
+        );
 
-        updateEntity(itemEntity, updatedItemEntity);
+        documents.forEach(document -> stateCache.put(document.getString(ID_FIELD), document));
 
-        return itemMapper.toItem(itemRepository.save(itemEntity));
+        // Deleted items have nothing left to write
+        final Set<String> deleted = new HashSet<>(itemNameSet);
+        documents.forEach(document -> deleted.remove(document.getString(ID_FIELD)));
+        stateCache.remove(deleted);
     }
 
     public void updateAll(List<S> itemList) {
+        updateAll(itemList, getUpdatableFields());
+    }
+
+    /**
+     * Writes the given fields of all items in a single bulk request, without reading them first.
+     * <p>
+     * Each update only matches the item version that was read, so an item modified in the meantime is not overwritten.
+     *
+     * @param itemList Items to update
+     * @param fields   Names of the fields to write
+     */
+    public void updateAll(List<S> itemList, List<String> fields) {
+
+        if (itemList.isEmpty()) {
+            return;
+        }
+
+        log.debug("Updating multiple items ({}) on fields {}", itemList.size(), fields);
+
+        final BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass);
+
+        itemList.forEach(item -> {
+
+            final Document document = toDocument(itemMapper.toItemEntity(item));
+
+            final Update update = newUpdate();
+            fields.forEach(field -> update.set(field, document.get(field)));
+
+            bulkOperations.updateOne(Query.query(Criteria.where(ID_FIELD).is(item.getName()).and(VERSION_FIELD).is(item.getVersion())), update);
+        });
+
+        final int matchedCount = bulkOperations.execute().getMatchedCount();
+
+        if (matchedCount != itemList.size()) {
+            throw new MongoDBException("Failed to update " + (itemList.size() - matchedCount) + " items out of " + itemList.size() + ": not found or modified concurrently");
+        }
+
+        itemList.forEach(item -> item.setVersion(item.getVersion() + 1));
+
+        // Items of a readiness pass are read from Mongo, their known state is reloaded when needed
+        stateCache.evict(itemList.stream().map(PWItem::getName).toList());
+    }
+
+
+    /**
+     * Claims up to a page of ready items for the given owner, closest to their deadline first.
+     * <p>
+     * Each item is leased with a single findAndModify, so that concurrent replicas never claim the same item. Items whose lease expired, because
+     * their owner stopped before creating their job order, can be claimed again.
+     *
+     * @param owner         Identifier of the claiming replica
+     * @param leaseDuration Delay after which the claimed items are released if their job order is not created
+     * @param pageSize      Maximum number of items to claim
+     * @return Claimed items
+     */
+    public List<S> claimReady(String owner, Duration leaseDuration, int pageSize) {
+
+        final List<S> claimed = new ArrayList<>();
+
+        while (claimed.size() < pageSize) {
+
+            final Instant now = Instant.now();
+
+            final Query query = Query.query(statusCriteria(true, false)
+                            .orOperator(Criteria.where(LEASE_EXPIRY_FIELD).is(null), Criteria.where(LEASE_EXPIRY_FIELD).lt(now)))
+                    .with(Sort.by(T0_PDGS_DATE_FIELD, CREATED_DATE_FIELD));
+
+            final I itemEntity = mongoTemplate.findAndModify(
+                    query,
+                    newUpdate().set(LEASE_OWNER_FIELD, owner).set(LEASE_EXPIRY_FIELD, now.plus(leaseDuration)),
+                    FindAndModifyOptions.options().returnNew(true),
+                    entityClass
+            );
+
+            if (itemEntity == null) {
+                break;
+            }
+
+            claimed.add(itemMapper.toItem(itemEntity));
+        }
+
+        log.debug("Claimed ready items ({}) for {}", claimed.size(), owner);
+
+        return claimed;
+    }
+
+    /**
+     * Sets the job order created flag of items leased by the given owner, and releases their lease.
+     *
+     * @return Number of items flagged, lower than the number of names if some leases were lost
+     */
+    public long setJobOrderCreated(Set<String> itemNameSet, String owner) {
+
+        log.debug("Setting job order created for multiple items ({})", itemNameSet.size());
+
+        // Items with a job order are no longer read
+        stateCache.remove(itemNameSet);
+
+        // The flag is only ever raised, so it does not need the version check of the other updates, the lease protects it instead
+        return mongoTemplate.updateMulti(
+                Query.query(Criteria.where(ID_FIELD).in(itemNameSet).and(LEASE_OWNER_FIELD).is(owner)),
+                newUpdate()
+                        .set(JOB_ORDER_CREATED_FIELD, true)
+                        .unset(LEASE_OWNER_FIELD)
+                        .unset(LEASE_EXPIRY_FIELD),
+                entityClass
+        ).getModifiedCount();
+    }
+
+    /**
+     * Releases all the items leased by the given owner whose job order is not created, so that any replica can claim them again.
+     */
+    public void releaseLeases(String owner) {
 
-        log.debug("Updating multiple items ({})", itemList.size());
+        final long released = mongoTemplate.updateMulti(
+                Query.query(statusCriteria(true, false).and(LEASE_OWNER_FIELD).is(owner)),
+                newUpdate()
+                        .unset(LEASE_OWNER_FIELD)
+                        .unset(LEASE_EXPIRY_FIELD),
+                entityClass
+        ).getModifiedCount();
 
-        final List<I> updatedItemEntities = itemList.stream().map(itemMapper::toItemEntity).toList();
+        log.debug("Released leased items ({}) for {}", released, owner);
+    }
+
+    protected Optional<S> setAvailable(String itemName, String availabilityField, Function<I, AvailabilityMap> availabilityGetter, String name) {
+
+        // Only the names are fetched to locate the product in the bitmap
+        final Query namesQuery = Query.query(Criteria.where(ID_FIELD).is(itemName));
+        namesQuery.fields().include(availabilityField + "." + AvailabilityMap.NAMES_FIELD);
+
+        final int index = Optional.ofNullable(mongoTemplate.findOne(namesQuery, entityClass))
+                .map(availabilityGetter)
+                .map(availabilityMap -> availabilityMap.indexOf(name))
+                .orElse(-1);
 
-        final List<I> itemEntities = updatedItemEntities.stream()
-                .map(updatedItemEntity -> {
-                    final I sessionEntity = readEntity(updatedItemEntity.getName());
-                    updateEntity(sessionEntity, updatedItemEntity);
-                    return sessionEntity;
-                })
-                .toList();
+        if (index < 0) {
+            return Optional.empty();
+        }
 
-        itemRepository.saveAll(itemEntities);
+        final I itemEntity = mongoTemplate.findAndModify(
+                Query.query(Criteria.where(ID_FIELD).is(itemName)),
+                newUpdate().bitwise(availabilityField + "." + AvailabilityMap.BITS_FIELD + "." + AvailabilityMap.wordIndex(index)).or(AvailabilityMap.wordMask(index)),
+                FindAndModifyOptions.options().returnNew(true),
+                entityClass
+        );
+
+        if (itemEntity == null) {
+            return Optional.empty();
+        }
+
+        stateCache.put(itemName, toDocument(itemEntity));
+
+        return Optional.of(itemMapper.toItem(itemEntity));
     }
 
+    /**
+     * Flags all the products available in the given map with a single {@code $bit} update, so that products flagged meanwhile by events are kept.
+     *
+     * @return The item with its availability as stored, empty if it no longer exists
+     */
+    protected Optional<S> mergeAvailability(String itemName, String availabilityField, AvailabilityMap availabilityMap) {
+
+        final Update update = newUpdate();
+        final long[] bits = availabilityMap.getBits();
+        for (int word = 0; word < bits.length; word++) {
+            if (bits[word] != 0) {
+                update.bitwise(availabilityField + "." + AvailabilityMap.BITS_FIELD + "." + word).or(bits[word]);
+            }
+        }
+
+        final I itemEntity = mongoTemplate.findAndModify(
+                Query.query(Criteria.where(ID_FIELD).is(itemName)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                entityClass
+        );
+
+        if (itemEntity == null) {
+            return Optional.empty();
+        }
+
+        stateCache.put(itemName, toDocument(itemEntity));
+
+        return Optional.of(itemMapper.toItem(itemEntity));
+    }
 
     protected I readEntity(String itemName) {
         return itemRepository.findById(itemName)
                 .orElseThrow(() -> new MongoDBException("Item not found: " + itemName));
     }
 
-    protected List<S> toItems(List<I> itemEntityList) {
-        return itemEntityList.stream()
-                .map(itemMapper::toItem)
-                .toList();
+    /**
+     * Streams the matching items from a cursor, so that only a page of items is held at once.
+     *
+     * @param criteria       Items to browse
+     * @param excludedFields Names of the fields left out of the items
+     * @param pageSize       Maximum number of items per page, also used as cursor batch size
+     * @param pageConsumer   Handles each page
+     */
+    protected void forEachPage(Criteria criteria, List<String> excludedFields, int pageSize, Consumer<List<S>> pageConsumer) {
+
+        final Query query = Query.query(criteria).cursorBatchSize(pageSize);
+        excludedFields.forEach(field -> query.fields().exclude(field));
+
+        int itemCount = 0;
+
+        try (CloseableIterator<I> iterator = mongoTemplate.stream(query, entityClass)) {
+
+            List<S> page = new ArrayList<>(pageSize);
+
+            while (iterator.hasNext()) {
+
+                page.add(itemMapper.toItem(iterator.next()));
+
+                if (page.size() == pageSize) {
+                    pageConsumer.accept(page);
+                    itemCount += page.size();
+                    page = new ArrayList<>(pageSize);
+                }
+            }
+
+            if (!page.isEmpty()) {
+                pageConsumer.accept(page);
+                itemCount += page.size();
+            }
+        }
+
+        log.debug(RETRIEVING_MULTIPLE_ITEMS, itemCount);
+    }
+
+    protected Criteria statusCriteria(boolean ready, boolean jobOrderCreated) {
+        // The type key holds the entity class name, telling apart the items of each PW in the shared collection
+        return Criteria.where(TYPE_FIELD).is(entityClass.getName())
+                .and(READY_FIELD).is(ready)
+                .and(JOB_ORDER_CREATED_FIELD).is(jobOrderCreated);
+    }
+
+    protected Criteria waitingForAuxCriteria() {
+        // Once its inputs are complete, an item that is not ready yet is only waiting for AUX
+        final Criteria criteria = statusCriteria(false, false);
+        getInputCompleteField().ifPresent(field -> criteria.and(field).is(true));
+        return criteria;
+    }
+
+    protected static Update newUpdate() {
+        // Partial updates bypass auditing and versioning, so both are handled here
+        return new Update()
+                .set(LAST_MODIFIED_DATE_FIELD, Instant.now())
+                .inc(VERSION_FIELD, 1);
+    }
+
+    protected Document toDocument(I itemEntity) {
+        final Document document = new Document();
+        mongoTemplate.getConverter().write(itemEntity, document);
+        return document;
+    }
+
+    protected S toItem(Document document) {
+        return itemMapper.toItem(mongoTemplate.getConverter().read(entityClass, document));
     }
 
 }
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.pw.service;
+
+import lombok.Getter;
+import org.bson.Document;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-memory state of the items of a PW, as stored in Mongo, with the field changes not written yet.
+ * <p>
+ * Each item is guarded by one of a fixed set of locks picked by name, so that changes to different items never wait for each other while the
+ * state and pending changes of an item are always modified together.
+ * <p>
+ * Other replicas write the same items, so a state is only served for a limited time after being read from Mongo, and a change is dropped when the
+ * state read again shows that another writer changed the same field since it was recorded. Changes also keep the version of the item they were
+ * recorded against, so that they are only written over that version.
+ */
+public class PWItemStateCache {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final Map<String, Changes> pendingChanges = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    public PWItemStateCache(Duration ttl) {
+        this(ttl, System::currentTimeMillis);
+    }
+
+    PWItemStateCache(Duration ttl, LongSupplier clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return Whether the state of the item is known and recent enough to be served
+     */
+    public boolean contains(String name) {
+        return isFresh(states.get(name));
+    }
+
+    public Optional<Document> get(String name) {
+        return withLock(name, () -> Optional.ofNullable(states.get(name)).filter(this::isFresh).map(state -> new Document(state.document)));
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    public int pendingSize() {
+        return pendingChanges.size();
+    }
+
+    /**
+     * Replaces the state of an item with the one read from Mongo, keeping the changes not written yet on top of it.
+     * <p>
+     * A change whose field no longer holds the value it was recorded against was overwritten by another writer, so it is dropped and the value
+     * read wins.
+     */
+    public void put(String name, Document state) {
+        withLock(name, () -> {
+
+            final Document merged = new Document(state);
+
+            Optional.ofNullable(pendingChanges.get(name)).ifPresent(changes -> {
+                changes.values.keySet().removeIf(field -> {
+                    final boolean overwritten = !Objects.equals(changes.bases.get(field), state.get(field));
+                    if (overwritten) {
+                        changes.bases.remove(field);
+                    }
+                    return overwritten;
+                });
+                if (changes.values.isEmpty()) {
+                    pendingChanges.remove(name);
+                } else {
+                    // The remaining changes still apply on top of the version read
+                    changes.version = state.get(PWItemService.VERSION_FIELD);
+                    merged.putAll(changes.values);
+                }
+            });
+
+            states.put(name, new State(merged, clock.getAsLong()));
+            return null;
+        });
+    }
+
+    /**
+     * Records the new state of an item, and the given fields whose value differs from the known state as changes to write.
+     * <p>
+     * Successive changes of the same field are coalesced, only the last value is written.
+     *
+     * @return Whether any field changed
+     */
+    public boolean stage(String name, Document state, Collection<String> fields) {
+        return withLock(name, () -> {
+
+            final State known = states.get(name);
+            final Document knownDocument = known != null ? known.document : new Document();
+
+            final Changes changes = new Changes();
+            fields.stream()
+                    .filter(field -> !Objects.equals(knownDocument.get(field), state.get(field)))
+                    .forEach(field -> {
+                        changes.values.put(field, state.get(field));
+                        changes.bases.put(field, knownDocument.get(field));
+                    });
+
+            changes.version = knownDocument.get(PWItemService.VERSION_FIELD);
+
+            // Only the given fields change, the others and the version stay as last read from Mongo, and so does the state age
+            final Document staged = new Document(known != null ? knownDocument : state);
+            fields.forEach(field -> staged.put(field, state.get(field)));
+            states.put(name, new State(staged, known != null ? known.loadTime : clock.getAsLong()));
+
+            if (changes.values.isEmpty()) {
+                return false;
+            }
+
+            pendingChanges.merge(name, changes, Changes::coalesce);
+
+            return true;
+        });
+    }
+
+    /**
+     * Removes and returns the changes of all items, to be written.
+     */
+    public Map<String, Changes> drain() {
+        return drain(pendingChanges.keySet());
+    }
+
+    /**
+     * Removes and returns the changes of the given items, to be written.
+     */
+    public Map<String, Changes> drain(Collection<String> names) {
+
+        final Map<String, Changes> drained = new LinkedHashMap<>();
+
+        names.forEach(name -> withLock(name, () -> {
+            Optional.ofNullable(pendingChanges.remove(name)).ifPresent(changes -> drained.put(name, changes));
+            return null;
+        }));
+
+        return drained;
+    }
+
+    /**
+     * Records that changes were written, each write raising the version of its item by one, so that the known state and the changes recorded
+     * meanwhile follow the stored version.
+     */
+    public void confirm(Map<String, Changes> changesByName) {
+        changesByName.forEach((name, changes) -> withLock(name, () -> {
+
+            if (!(changes.version instanceof Integer version)) {
+                return null;
+            }
+
+            Optional.ofNullable(states.get(name))
+                    .filter(state -> version.equals(state.document.get(PWItemService.VERSION_FIELD)))
+                    .ifPresent(state -> state.document.put(PWItemService.VERSION_FIELD, version + 1));
+
+            Optional.ofNullable(pendingChanges.get(name))
+                    .filter(pending -> version.equals(pending.version))
+                    .ifPresent(pending -> pending.version = version + 1);
+
+            return null;
+        }));
+    }
+
+    /**
+     * Puts back changes that could not be written, unless the same fields were changed again in the meantime.
+     */
+    public void restore(Map<String, Changes> changesByName) {
+        changesByName.forEach((name, changes) -> withLock(name, () -> {
+            pendingChanges.merge(name, changes.copy(), (current, restored) -> restored.coalesce(current));
+            return null;
+        }));
+    }
+
+    /**
+     * Forgets the states that are no longer served, their changes not written yet are kept.
+     *
+     * @return Number of states forgotten
+     */
+    public int purgeExpired() {
+
+        int purged = 0;
+
+        for (String name : states.keySet()) {
+            final boolean removed = withLock(name, () -> !isFresh(states.get(name)) && states.remove(name) != null);
+            if (removed) {
+                purged++;
+            }
+        }
+
+        return purged;
+    }
+
+    /**
+     * Forgets the state of items, their changes not written yet are kept.
+     */
+    public void evict(Collection<String> names) {
+        names.forEach(name -> withLock(name, () -> states.remove(name)));
+    }
+
+    /**
+     * Forgets the state and changes of items that are no longer handled by this PW.
+     */
+    public void remove(Collection<String> names) {
+        names.forEach(name -> withLock(name, () -> {
+            states.remove(name);
+            return pendingChanges.remove(name);
+        }));
+    }
+
+    private boolean isFresh(State state) {
+        return state != null && clock.getAsLong() - state.loadTime < ttlMillis;
+    }
+
+    private <T> T withLock(String name, Supplier<T> supplier) {
+        final ReentrantLock lock = locks[Math.floorMod(name.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class State {
+
+        private final Document document;
+        private final long loadTime;
+
+        private State(Document document, long loadTime) {
+            this.document = document;
+            this.loadTime = loadTime;
+        }
+
+    }
+
+    /**
+     * Field changes of an item, with the values and the item version they were recorded against.
+     */
+    @Getter
+    public static class Changes {
+
+        private final Document values = new Document();
+        private final Document bases = new Document();
+        private Object version;
+
+        private Changes coalesce(Changes next) {
+            values.putAll(next.values);
+            // The first recorded value of a field is the one stored in Mongo, and so is the first recorded version
+            next.bases.forEach(bases::putIfAbsent);
+            if (version == null) {
+                version = next.version;
+            }
+            return this;
+        }
+
+        private Changes copy() {
+            return new Changes().coalesce(this);
+        }
+
+    }
+
+}
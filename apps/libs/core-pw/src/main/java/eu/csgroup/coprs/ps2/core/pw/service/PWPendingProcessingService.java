@@ -18,12 +18,17 @@ package eu.csgroup.coprs.ps2.core.pw.service;
 
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 @Slf4j
@@ -31,6 +36,11 @@ import java.util.function.Supplier;
 @ConditionalOnBean(PWItemService.class)
 public class PWPendingProcessingService {
 
+    private static final String READY_GAUGE_NAME = "rs.pw.items.ready";
+    private static final String WAITING_AUX_GAUGE_NAME = "rs.pw.items.waiting.aux";
+    private static final String WAITING_INPUT_GAUGE_NAME = "rs.pw.items.waiting.input";
+    private static final String OLDEST_PENDING_AGE_GAUGE_NAME = "rs.pw.items.pending.oldest.age";
+
     @Value("${pending.gaugeName}")
     private String gaugeName;
 
@@ -56,16 +66,45 @@ public class PWPendingProcessingService {
 
         log.info("Setting up metric: Pending processing Gauge - Mission: {} - Level: {} - Addon: {}", mission, level, addon);
 
+        // Gauges are evaluated on each scrape, so they only rely on count queries and never load the items
+        final Tags tags = Tags.of("mission", mission, "level", level, "addonName", addon);
+
         Gauge.builder(gaugeName, fetchPendingSessions())
-                .tag("mission", mission)
-                .tag("level", level)
-                .tag("addonName", addon)
+                .tags(tags)
                 .description("Show the number of pending processing entries")
                 .register(registry);
+
+        Gauge.builder(READY_GAUGE_NAME, () -> itemService.count(true, false))
+                .tags(tags)
+                .description("Show the number of entries ready for job generation")
+                .register(registry);
+
+        Gauge.builder(WAITING_AUX_GAUGE_NAME, itemService::countWaitingForAux)
+                .tags(tags)
+                .description("Show the number of pending processing entries with all their inputs, waiting for AUX")
+                .register(registry);
+
+        if (itemService.getInputCompleteField().isPresent()) {
+            Gauge.builder(WAITING_INPUT_GAUGE_NAME, itemService::countWaitingForInput)
+                    .tags(tags)
+                    .description("Show the number of pending processing entries waiting for their inputs")
+                    .register(registry);
+        }
+
+        TimeGauge.builder(OLDEST_PENDING_AGE_GAUGE_NAME, fetchOldestPendingAge(), TimeUnit.SECONDS)
+                .tags(tags)
+                .description("Show the age of the oldest pending processing entry")
+                .register(registry);
     }
 
     private Supplier<Number> fetchPendingSessions() {
-        return () -> itemService.readAll(false, false).size();
+        return () -> itemService.count(false, false);
+    }
+
+    private Supplier<Number> fetchOldestPendingAge() {
+        return () -> itemService.readOldestCreatedDate(false, false)
+                .map(createdDate -> Duration.between(createdDate, Instant.now()).toSeconds())
+                .orElse(0L);
     }
 
 }
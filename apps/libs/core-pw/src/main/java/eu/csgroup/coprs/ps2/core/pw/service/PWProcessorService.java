@@ -16,17 +16,25 @@
 
 package eu.csgroup.coprs.ps2.core.pw.service;
 
+import eu.csgroup.coprs.ps2.core.common.exception.ProcessingException;
 import eu.csgroup.coprs.ps2.core.common.model.ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
 import eu.csgroup.coprs.ps2.core.common.model.trace.TaskReport;
 import eu.csgroup.coprs.ps2.core.common.model.trace.task.ReportTask;
 import eu.csgroup.coprs.ps2.core.common.service.processor.ProcessorService;
+import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItem;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItemEntity;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.util.CollectionUtils;
+import org.springframework.cloud.stream.function.StreamBridge;
 
-import java.util.HashSet;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,78 +43,169 @@ import java.util.stream.IntStream;
 @Slf4j
 public abstract class PWProcessorService<T extends ExecutionInput, S extends PWItem, I extends PWItemEntity, V extends PWItemService<S, I>> extends ProcessorService {
 
+    // The process-out-0 function binding is renamed in every application.yaml, StreamBridge must use the renamed one
+    public static final String OUTPUT_BINDING = "output";
+
     protected final PWInputManagementService inputManagementService;
     protected final PWItemManagementService<S, I, V> itemManagementService;
     protected final PWExecutionInputService<T, S> executionInputService;
     protected final PWMessageService<T> messageService;
+    protected final PWBackpressureService backpressureService;
+    protected final StreamBridge streamBridge;
+    protected final PWProperties pwProperties;
+
+    private final PWReconciler reconciler;
 
     protected PWProcessorService(PWInputManagementService inputManagementService, PWItemManagementService<S, I, V> itemManagementService,
-            PWExecutionInputService<T, S> executionInputService, PWMessageService<T> messageService
+            PWExecutionInputService<T, S> executionInputService, PWMessageService<T> messageService, PWBackpressureService backpressureService,
+            StreamBridge streamBridge, PWProperties pwProperties
     ) {
         this.inputManagementService = inputManagementService;
         this.itemManagementService = itemManagementService;
         this.executionInputService = executionInputService;
         this.messageService = messageService;
+        this.backpressureService = backpressureService;
+        this.streamBridge = streamBridge;
+        this.pwProperties = pwProperties;
+        this.reconciler = new PWReconciler("pw-reconciler", this::manageItems, pwProperties.getReadinessDebounce());
+    }
+
+    @PostConstruct
+    public void startReconciler() {
+        // Items claimed before a restart under the same owner do not need to wait for their lease to expire
+        itemManagementService.releaseLeases(pwProperties.getLeaseOwner());
+        reconciler.start(pwProperties.getReadinessPeriod());
+    }
+
+    @PreDestroy
+    public void stopReconciler() {
+        reconciler.stop();
+        itemManagementService.flush();
+        itemManagementService.releaseLeases(pwProperties.getLeaseOwner());
     }
 
     @Override
     protected Set<ProcessingMessage> processMessage(ProcessingMessage processingMessage) {
-        cleanup();
+
         inputManagementService.manageInput(processingMessage);
-        return manageItems();
+
+        // Items are managed by the reconciler, job messages are published from there
+        reconciler.trigger();
+
+        return Collections.emptySet();
     }
 
-    protected void cleanup() {
+    protected void manageItems() {
 
-        log.info("Cleaning up items ...");
+        log.info("Managing items ...");
 
-        itemManagementService.cleanup();
+        // Readiness is computed from Mongo, so it must include the changes recorded since the last pass
+        itemManagementService.flush();
 
-        log.info("Finished cleaning up items ...");
-    }
+        try {
+            itemManagementService.reconcile();
+            itemManagementService.updateAvailableAux(pwProperties.getBacklogPageSize());
+            itemManagementService.updateNotReady(pwProperties.getBacklogPageSize());
+        } catch (MongoDBException e) {
+            // Other replicas update the same items, the ones left over are handled by the next pass
+            log.warn("Failed to update all items: {}", e.getMessage());
+        }
 
-    protected Set<ProcessingMessage> manageItems() {
+        // Ready items left over stay in Mongo, so retries and priority changes still apply when credit is available again
+        final int credits = backpressureService.availableCredits();
+        if (credits == 0) {
+            log.info("Downstream consumers are lagging, leaving ready items to a later pass");
+            return;
+        }
 
-        Set<ProcessingMessage> outputMessageSet = new HashSet<>();
+        log.info("Claiming ready items ...");
 
-        log.info("Managing items ...");
+        final String owner = pwProperties.getLeaseOwner();
+        final Duration leaseDuration = Duration.ofSeconds(pwProperties.getLeaseDuration());
 
-        itemManagementService.updateAvailableAux();
-        itemManagementService.updateNotReady();
+        // Limiting the jobs of a pass keeps the downstream queues short, the items closest to their deadline being handled first
+        final int maxJobs = Math.min(credits, pwProperties.getMaxJobsPerPass() > 0 ? pwProperties.getMaxJobsPerPass() : Integer.MAX_VALUE);
+        int jobCount = 0;
 
-        log.info("Fetching ready items ...");
+        // Handled items are flagged, so the next page starts with the remaining ones
+        List<S> readyItems;
+        while (jobCount < maxJobs
+                && !(readyItems = itemManagementService.claimReady(owner, leaseDuration, Math.min(pwProperties.getReadyPageSize(), maxJobs - jobCount))).isEmpty()
+        ) {
 
-        final List<S> readyItems = itemManagementService.getReady();
+            log.info("Claimed {} ready items", readyItems.size());
 
-        log.info("Found {} ready items", readyItems.size());
+            jobCount += readyItems.size();
+            logLateItems(readyItems);
 
-        if (!CollectionUtils.isEmpty(readyItems)) {
+            try {
+                publish(generateJobs(readyItems));
+                // Flagged only once published, so that items whose messages were not sent are claimed again by a later pass
+                itemManagementService.setJobOrderCreated(readyItems, owner);
+            } catch (RuntimeException e) {
+                // Lets any replica claim the items again without waiting for the lease to expire
+                itemManagementService.releaseLeases(owner);
+                throw e;
+            }
+        }
+
+        if (jobCount >= maxJobs) {
+            log.info("Reached the limit of {} jobs for this pass, remaining ready items are left to the next one", maxJobs);
+        }
+
+        log.info("Finished managing items");
+    }
+
+    protected Set<ProcessingMessage> generateJobs(List<S> readyItems) {
 
-            List<TaskReport> taskReportList = readyItems.stream()
-                    .map(item -> {
-                        TaskReport taskReport = new TaskReport()
-                                .setTaskName(ReportTask.JOB_GENERATOR.getName())
-                                .setSatellite(item.getSatelliteName());
-                        taskReport.begin("Start Job Generation");
-                        return taskReport;
-                    })
-                    .toList();
+        List<TaskReport> taskReportList = readyItems.stream()
+                .map(item -> {
+                    TaskReport taskReport = new TaskReport()
+                            .setTaskName(ReportTask.JOB_GENERATOR.getName())
+                            .setSatellite(item.getSatelliteName());
+                    taskReport.begin("Start Job Generation");
+                    return taskReport;
+                })
+                .toList();
 
-            List<T> executionInputList = executionInputService.create(readyItems);
+        List<T> executionInputList = executionInputService.create(readyItems);
 
-            IntStream.range(0, executionInputList.size())
-                    .forEach(value -> taskReportList.get(value).end("End Job Generation"));
+        IntStream.range(0, executionInputList.size())
+                .forEach(value -> taskReportList.get(value).end("End Job Generation"));
 
-            if (executionInputList.size() != readyItems.size()) {
-                IntStream.range(executionInputList.size(), readyItems.size())
-                        .forEach(value -> taskReportList.get(value).end("End Job Generation", Map.of("processing_conditions_not_met_string", noProcessingMessage())));
+        if (executionInputList.size() != readyItems.size()) {
+            IntStream.range(executionInputList.size(), readyItems.size())
+                    .forEach(value -> taskReportList.get(value).end("End Job Generation", Map.of("processing_conditions_not_met_string", noProcessingMessage())));
+        }
+
+        return messageService.build(executionInputList);
+    }
+
+    protected void publish(Set<ProcessingMessage> outputMessageSet) {
+        // Messages already sent when one fails are sent again with the next claim, the EW ledger (ps2.ledger) recognizes them
+        outputMessageSet.forEach(outputMessage -> {
+            if (!streamBridge.send(OUTPUT_BINDING, ProcessingMessageUtils.toMessage(outputMessage))) {
+                throw new ProcessingException("Failed to publish message " + outputMessage.getUid());
             }
+        });
+    }
+
+    private void logLateItems(List<S> readyItems) {
 
-            outputMessageSet = messageService.build(executionInputList);
-            itemManagementService.setJobOrderCreated(readyItems);
+        if (pwProperties.getTimeliness() <= 0) {
+            return;
         }
 
-        return outputMessageSet;
+        final Instant now = Instant.now();
+
+        readyItems.stream()
+                .filter(item -> item.getT0PdgsDate() != null)
+                .forEach(item -> {
+                    final Duration slack = Duration.between(now, item.getT0PdgsDate().plusSeconds(pwProperties.getTimeliness()));
+                    if (slack.isNegative()) {
+                        log.warn("Item {} is {}s late on its timeliness", item.getName(), slack.negated().toSeconds());
+                    }
+                });
     }
 
     protected String noProcessingMessage() {
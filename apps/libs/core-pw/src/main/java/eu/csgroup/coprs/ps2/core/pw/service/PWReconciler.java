@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.pw.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a readiness pass on a dedicated thread, away from message handling.
+ * <p>
+ * Triggers received while a pass is already pending are coalesced into it, and a pass is only started once the debounce delay has elapsed, so that
+ * a burst of inputs leads to a single pass. Passes also run periodically to catch up with changes not carried by any input, like new AUX files.
+ */
+@Slf4j
+public class PWReconciler {
+
+    private final Runnable pass;
+    private final long debounce;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+
+    public PWReconciler(String name, Runnable pass, long debounce) {
+        this.pass = pass;
+        this.debounce = debounce;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(long period) {
+        log.info("Starting readiness reconciler with a {}s period", period);
+        executor.scheduleWithFixedDelay(this::trigger, period, period, TimeUnit.SECONDS);
+    }
+
+    public void trigger() {
+        // A trigger received during a pass schedules the next one, since the running pass may have missed its input
+        if (pending.compareAndSet(false, true)) {
+            executor.schedule(this::run, debounce, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void stop() {
+
+        log.info("Stopping readiness reconciler");
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void run() {
+
+        pending.set(false);
+
+        try {
+            pass.run();
+        } catch (Exception e) {
+            // Items are left untouched and will be handled by the next pass
+            log.error("Readiness pass failed", e);
+        }
+    }
+
+}
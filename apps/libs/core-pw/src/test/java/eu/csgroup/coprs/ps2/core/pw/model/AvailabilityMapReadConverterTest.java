@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.pw.model;
+
+import eu.csgroup.coprs.ps2.core.pw.model.helper.ItemEntity;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityMapReadConverterTest {
+
+    private final AvailabilityMapReadConverter converter = new AvailabilityMapReadConverter();
+
+    @Test
+    void convert() {
+        // Given
+        final Document source = new Document(AvailabilityMap.NAMES_FIELD, List.of("foo", "bar")).append(AvailabilityMap.BITS_FIELD, List.of(2L));
+        // When
+        final AvailabilityMap availabilityMap = converter.convert(source);
+        // Then
+        assertEquals(List.of("foo", "bar"), availabilityMap.getNames());
+        assertEquals(List.of("bar"), availabilityMap.availableNames());
+    }
+
+    @Test
+    void convert_namesOnly() {
+        // Given
+        final Document source = new Document(AvailabilityMap.NAMES_FIELD, List.of("foo", "bar"));
+        // When
+        final AvailabilityMap availabilityMap = converter.convert(source);
+        // Then
+        assertEquals(1, availabilityMap.indexOf("bar"));
+        assertEquals(0, availabilityMap.availableCount());
+    }
+
+    @Test
+    void convert_legacy() {
+        // Given
+        final Document source = new Document("foo#1", true).append("bar", false);
+        // When
+        final AvailabilityMap availabilityMap = converter.convert(source);
+        // Then
+        assertEquals(List.of("foo.1", "bar"), availabilityMap.getNames());
+        assertTrue(availabilityMap.isAvailable("foo.1"));
+        assertFalse(availabilityMap.isAvailable("bar"));
+    }
+
+    @Test
+    void read_legacyDocument() {
+        // Given
+        final MongoMappingContext mappingContext = new MongoMappingContext();
+        final MongoCustomConversions conversions = new MongoCustomConversions(List.of(converter));
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        final MappingMongoConverter mongoConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        mongoConverter.setCustomConversions(conversions);
+        mongoConverter.afterPropertiesSet();
+        final Document document = new Document("_id", "item")
+                .append("availableByAux", new Document("AUX_A", true).append("AUX_B", false))
+                .append("ready", false);
+        // When
+        final ItemEntity itemEntity = mongoConverter.read(ItemEntity.class, document);
+        // Then
+        assertEquals("item", itemEntity.getName());
+        assertEquals(List.of("AUX_B"), itemEntity.getAvailableByAux().missingNames());
+    }
+
+}
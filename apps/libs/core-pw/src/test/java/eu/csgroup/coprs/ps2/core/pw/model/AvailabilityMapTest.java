@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.pw.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityMapTest {
+
+    @Test
+    void of() {
+        // When
+        final AvailabilityMap availabilityMap = AvailabilityMap.of(List.of("foo", "bar"));
+        // Then
+        assertEquals(2, availabilityMap.size());
+        assertEquals(1, availabilityMap.getBits().length);
+        assertEquals(0, availabilityMap.availableCount());
+        assertFalse(availabilityMap.allAvailable());
+        assertEquals(List.of("foo", "bar"), availabilityMap.missingNames());
+    }
+
+    @Test
+    void setAvailable() {
+        // Given
+        final AvailabilityMap availabilityMap = AvailabilityMap.of(List.of("foo", "bar", "foobar"));
+        // When
+        availabilityMap.setAvailable("bar", true);
+        // Then
+        assertTrue(availabilityMap.isAvailable("bar"));
+        assertFalse(availabilityMap.isAvailable("foo"));
+        assertEquals(1, availabilityMap.availableCount());
+        assertEquals(List.of("bar"), availabilityMap.availableNames());
+        assertEquals(List.of("foo", "foobar"), availabilityMap.missingNames());
+    }
+
+    @Test
+    void setAvailable_unset() {
+        // Given
+        final AvailabilityMap availabilityMap = AvailabilityMap.of(List.of("foo")).setAvailable("foo", true);
+        // When
+        availabilityMap.setAvailable("foo", false);
+        // Then
+        assertEquals(0, availabilityMap.availableCount());
+    }
+
+    @Test
+    void setAvailable_unknown() {
+        // Given
+        final AvailabilityMap availabilityMap = AvailabilityMap.of(List.of("foo"));
+        // When Then
+        assertThrows(IllegalArgumentException.class, () -> availabilityMap.setAvailable("bar", true));
+    }
+
+    @Test
+    void allAvailable_multipleWords() {
+        // Given
+        final List<String> names = IntStream.range(0, 130).mapToObj(index -> "product_" + index).toList();
+        final AvailabilityMap availabilityMap = AvailabilityMap.of(names);
+        // When
+        names.forEach(name -> availabilityMap.setAvailable(name, true));
+        // Then
+        assertEquals(3, availabilityMap.getBits().length);
+        assertEquals(130, availabilityMap.availableCount());
+        assertTrue(availabilityMap.allAvailable());
+        assertTrue(availabilityMap.missingNames().isEmpty());
+        assertEquals(2, AvailabilityMap.wordIndex(129));
+        assertEquals(1L << 1, AvailabilityMap.wordMask(129));
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.csgroup.coprs.ps2.core.pw.service;
+
+import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PWBackpressureServiceTest extends AbstractTest {
+
+    private static final String TOPIC = "topic";
+    private static final String GROUP = "group";
+    private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+
+    @Mock
+    private Admin admin;
+    @Mock
+    private DescribeTopicsResult describeTopicsResult;
+    @Mock
+    private ListConsumerGroupOffsetsResult consumerGroupOffsetsResult;
+    @Mock
+    private ListOffsetsResult endOffsetsResult;
+    @Mock
+    private ListOffsetsResult startOffsetsResult;
+
+    private PWProperties pwProperties;
+    private PWBackpressureService backpressureService;
+
+    @Override
+    public void setup() throws Exception {
+        pwProperties = new PWProperties();
+        pwProperties.setBackpressureTopic(TOPIC);
+        pwProperties.setBackpressureGroup(GROUP);
+        pwProperties.setMaxDownstreamLag(100);
+        backpressureService = new PWBackpressureService(pwProperties, new KafkaProperties());
+        ReflectionTestUtils.setField(backpressureService, "admin", admin);
+    }
+
+    @Override
+    public void teardown() throws Exception {
+        //
+    }
+
+    @Test
+    void availableCredits() {
+        // Given
+        mockLag();
+        // When
+        final int credits = backpressureService.availableCredits();
+        // Then
+        assertEquals(20, credits);
+    }
+
+    @Test
+    void availableCredits_lagging() {
+        // Given
+        pwProperties.setMaxDownstreamLag(50);
+        mockLag();
+        // When
+        final int credits = backpressureService.availableCredits();
+        // Then
+        assertEquals(0, credits);
+    }
+
+    @Test
+    void availableCredits_disabled() {
+        // Given
+        pwProperties.setMaxDownstreamLag(0);
+        // When
+        final int credits = backpressureService.availableCredits();
+        // Then
+        assertEquals(Integer.MAX_VALUE, credits);
+        verifyNoInteractions(admin);
+    }
+
+    @Test
+    void availableCredits_failure() {
+        // Given
+        final KafkaFutureImpl<Map<String, TopicDescription>> future = new KafkaFutureImpl<>();
+        future.completeExceptionally(new IllegalStateException("unreachable"));
+        when(admin.describeTopics(List.of(TOPIC))).thenReturn(describeTopicsResult);
+        when(describeTopicsResult.allTopicNames()).thenReturn(future);
+        // When
+        final int credits = backpressureService.availableCredits();
+        // Then
+        assertEquals(Integer.MAX_VALUE, credits);
+    }
+
+    private void mockLag() {
+
+        // Partition 0 is 60 messages behind, partition 1 was never consumed and holds 20 messages
+        final TopicDescription topicDescription = new TopicDescription(TOPIC, false, List.of(
+                new TopicPartitionInfo(0, null, List.of(), List.of()),
+                new TopicPartitionInfo(1, null, List.of(), List.of())
+        ));
+        when(admin.describeTopics(List.of(TOPIC))).thenReturn(describeTopicsResult);
+        when(describeTopicsResult.allTopicNames()).thenReturn(KafkaFuture.completedFuture(Map.of(TOPIC, topicDescription)));
+
+        when(admin.listConsumerGroupOffsets(GROUP)).thenReturn(consumerGroupOffsetsResult);
+        when(consumerGroupOffsetsResult.partitionsToOffsetAndMetadata())
+                .thenReturn(KafkaFuture.completedFuture(Map.of(PARTITION_0, new OffsetAndMetadata(40))));
+
+        when(admin.listOffsets(anyMap())).thenReturn(endOffsetsResult, startOffsetsResult);
+        when(endOffsetsResult.all()).thenReturn(KafkaFuture.completedFuture(Map.of(
+                PARTITION_0, new ListOffsetsResultInfo(100, 0, Optional.empty()),
+                PARTITION_1, new ListOffsetsResultInfo(30, 0, Optional.empty())
+        )));
+        when(startOffsetsResult.all()).thenReturn(KafkaFuture.completedFuture(Map.of(
+                PARTITION_1, new ListOffsetsResultInfo(10, 0, Optional.empty())
+        )));
+    }
+
+}
@@ -20,7 +20,7 @@ import eu.csgroup.coprs.ps2.core.common.model.aux.AuxProductType;
 import eu.csgroup.coprs.ps2.core.common.model.catalog.AuxCatalogData;
 import eu.csgroup.coprs.ps2.core.common.service.catalog.CatalogService;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
-import eu.csgroup.coprs.ps2.core.pw.model.PWItem;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.model.helper.Item;
 import eu.csgroup.coprs.ps2.core.pw.model.helper.ItemEntity;
 import org.junit.jupiter.api.Test;
@@ -32,9 +32,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -51,8 +49,6 @@ class PWItemManagementServiceTest extends AbstractTest {
     private Item item1;
     private Item item2;
 
-    @Captor
-    private ArgumentCaptor<Set<String>> setArgumentCaptor;
     @Captor
     private ArgumentCaptor<List<Item>> itemArgumentCaptor;
 
@@ -65,15 +61,14 @@ class PWItemManagementServiceTest extends AbstractTest {
         item1.setCreatedDate(Instant.now().minus(2, ChronoUnit.DAYS));
         item2.setCreatedDate(Instant.now().minus(2, ChronoUnit.HOURS));
 
-        final HashMap<String, Boolean> availableByAux1 = new HashMap<>();
-        availableByAux1.put(AuxProductType.GIP_ATMIMA.name(), false);
-        availableByAux1.put(AuxProductType.GIP_VIEDIR.name(), false);
-        availableByAux1.put(AuxProductType.GIP_CLOINV.name(), true);
+        final AvailabilityMap availableByAux1 = AvailabilityMap.of(
+                List.of(AuxProductType.GIP_ATMIMA.name(), AuxProductType.GIP_VIEDIR.name(), AuxProductType.GIP_CLOINV.name())
+        ).setAvailable(AuxProductType.GIP_CLOINV.name(), true);
         item1.setAvailableByAux(availableByAux1);
         item1.setLastModifiedDate(Instant.now().minus(2, ChronoUnit.MINUTES));
 
-        final HashMap<String, Boolean> availableByAux2 = new HashMap<>();
-        availableByAux2.put(AuxProductType.GIP_CLOINV.name(), true);
+        final AvailabilityMap availableByAux2 = AvailabilityMap.of(List.of(AuxProductType.GIP_CLOINV.name()))
+                .setAvailable(AuxProductType.GIP_CLOINV.name(), true);
         item2.setAvailableByAux(availableByAux2);
         item2.setLastModifiedDate(Instant.now().minus(2, ChronoUnit.MINUTES));
 
@@ -89,27 +84,6 @@ class PWItemManagementServiceTest extends AbstractTest {
         //
     }
 
-    @Test
-    void cleanup_test() {
-        // Given
-        when(itemService.readAllByJobOrderCreated(true)).thenReturn(itemList);
-        doNothing().when(itemService).deleteAll(setArgumentCaptor.capture());
-        // When
-        itemManagementService.cleanup();
-        // Then
-        assertEquals(itemList.stream().map(PWItem::getName).collect(Collectors.toSet()), setArgumentCaptor.getValue());
-    }
-
-    @Test
-    void cleanup_test_empty() {
-        // Given
-        when(itemManagementService.getDeletable()).thenReturn(Collections.emptyList());
-        // When
-        itemManagementService.cleanup();
-        // Then
-        verify(itemService, never()).deleteAll(any());
-    }
-
     @Test
     void testUpdateAvailableAux() {
         // Given
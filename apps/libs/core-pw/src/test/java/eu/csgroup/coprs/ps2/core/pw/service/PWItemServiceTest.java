@@ -16,23 +16,43 @@
 
 package eu.csgroup.coprs.ps2.core.pw.service;
 
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItemMapper;
 import eu.csgroup.coprs.ps2.core.pw.model.helper.Item;
 import eu.csgroup.coprs.ps2.core.pw.model.helper.ItemEntity;
 import eu.csgroup.coprs.ps2.core.pw.repository.PWItemRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class PWItemServiceTest extends AbstractTest {
@@ -43,6 +63,18 @@ class PWItemServiceTest extends AbstractTest {
     private PWItemRepository<ItemEntity> itemRepository;
     @Mock
     private PWItemMapper<Item, ItemEntity> itemMapper;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MongoConverter mongoConverter;
+    @Mock
+    private BulkOperations bulkOperations;
+    @Mock
+    private BulkWriteResult bulkWriteResult;
+    @Mock
+    private IndexOperations indexOperations;
+    @Mock
+    private CloseableIterator<ItemEntity> itemIterator;
 
     private PWItemService<Item, ItemEntity> itemService;
 
@@ -56,9 +88,12 @@ class PWItemServiceTest extends AbstractTest {
         itemService = mock(PWItemService.class, CALLS_REAL_METHODS);
         ReflectionTestUtils.setField(itemService, "itemRepository", itemRepository);
         ReflectionTestUtils.setField(itemService, "itemMapper", itemMapper);
+        ReflectionTestUtils.setField(itemService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(itemService, "entityClass", ItemEntity.class);
+        ReflectionTestUtils.setField(itemService, "stateCache", new PWItemStateCache(Duration.ofSeconds(60)));
 
         itemEntity = ((ItemEntity) new ItemEntity().setName(ITEM_NAME));
-        item = new Item(ITEM_NAME);
+        item = (Item) new Item(ITEM_NAME).setVersion(0);
     }
 
     @Override
@@ -66,6 +101,48 @@ class PWItemServiceTest extends AbstractTest {
 
     }
 
+    @Test
+    void ensureIndexes() {
+        // Given
+        doReturn(Optional.of("inputComplete")).when(itemService).getInputCompleteField();
+        when(mongoTemplate.indexOps(ItemEntity.class)).thenReturn(indexOperations);
+        // When
+        itemService.ensureIndexes();
+        // Then
+        verify(indexOperations, times(4)).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void ensureIndexes_noInput() {
+        // Given
+        when(mongoTemplate.indexOps(ItemEntity.class)).thenReturn(indexOperations);
+        // When
+        itemService.ensureIndexes();
+        // Then
+        verify(indexOperations, times(3)).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void migrateAvailability() {
+        // Given
+        mockStream(1);
+        doReturn(new Document(PWItemService.AVAILABLE_BY_AUX_FIELD, new Document(AvailabilityMap.NAMES_FIELD, List.of("AUX")))).when(itemService).toDocument(any());
+        // When
+        itemService.migrateAvailability();
+        // Then
+        verify(mongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(ItemEntity.class));
+    }
+
+    @Test
+    void migrateAvailability_none() {
+        // Given
+        mockStream(0);
+        // When
+        itemService.migrateAvailability();
+        // Then
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(ItemEntity.class));
+    }
+
     @Test
     void exists() {
         // Given
@@ -81,6 +158,7 @@ class PWItemServiceTest extends AbstractTest {
         // Given
         mockFind();
         mockMapper_Item();
+        doReturn(new Document()).when(itemService).toDocument(any());
         // When
         final Item read = itemService.read(ITEM_NAME);
         // Then
@@ -88,27 +166,121 @@ class PWItemServiceTest extends AbstractTest {
     }
 
     @Test
-    void readAllByJobOrderCreated() {
+    void read_known() {
         // Given
-        when(itemRepository.findAllByJobOrderCreated(anyBoolean())).thenReturn(List.of(itemEntity));
+        mockFind();
         mockMapper_Item();
+        doReturn(new Document()).when(itemService).toDocument(any());
+        doReturn(item).when(itemService).toItem(any(Document.class));
+        itemService.read(ITEM_NAME);
         // When
-        final List<Item> sessions = itemService.readAllByJobOrderCreated(false);
+        final Item read = itemService.read(ITEM_NAME);
         // Then
-        assertEquals(1, sessions.size());
-        assertEquals(ITEM_NAME, sessions.get(0).getName());
+        assertEquals(ITEM_NAME, read.getName());
+        verify(itemRepository).findById(ITEM_NAME);
     }
 
     @Test
-    void readAll() {
+    void claimReady() {
         // Given
-        when(itemRepository.findAllByReadyAndJobOrderCreated(anyBoolean(), anyBoolean())).thenReturn(List.of(itemEntity));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ItemEntity.class)))
+                .thenReturn(itemEntity, (ItemEntity) null);
         mockMapper_Item();
         // When
-        final List<Item> sessions = itemService.readAll(true, true);
+        final List<Item> claimed = itemService.claimReady("owner", Duration.ofSeconds(300), 10);
         // Then
-        assertEquals(1, sessions.size());
-        assertEquals(ITEM_NAME, sessions.get(0).getName());
+        assertEquals(1, claimed.size());
+        assertEquals(ITEM_NAME, claimed.get(0).getName());
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ItemEntity.class));
+    }
+
+    @Test
+    void claimReady_fullPage() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ItemEntity.class))).thenReturn(itemEntity);
+        mockMapper_Item();
+        // When
+        final List<Item> claimed = itemService.claimReady("owner", Duration.ofSeconds(300), 2);
+        // Then
+        assertEquals(2, claimed.size());
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ItemEntity.class));
+    }
+
+    @Test
+    void forEachPage() {
+        // Given
+        mockStream(3);
+        mockMapper_Item();
+        final List<Integer> pageSizes = new ArrayList<>();
+        // When
+        itemService.forEachPage(false, false, 2, page -> pageSizes.add(page.size()));
+        // Then
+        assertEquals(List.of(2, 1), pageSizes);
+        verify(itemIterator).close();
+    }
+
+    @Test
+    void forEachPage_empty() {
+        // Given
+        mockStream(0);
+        final List<Integer> pageSizes = new ArrayList<>();
+        // When
+        itemService.forEachWaitingForAux(2, page -> pageSizes.add(page.size()));
+        // Then
+        assertTrue(pageSizes.isEmpty());
+        verify(itemIterator).close();
+    }
+
+    @Test
+    void count() {
+        // Given
+        when(mongoTemplate.count(any(Query.class), eq(ItemEntity.class))).thenReturn(2L);
+        // When
+        final long count = itemService.count(false, false);
+        // Then
+        assertEquals(2L, count);
+    }
+
+    @Test
+    void countWaitingForInput() {
+        // Given
+        doReturn(Optional.of("inputComplete")).when(itemService).getInputCompleteField();
+        when(mongoTemplate.count(any(Query.class), eq(ItemEntity.class))).thenReturn(2L);
+        // When
+        final long count = itemService.countWaitingForInput();
+        // Then
+        assertEquals(2L, count);
+    }
+
+    @Test
+    void countWaitingForInput_noInput() {
+        // When
+        final long count = itemService.countWaitingForInput();
+        // Then
+        assertEquals(0L, count);
+        verify(mongoTemplate, never()).count(any(Query.class), eq(ItemEntity.class));
+    }
+
+    @Test
+    void countWaitingForAux() {
+        // Given
+        when(mongoTemplate.count(any(Query.class), eq(ItemEntity.class))).thenReturn(2L);
+        // When
+        final long count = itemService.countWaitingForAux();
+        // Then
+        assertEquals(2L, count);
+    }
+
+    @Test
+    void readOldestCreatedDate() {
+        // Given
+        final Instant createdDate = Instant.now();
+        itemEntity.setCreatedDate(createdDate);
+        when(mongoTemplate.findOne(any(Query.class), eq(ItemEntity.class))).thenReturn(itemEntity);
+        // When
+        final Optional<Instant> oldestCreatedDate = itemService.readOldestCreatedDate(false, false);
+        // Then
+        assertEquals(Optional.of(createdDate), oldestCreatedDate);
     }
 
     @Test
@@ -134,56 +306,227 @@ class PWItemServiceTest extends AbstractTest {
     @Test
     void update() {
         // Given
-        when(itemRepository.save(any())).
-                thenAnswer(invocation -> invocation.getArgument(0));
-        doAnswer(invocation -> ((ItemEntity) invocation.getArgument(0)).setReady(true))
-                .when(itemService).updateEntity(any(), any());
         mockFind();
-        mockMapper_Item();
         mockMapper_ItemEntity();
+        mockChange();
         // When
         final Item update = itemService.update(((Item) new Item(ITEM_NAME).setReady(true)));
         // Then
         assertNotNull(update);
+        verify(itemRepository, never()).save(any());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(ItemEntity.class));
     }
 
     @Test
-    void updateAll() {
+    void update_durable() {
         // Given
         mockFind();
-        when(itemRepository.saveAll(any())).thenReturn(null);
         mockMapper_ItemEntity();
+        mockChange();
+        doReturn(List.of(PWItemService.READY_FIELD)).when(itemService).getDurableFields();
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(ItemEntity.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getMatchedCount()).thenReturn(1);
         // When
-        itemService.updateAll(List.of(item));
+        itemService.update(((Item) new Item(ITEM_NAME).setReady(true)));
+        itemService.flush();
         // Then
-        verify(itemRepository).saveAll(any());
+        verify(bulkOperations).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations).execute();
     }
 
     @Test
-    void readEntity() {
+    void update_durable_concurrentModification() {
+        // Given
+        mockFind();
+        mockMapper_ItemEntity();
+        mockChange();
+        doReturn(List.of(PWItemService.READY_FIELD)).when(itemService).getDurableFields();
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(ItemEntity.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getMatchedCount()).thenReturn(0);
+        when(mongoTemplate.getCollectionName(ItemEntity.class)).thenReturn("PW_Item");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("PW_Item")))
+                .thenReturn(List.of(new Document("_id", ITEM_NAME).append(PWItemService.READY_FIELD, false)));
+        final Item updated = (Item) new Item(ITEM_NAME).setReady(true);
+        // When Then
+        assertThrows(MongoDBException.class, () -> itemService.update(updated));
+        verify(bulkOperations, times(3)).execute();
+    }
+
+    @Test
+    void flush() {
         // Given
         mockFind();
+        mockMapper_ItemEntity();
+        mockChange();
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(ItemEntity.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getMatchedCount()).thenReturn(1);
+        itemService.update(((Item) new Item(ITEM_NAME).setReady(true)));
+        itemService.update(((Item) new Item(ITEM_NAME).setReady(true)));
         // When
-        final ItemEntity itemEntity1 = itemService.readEntity(ITEM_NAME);
+        itemService.flush();
+        itemService.flush();
         // Then
-        assertEquals(ITEM_NAME, itemEntity1.getName());
+        verify(bulkOperations).updateOne(argThat((Query query) -> query.getQueryObject().containsKey(PWItemService.VERSION_FIELD)), any(Update.class));
+        verify(bulkOperations).execute();
     }
 
     @Test
-    void readEntity_fails() {
+    void flush_concurrentModification() {
+        // Given
+        mockFind();
+        mockMapper_ItemEntity();
+        mockChange();
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(ItemEntity.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getMatchedCount()).thenReturn(0);
+        when(mongoTemplate.getCollectionName(ItemEntity.class)).thenReturn("PW_Item");
+        // Another writer raised the version and changed the same field
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("PW_Item")))
+                .thenReturn(List.of(new Document("_id", ITEM_NAME).append(PWItemService.VERSION_FIELD, 1).append(PWItemService.READY_FIELD, "other")));
+        itemService.update(((Item) new Item(ITEM_NAME).setReady(true)));
+        // When
+        itemService.flush();
+        itemService.flush();
+        // Then
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void flush_concurrentModification_otherField() {
+        // Given
+        mockFind();
+        mockMapper_ItemEntity();
+        mockChange();
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(ItemEntity.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getMatchedCount()).thenReturn(0, 1);
+        when(mongoTemplate.getCollectionName(ItemEntity.class)).thenReturn("PW_Item");
+        // Another writer raised the version on another field
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("PW_Item")))
+                .thenReturn(List.of(new Document("_id", ITEM_NAME).append(PWItemService.VERSION_FIELD, 1).append(PWItemService.READY_FIELD, false)));
+        itemService.update(((Item) new Item(ITEM_NAME).setReady(true)));
+        // When
+        itemService.flush();
+        itemService.flush();
+        // Then
+        verify(bulkOperations).updateOne(argThat((Query query) -> Integer.valueOf(1).equals(query.getQueryObject().get(PWItemService.VERSION_FIELD))),
+                any(Update.class));
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    void flush_noChange() {
+        // Given
+        mockFind();
+        mockMapper_ItemEntity();
+        doReturn(List.of(PWItemService.READY_FIELD)).when(itemService).getUpdatableFields();
+        doReturn(new Document(PWItemService.READY_FIELD, false)).when(itemService).toDocument(any());
+        itemService.update(item);
+        // When
+        itemService.flush();
+        // Then
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(ItemEntity.class));
+    }
+
+    @Test
+    void flush_fails() {
+        // Given
+        mockFind();
+        mockMapper_ItemEntity();
+        mockChange();
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(ItemEntity.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("failure")).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getMatchedCount()).thenReturn(1);
+        itemService.update(((Item) new Item(ITEM_NAME).setReady(true)));
+        // When
+        assertThrows(IllegalStateException.class, () -> itemService.flush());
+        itemService.flush();
+        // Then
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    void updateAll() {
+        // Given
+        doReturn(List.of(PWItemService.READY_FIELD)).when(itemService).getUpdatableFields();
+        mockBulkUpdate(1);
+        mockMapper_ItemEntity();
+        // When
+        itemService.updateAll(List.of(item));
+        // Then
+        verify(bulkOperations).updateOne(any(Query.class), any(Update.class));
+        assertEquals(1, item.getVersion());
+    }
+
+    @Test
+    void updateAll_fields() {
+        // Given
+        mockBulkUpdate(1);
+        mockMapper_ItemEntity();
+        // When
+        itemService.updateAll(List.of(item), List.of(PWItemService.READY_FIELD));
+        // Then
+        verify(bulkOperations).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void updateAll_concurrentModification() {
+        // Given
+        mockBulkUpdate(0);
+        mockMapper_ItemEntity();
+        final List<Item> itemList = List.of(item);
+        final List<String> fields = List.of(PWItemService.READY_FIELD);
         // When Then
-        assertThrows(MongoDBException.class, () -> itemService.readEntity(ITEM_NAME));
+        assertThrows(MongoDBException.class, () -> itemService.updateAll(itemList, fields));
+        assertEquals(0, item.getVersion());
     }
 
     @Test
-    void toItems() {
+    void updateAll_empty() {
+        // When
+        itemService.updateAll(Collections.emptyList(), List.of(PWItemService.READY_FIELD));
+        // Then
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(ItemEntity.class));
+    }
+
+    @Test
+    void setJobOrderCreated() {
         // Given
-        mockMapper_Item();
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(ItemEntity.class))).thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+        // When
+        final long flagged = itemService.setJobOrderCreated(Set.of(ITEM_NAME), "owner");
+        // Then
+        assertEquals(1L, flagged);
+    }
+
+    @Test
+    void releaseLeases() {
+        // Given
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(ItemEntity.class))).thenReturn(UpdateResult.acknowledged(1L, 1L, null));
         // When
-        final List<Item> items = itemService.toItems(List.of(itemEntity));
+        itemService.releaseLeases("owner");
         // Then
-        assertEquals(1, items.size());
-        assertEquals(ITEM_NAME, items.get(0).getName());
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(ItemEntity.class));
+    }
+
+    @Test
+    void readEntity() {
+        // Given
+        mockFind();
+        // When
+        final ItemEntity itemEntity1 = itemService.readEntity(ITEM_NAME);
+        // Then
+        assertEquals(ITEM_NAME, itemEntity1.getName());
+    }
+
+    @Test
+    void readEntity_fails() {
+        // When Then
+        assertThrows(MongoDBException.class, () -> itemService.readEntity(ITEM_NAME));
     }
 
     private void mockExists(boolean exists) {
@@ -198,6 +541,29 @@ class PWItemServiceTest extends AbstractTest {
         when(itemMapper.toItem(any())).thenReturn(item);
     }
 
+    private void mockBulkUpdate(int matchedCount) {
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(ItemEntity.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getMatchedCount()).thenReturn(matchedCount);
+    }
+
+    private void mockChange() {
+        doReturn(List.of(PWItemService.READY_FIELD)).when(itemService).getUpdatableFields();
+        doReturn(new Document(PWItemService.READY_FIELD, false), new Document(PWItemService.READY_FIELD, true)).when(itemService).toDocument(any());
+    }
+
+    private void mockStream(int itemCount) {
+        final Boolean[] hasNext = new Boolean[itemCount + 1];
+        Arrays.fill(hasNext, true);
+        hasNext[itemCount] = false;
+        when(itemIterator.hasNext()).thenReturn(hasNext[0], Arrays.copyOfRange(hasNext, 1, hasNext.length));
+        if (itemCount > 0) {
+            when(itemIterator.next()).thenReturn(itemEntity);
+        }
+        when(mongoTemplate.stream(any(Query.class), eq(ItemEntity.class))).thenReturn(itemIterator);
+    }
+
     private void mockMapper_ItemEntity() {
         when(itemMapper.toItemEntity(any())).thenReturn(itemEntity);
     }
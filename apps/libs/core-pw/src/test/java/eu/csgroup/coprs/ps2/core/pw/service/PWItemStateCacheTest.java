@@ -0,0 +1,206 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.pw.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PWItemStateCacheTest {
+
+    private static final String ITEM_NAME = "item";
+    private static final List<String> FIELDS = List.of("ready", "jobOrderCreated");
+
+    private final AtomicLong clock = new AtomicLong();
+    private final PWItemStateCache stateCache = new PWItemStateCache(Duration.ofSeconds(60), clock::get);
+
+    @Test
+    void stage() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false).append("jobOrderCreated", false));
+        // When
+        final boolean changed = stateCache.stage(ITEM_NAME, new Document("ready", true).append("jobOrderCreated", false), FIELDS);
+        // Then
+        assertTrue(changed);
+        assertEquals(Map.of(ITEM_NAME, new Document("ready", true)), drainValues());
+        assertEquals(0, stateCache.pendingSize());
+    }
+
+    @Test
+    void stage_noChange() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false));
+        // When
+        final boolean changed = stateCache.stage(ITEM_NAME, new Document("ready", false).append("other", 1), FIELDS);
+        // Then
+        assertFalse(changed);
+        assertTrue(stateCache.drain().isEmpty());
+    }
+
+    @Test
+    void stage_version() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false).append("version", 3));
+        // When
+        stateCache.stage(ITEM_NAME, new Document("ready", true).append("version", 2), FIELDS);
+        // Then
+        assertEquals(3, stateCache.get(ITEM_NAME).orElseThrow().get("version"));
+        assertEquals(3, stateCache.drain().get(ITEM_NAME).getVersion());
+    }
+
+    @Test
+    void stage_coalesce() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false).append("jobOrderCreated", false));
+        // When
+        stateCache.stage(ITEM_NAME, new Document("ready", true).append("jobOrderCreated", false), FIELDS);
+        stateCache.stage(ITEM_NAME, new Document("ready", true).append("jobOrderCreated", true), FIELDS);
+        // Then
+        assertEquals(Map.of(ITEM_NAME, new Document("ready", true).append("jobOrderCreated", true)), drainValues());
+    }
+
+    @Test
+    void put_keepsChanges() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false));
+        stateCache.stage(ITEM_NAME, new Document("ready", true), FIELDS);
+        // When
+        stateCache.put(ITEM_NAME, new Document("ready", false).append("jobOrderCreated", false));
+        // Then
+        assertEquals(true, stateCache.get(ITEM_NAME).orElseThrow().get("ready"));
+        assertEquals(1, stateCache.pendingSize());
+    }
+
+    @Test
+    void put_rebasesVersion() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false).append("version", 3));
+        stateCache.stage(ITEM_NAME, new Document("ready", true), FIELDS);
+        // When
+        stateCache.put(ITEM_NAME, new Document("ready", false).append("jobOrderCreated", false).append("version", 4));
+        // Then
+        assertEquals(4, stateCache.drain().get(ITEM_NAME).getVersion());
+    }
+
+    @Test
+    void put_overwritten() {
+        // Given
+        final List<String> fields = List.of("status");
+        stateCache.put(ITEM_NAME, new Document("status", "waiting"));
+        stateCache.stage(ITEM_NAME, new Document("status", "local"), fields);
+        // When
+        stateCache.put(ITEM_NAME, new Document("status", "remote"));
+        // Then
+        assertEquals("remote", stateCache.get(ITEM_NAME).orElseThrow().get("status"));
+        assertEquals(0, stateCache.pendingSize());
+    }
+
+    @Test
+    void get_expired() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false));
+        stateCache.stage(ITEM_NAME, new Document("ready", true), FIELDS);
+        // When
+        clock.addAndGet(Duration.ofSeconds(60).toMillis());
+        // Then
+        assertFalse(stateCache.contains(ITEM_NAME));
+        assertTrue(stateCache.get(ITEM_NAME).isEmpty());
+        assertEquals(1, stateCache.pendingSize());
+    }
+
+    @Test
+    void purgeExpired() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false));
+        stateCache.stage(ITEM_NAME, new Document("ready", true), FIELDS);
+        clock.addAndGet(Duration.ofSeconds(30).toMillis());
+        stateCache.put("other", new Document("ready", false));
+        clock.addAndGet(Duration.ofSeconds(30).toMillis());
+        // When
+        final int purged = stateCache.purgeExpired();
+        // Then
+        assertEquals(1, purged);
+        assertEquals(1, stateCache.size());
+        assertTrue(stateCache.contains("other"));
+        assertEquals(1, stateCache.pendingSize());
+    }
+
+    @Test
+    void restore() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false).append("jobOrderCreated", false));
+        stateCache.stage(ITEM_NAME, new Document("ready", true).append("jobOrderCreated", false), FIELDS);
+        final Map<String, PWItemStateCache.Changes> drained = stateCache.drain();
+        stateCache.stage(ITEM_NAME, new Document("ready", false).append("jobOrderCreated", true), FIELDS);
+        // When
+        stateCache.restore(drained);
+        // Then
+        assertEquals(Map.of(ITEM_NAME, new Document("ready", false).append("jobOrderCreated", true)), drainValues());
+    }
+
+    @Test
+    void confirm() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false).append("jobOrderCreated", false).append("version", 3));
+        stateCache.stage(ITEM_NAME, new Document("ready", true).append("jobOrderCreated", false), FIELDS);
+        final Map<String, PWItemStateCache.Changes> drained = stateCache.drain();
+        stateCache.stage(ITEM_NAME, new Document("ready", true).append("jobOrderCreated", true), FIELDS);
+        // When
+        stateCache.confirm(drained);
+        // Then
+        assertEquals(4, stateCache.get(ITEM_NAME).orElseThrow().get("version"));
+        assertEquals(4, stateCache.drain().get(ITEM_NAME).getVersion());
+    }
+
+    @Test
+    void evict() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false));
+        stateCache.stage(ITEM_NAME, new Document("ready", true), FIELDS);
+        // When
+        stateCache.evict(List.of(ITEM_NAME));
+        // Then
+        assertFalse(stateCache.contains(ITEM_NAME));
+        assertEquals(1, stateCache.pendingSize());
+    }
+
+    @Test
+    void remove() {
+        // Given
+        stateCache.put(ITEM_NAME, new Document("ready", false));
+        stateCache.stage(ITEM_NAME, new Document("ready", true), FIELDS);
+        // When
+        stateCache.remove(List.of(ITEM_NAME));
+        // Then
+        assertFalse(stateCache.contains(ITEM_NAME));
+        assertEquals(0, stateCache.pendingSize());
+    }
+
+    private Map<String, Document> drainValues() {
+        final Map<String, Document> values = new HashMap<>();
+        stateCache.drain().forEach((name, changes) -> values.put(name, changes.getValues()));
+        return values;
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.pw.service;
+
+import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
+import eu.csgroup.coprs.ps2.core.pw.model.helper.Item;
+import eu.csgroup.coprs.ps2.core.pw.model.helper.ItemEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class PWPendingProcessingServiceTest extends AbstractTest {
+
+    private static final String GAUGE_NAME = "rs.pending.processing.job";
+
+    @Mock
+    private PWItemService<Item, ItemEntity> itemService;
+
+    private MeterRegistry registry;
+
+    private PWPendingProcessingService pendingProcessingService;
+
+    @Override
+    public void setup() throws Exception {
+
+        registry = new SimpleMeterRegistry();
+
+        pendingProcessingService = new PWPendingProcessingService(registry, itemService);
+        ReflectionTestUtils.setField(pendingProcessingService, "gaugeName", GAUGE_NAME);
+        ReflectionTestUtils.setField(pendingProcessingService, "mission", "S2");
+        ReflectionTestUtils.setField(pendingProcessingService, "level", "1");
+        ReflectionTestUtils.setField(pendingProcessingService, "addon", "l1");
+    }
+
+    @Override
+    public void teardown() throws Exception {
+        registry.close();
+    }
+
+    @Test
+    void init() {
+        // Given
+        when(itemService.getInputCompleteField()).thenReturn(Optional.of("grComplete"));
+        when(itemService.count(false, false)).thenReturn(3L);
+        when(itemService.count(true, false)).thenReturn(1L);
+        when(itemService.countWaitingForAux()).thenReturn(2L);
+        when(itemService.countWaitingForInput()).thenReturn(1L);
+        when(itemService.readOldestCreatedDate(false, false)).thenReturn(Optional.of(Instant.now().minus(1, ChronoUnit.HOURS)));
+        // When
+        pendingProcessingService.init();
+        // Then
+        assertEquals(3, registry.get(GAUGE_NAME).tag("level", "1").gauge().value());
+        assertEquals(1, registry.get("rs.pw.items.ready").gauge().value());
+        assertEquals(2, registry.get("rs.pw.items.waiting.aux").gauge().value());
+        assertEquals(1, registry.get("rs.pw.items.waiting.input").gauge().value());
+        assertTrue(registry.get("rs.pw.items.pending.oldest.age").timeGauge().value() >= 3600);
+        verify(itemService, never()).forEachPage(anyBoolean(), anyBoolean(), anyInt(), any());
+    }
+
+    @Test
+    void init_noInput() {
+        // Given
+        when(itemService.getInputCompleteField()).thenReturn(Optional.empty());
+        // When
+        pendingProcessingService.init();
+        // Then
+        assertNull(registry.find("rs.pw.items.waiting.input").gauge());
+    }
+
+}
@@ -16,10 +16,13 @@
 
 package eu.csgroup.coprs.ps2.core.pw.service;
 
+import eu.csgroup.coprs.ps2.core.common.exception.ProcessingException;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
 import eu.csgroup.coprs.ps2.core.common.model.trace.TraceLogger;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
 import eu.csgroup.coprs.ps2.core.pw.model.helper.Input;
 import eu.csgroup.coprs.ps2.core.pw.model.helper.Item;
 import eu.csgroup.coprs.ps2.core.pw.model.helper.ItemEntity;
@@ -27,20 +30,30 @@ import nl.altindag.log.LogCaptor;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 class PWProcessorServiceTest extends AbstractTest {
 
     private static final ProcessingMessage inputMessage = ProcessingMessageUtils.create();
+    private static final String OWNER = "owner";
+    private static final Duration LEASE_DURATION = Duration.ofSeconds(300);
 
     @Mock
     private PWInputManagementService inputManagementService;
@@ -50,6 +63,14 @@ class PWProcessorServiceTest extends AbstractTest {
     private PWExecutionInputService<Input, Item> executionInputService;
     @Mock
     private PWMessageService<Input> messageService;
+    @Mock
+    private PWBackpressureService backpressureService;
+    @Mock
+    private StreamBridge streamBridge;
+    @Mock
+    private PWProperties pwProperties;
+    @Mock
+    private PWReconciler reconciler;
 
     private PWProcessorService<Input, Item, ItemEntity, PWItemService<Item, ItemEntity>> processorService;
     private List<Item> itemList;
@@ -66,6 +87,10 @@ class PWProcessorServiceTest extends AbstractTest {
         ReflectionTestUtils.setField(processorService, "itemManagementService", itemManagementService);
         ReflectionTestUtils.setField(processorService, "executionInputService", executionInputService);
         ReflectionTestUtils.setField(processorService, "messageService", messageService);
+        ReflectionTestUtils.setField(processorService, "backpressureService", backpressureService);
+        ReflectionTestUtils.setField(processorService, "streamBridge", streamBridge);
+        ReflectionTestUtils.setField(processorService, "pwProperties", pwProperties);
+        ReflectionTestUtils.setField(processorService, "reconciler", reconciler);
 
         itemList = List.of(podamFactory.manufacturePojo(Item.class));
         itemList.forEach(item -> item.setReady(true));
@@ -80,58 +105,184 @@ class PWProcessorServiceTest extends AbstractTest {
 
     @Test
     void processMessage() {
+        // When
+        final Set<ProcessingMessage> output = processorService.processMessage(inputMessage);
+        // Then
+        verify(inputManagementService).manageInput(inputMessage);
+        verify(reconciler).trigger();
+        verify(itemManagementService, never()).updateNotReady(anyInt());
+        assertTrue(output.isEmpty());
+    }
+
+    @Test
+    void manageItems() {
 
         // Given
-        when(itemManagementService.getReady()).thenReturn(itemList);
+        mockLease();
+        when(itemManagementService.claimReady(OWNER, LEASE_DURATION, 10)).thenReturn(itemList, Collections.emptyList());
         when(executionInputService.create(itemList)).thenReturn(inputList);
         when(messageService.build(inputList)).thenReturn(outputMessageSet);
+        when(streamBridge.send(eq(PWProcessorService.OUTPUT_BINDING), any())).thenReturn(true);
 
         // When
         try (LogCaptor logCaptor = LogCaptor.forClass(TraceLogger.class)) {
 
-            final Set<ProcessingMessage> output = processorService.processMessage(inputMessage);
+            processorService.manageItems();
 
             // Then
-            verify(itemManagementService).cleanup();
-
-            verify(itemManagementService).updateAvailableAux();
-            verify(itemManagementService).updateNotReady();
+            verify(itemManagementService).reconcile();
+            verify(itemManagementService).updateAvailableAux(500);
+            verify(itemManagementService).updateNotReady(500);
 
-            verify(itemManagementService).getReady();
+            verify(itemManagementService, times(2)).claimReady(OWNER, LEASE_DURATION, 10);
 
             verify(executionInputService).create(itemList);
             verify(messageService).build(inputList);
-            verify(itemManagementService).setJobOrderCreated(itemList);
+            verify(itemManagementService).setJobOrderCreated(itemList, OWNER);
+            verify(streamBridge, times(outputMessageSet.size())).send(eq("output"), any());
 
             assertEquals(2, logCaptor.getLogs().size());
-
-            assertEquals(outputMessageSet, output);
         }
     }
 
     @Test
-    void processMessage_not_ready() {
+    void manageItems_not_ready() {
 
         // Given
-        when(itemManagementService.getReady()).thenReturn(Collections.emptyList());
+        mockLease();
+        when(itemManagementService.claimReady(OWNER, LEASE_DURATION, 10)).thenReturn(Collections.emptyList());
 
         // When
         try (LogCaptor logCaptor = LogCaptor.forClass(TraceLogger.class)) {
 
-            final Set<ProcessingMessage> output = processorService.processMessage(inputMessage);
+            processorService.manageItems();
 
             // Then
-            verify(itemManagementService).cleanup();
-
-            verify(itemManagementService).updateAvailableAux();
-            verify(itemManagementService).updateNotReady();
+            verify(itemManagementService).updateAvailableAux(500);
+            verify(itemManagementService).updateNotReady(500);
 
-            verify(itemManagementService).getReady();
+            verify(itemManagementService).claimReady(OWNER, LEASE_DURATION, 10);
+            verify(streamBridge, never()).send(any(), any());
 
             assertEquals(0, logCaptor.getLogs().size());
-
-            assertTrue(output.isEmpty());
         }
     }
 
+    @Test
+    void manageItems_maxJobs() {
+
+        // Given
+        mockLease();
+        when(pwProperties.getMaxJobsPerPass()).thenReturn(1);
+        when(pwProperties.getTimeliness()).thenReturn(60L);
+        itemList.forEach(item -> item.setT0PdgsDate(Instant.now().minus(1, ChronoUnit.HOURS)));
+        when(itemManagementService.claimReady(OWNER, LEASE_DURATION, 1)).thenReturn(itemList);
+        when(executionInputService.create(itemList)).thenReturn(inputList);
+        when(messageService.build(inputList)).thenReturn(outputMessageSet);
+        when(streamBridge.send(eq(PWProcessorService.OUTPUT_BINDING), any())).thenReturn(true);
+
+        // When
+        processorService.manageItems();
+
+        // Then
+        verify(itemManagementService).claimReady(OWNER, LEASE_DURATION, 1);
+        verify(itemManagementService).setJobOrderCreated(itemList, OWNER);
+    }
+
+    @Test
+    void manageItems_backpressure() {
+
+        // Given
+        when(pwProperties.getBacklogPageSize()).thenReturn(500);
+        when(backpressureService.availableCredits()).thenReturn(0);
+
+        // When
+        processorService.manageItems();
+
+        // Then
+        verify(itemManagementService).updateNotReady(500);
+        verify(itemManagementService, never()).claimReady(any(), any(), anyInt());
+        verify(streamBridge, never()).send(any(), any());
+    }
+
+    @Test
+    void manageItems_credits() {
+
+        // Given
+        mockLease(1);
+        when(itemManagementService.claimReady(OWNER, LEASE_DURATION, 1)).thenReturn(itemList);
+        when(executionInputService.create(itemList)).thenReturn(inputList);
+        when(messageService.build(inputList)).thenReturn(outputMessageSet);
+        when(streamBridge.send(eq(PWProcessorService.OUTPUT_BINDING), any())).thenReturn(true);
+
+        // When
+        processorService.manageItems();
+
+        // Then
+        verify(itemManagementService).claimReady(OWNER, LEASE_DURATION, 1);
+        verify(itemManagementService).setJobOrderCreated(itemList, OWNER);
+    }
+
+    @Test
+    void manageItems_concurrentUpdate() {
+
+        // Given
+        mockLease();
+        doThrow(MongoDBException.class).when(itemManagementService).updateAvailableAux(500);
+        when(itemManagementService.claimReady(OWNER, LEASE_DURATION, 10)).thenReturn(Collections.emptyList());
+
+        // When
+        processorService.manageItems();
+
+        // Then
+        verify(itemManagementService, never()).updateNotReady(anyInt());
+        verify(itemManagementService).claimReady(OWNER, LEASE_DURATION, 10);
+    }
+
+    @Test
+    void manageItems_releaseLeases() {
+
+        // Given
+        mockLease();
+        when(itemManagementService.claimReady(OWNER, LEASE_DURATION, 10)).thenReturn(itemList);
+        when(executionInputService.create(itemList)).thenThrow(IllegalStateException.class);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> processorService.manageItems());
+
+        // Then
+        verify(itemManagementService).releaseLeases(OWNER);
+        verify(itemManagementService, never()).setJobOrderCreated(anyList(), any());
+    }
+
+    @Test
+    void manageItems_sendFailed() {
+
+        // Given
+        mockLease();
+        when(itemManagementService.claimReady(OWNER, LEASE_DURATION, 10)).thenReturn(itemList);
+        when(executionInputService.create(itemList)).thenReturn(inputList);
+        when(messageService.build(inputList)).thenReturn(outputMessageSet);
+        when(streamBridge.send(eq(PWProcessorService.OUTPUT_BINDING), any())).thenReturn(false);
+
+        // When
+        assertThrows(ProcessingException.class, () -> processorService.manageItems());
+
+        // Then
+        verify(itemManagementService, never()).setJobOrderCreated(anyList(), any());
+        verify(itemManagementService).releaseLeases(OWNER);
+    }
+
+    private void mockLease() {
+        mockLease(Integer.MAX_VALUE);
+    }
+
+    private void mockLease(int credits) {
+        when(pwProperties.getLeaseOwner()).thenReturn(OWNER);
+        when(pwProperties.getLeaseDuration()).thenReturn(LEASE_DURATION.toSeconds());
+        when(pwProperties.getReadyPageSize()).thenReturn(10);
+        when(pwProperties.getBacklogPageSize()).thenReturn(500);
+        when(backpressureService.availableCredits()).thenReturn(credits);
+    }
+
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023 CS Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.csgroup.coprs.ps2.core.pw.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PWReconcilerTest {
+
+    @Test
+    void trigger() throws InterruptedException {
+
+        // Given
+        final AtomicInteger passCount = new AtomicInteger();
+        final PWReconciler reconciler = new PWReconciler("test-reconciler", passCount::incrementAndGet, 200);
+
+        // When
+        reconciler.trigger();
+        reconciler.trigger();
+        reconciler.trigger();
+        Thread.sleep(600);
+        reconciler.stop();
+
+        // Then
+        assertEquals(1, passCount.get());
+    }
+
+    @Test
+    void run_fails() {
+
+        // Given
+        final PWReconciler reconciler = new PWReconciler("test-reconciler", () -> {
+            throw new IllegalStateException("failure");
+        }, 0);
+
+        // When
+        assertDoesNotThrow(reconciler::run);
+
+        // Then
+        reconciler.stop();
+    }
+
+}
@@ -17,6 +17,8 @@
 package eu.csgroup.coprs.ps2.pw.l0c.service;
 
 import eu.csgroup.coprs.ps2.core.common.model.l0.L0cExecutionInput;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import eu.csgroup.coprs.ps2.core.pw.service.PWBackpressureService;
 import eu.csgroup.coprs.ps2.core.pw.service.PWProcessorService;
 import eu.csgroup.coprs.ps2.pw.l0c.model.L0cDatastrip;
 import eu.csgroup.coprs.ps2.pw.l0c.model.L0cDatastripEntity;
@@ -26,6 +28,7 @@ import eu.csgroup.coprs.ps2.pw.l0c.service.prepare.L0cDatastripService;
 import eu.csgroup.coprs.ps2.pw.l0c.service.prepare.L0cPWExecutionInputService;
 import eu.csgroup.coprs.ps2.pw.l0c.service.setup.L0cPWInputManagementService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Configuration;
 
 @Slf4j
@@ -36,9 +39,12 @@ public class L0cPWProcessorService extends PWProcessorService<L0cExecutionInput,
             L0cPWInputManagementService inputManagementService,
             L0cDatastripManagementService managementService,
             L0cPWExecutionInputService executionInputService,
-            L0cPWMessageService messageService
+            L0cPWMessageService messageService,
+            PWBackpressureService backpressureService,
+            StreamBridge streamBridge,
+            PWProperties pwProperties
     ) {
-        super(inputManagementService, managementService, executionInputService, messageService);
+        super(inputManagementService, managementService, executionInputService, messageService, backpressureService, streamBridge, pwProperties);
     }
 
 }
@@ -30,7 +30,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.file.Path;
 import java.time.Instant;
-import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -44,13 +43,6 @@ public class L0cDatastripManagementService extends PWItemManagementService<L0cDa
         super(catalogService, datastripService);
     }
 
-    @Override
-    public List<L0cDatastrip> getMissingAux() {
-        return getNotReady().stream()
-                .filter(datastrip -> !datastrip.allAuxAvailable())
-                .toList();
-    }
-
     @Override
     public boolean isReady(L0cDatastrip item) {
         return item.allAuxAvailable();
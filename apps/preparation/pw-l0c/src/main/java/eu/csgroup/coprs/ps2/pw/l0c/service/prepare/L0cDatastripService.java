@@ -17,6 +17,7 @@
 package eu.csgroup.coprs.ps2.pw.l0c.service.prepare;
 
 import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.service.PWItemService;
 import eu.csgroup.coprs.ps2.pw.l0c.model.L0cAuxFile;
 import eu.csgroup.coprs.ps2.pw.l0c.model.L0cDatastrip;
@@ -24,13 +25,14 @@ import eu.csgroup.coprs.ps2.pw.l0c.model.L0cDatastripEntity;
 import eu.csgroup.coprs.ps2.pw.l0c.model.L0cDatastripMapper;
 import eu.csgroup.coprs.ps2.pw.l0c.repository.L0cDatastripEntityRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.stream.Collectors;
+import java.util.List;
 
 
 @Slf4j
@@ -38,8 +40,8 @@ import java.util.stream.Collectors;
 @Transactional
 public class L0cDatastripService extends PWItemService<L0cDatastrip, L0cDatastripEntity> {
 
-    public L0cDatastripService(L0cDatastripEntityRepository datastripEntityRepository, L0cDatastripMapper datastripMapper) {
-        super(datastripEntityRepository, datastripMapper);
+    public L0cDatastripService(L0cDatastripEntityRepository datastripEntityRepository, L0cDatastripMapper datastripMapper, MongoTemplate mongoTemplate) {
+        super(datastripEntityRepository, datastripMapper, mongoTemplate, L0cDatastripEntity.class);
     }
 
 
@@ -64,7 +66,7 @@ public class L0cDatastripService extends PWItemService<L0cDatastrip, L0cDatastri
                 .setStationCode(stationCode)
                 .setT0PdgsDate(t0PdgsDate)
                 .setAvailableByAux(
-                        Arrays.stream(L0cAuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> false))
+                        AvailabilityMap.of(Arrays.stream(L0cAuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList())
                 );
 
         itemRepository.save(datastripEntity);
@@ -73,11 +75,8 @@ public class L0cDatastripService extends PWItemService<L0cDatastrip, L0cDatastri
     }
 
     @Override
-    protected void updateEntity(L0cDatastripEntity datastripEntity, L0cDatastripEntity updatedDatastripEntity) {
-        datastripEntity
-                .setAvailableByAux(updatedDatastripEntity.getAvailableByAux())
-                .setReady(updatedDatastripEntity.isReady())
-                .setJobOrderCreated(updatedDatastripEntity.isJobOrderCreated());
+    protected List<String> getUpdatableFields() {
+        return List.of(AVAILABLE_BY_AUX_FIELD, READY_FIELD, JOB_ORDER_CREATED_FIELD);
     }
 
 }
@@ -20,23 +20,26 @@ import eu.csgroup.coprs.ps2.core.common.model.aux.AuxProductType;
 import eu.csgroup.coprs.ps2.core.common.model.catalog.AuxCatalogData;
 import eu.csgroup.coprs.ps2.core.common.service.catalog.CatalogService;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.pw.l0c.model.L0cDatastrip;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import java.nio.file.Paths;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,31 +53,24 @@ class L0cDatastripManagementServiceTest extends AbstractTest {
     @InjectMocks
     private L0cDatastripManagementService datastripManagementService;
 
-    private L0cDatastrip readyDatastrip, notReadyDatastrip, deletableDatastrip, missingAuxDatastrip;
-    private List<L0cDatastrip> waitingDatastripList, readyDatastripList, notReadyDatastripList, deletableDatastripList, missingAuxDatastripList;
+    private L0cDatastrip readyDatastrip, notReadyDatastrip, missingAuxDatastrip;
+    private List<L0cDatastrip> waitingDatastripList, readyDatastripList, notReadyDatastripList, missingAuxDatastripList;
 
     @Override
     public void setup() throws Exception {
 
         missingAuxDatastrip = new L0cDatastrip();
-        Map<String, Boolean> availableByAux = new HashMap<>();
-        availableByAux.put(AuxProductType.GIP_ATMIMA.name(), false);
-        missingAuxDatastrip.setAvailableByAux(availableByAux);
+        missingAuxDatastrip.setAvailableByAux(AvailabilityMap.of(List.of(AuxProductType.GIP_ATMIMA.name())));
 
         readyDatastrip = new L0cDatastrip();
         readyDatastrip.setReady(true);
 
         notReadyDatastrip = new L0cDatastrip();
-        notReadyDatastrip.setAvailableByAux(Map.of(AuxProductType.GIP_LREXTR.name(), true));
-
-        deletableDatastrip = new L0cDatastrip();
-        deletableDatastrip.setJobOrderCreated(true);
-        deletableDatastrip.setLastModifiedDate(Instant.now().minus(1, ChronoUnit.HOURS));
+        notReadyDatastrip.setAvailableByAux(AvailabilityMap.of(List.of(AuxProductType.GIP_LREXTR.name())).setAvailable(AuxProductType.GIP_LREXTR.name(), true));
 
         waitingDatastripList = List.of(missingAuxDatastrip);
         readyDatastripList = List.of(readyDatastrip);
         notReadyDatastripList = List.of(notReadyDatastrip);
-        deletableDatastripList = List.of(deletableDatastrip);
         missingAuxDatastripList = List.of(missingAuxDatastrip);
 
 
@@ -87,53 +83,46 @@ class L0cDatastripManagementServiceTest extends AbstractTest {
     }
 
     @Test
-    void getReady() {
+    void claimReady() {
         // Given
-        when(datastripService.readAll(true, false)).thenReturn(readyDatastripList);
+        when(datastripService.claimReady("owner", Duration.ofSeconds(300), 10)).thenReturn(readyDatastripList);
         // When
-        final List<L0cDatastrip> ready = datastripManagementService.getReady();
+        final List<L0cDatastrip> ready = datastripManagementService.claimReady("owner", Duration.ofSeconds(300), 10);
         // Then
         assertEquals(readyDatastripList, ready);
     }
 
-    @Test
-    void getDeletable() {
-        // Given
-        when(datastripService.readAllByJobOrderCreated(true)).thenReturn(deletableDatastripList);
-        // When
-        final List<L0cDatastrip> deletable = datastripManagementService.getDeletable();
-        // Then
-        assertEquals(deletableDatastripList, deletable);
-    }
-
     @Test
     void updateAvailableAux() {
         // Given
-        when(datastripService.readAll(false, false)).thenReturn(missingAuxDatastripList);
+        mockWaitingForAux(missingAuxDatastripList);
         mockAuxCatalogResponse();
         // When
-        datastripManagementService.updateAvailableAux();
+        datastripManagementService.updateAvailableAux(10);
         // Then
-        verify(datastripService).updateAll(anyList());
+        verify(datastripService).updateAll(anyList(), anyList());
         assertTrue(missingAuxDatastrip.allAuxAvailable());
     }
 
     @Test
     void updateNotReady() {
         // Given
-        when(datastripService.readAll(false, false)).thenReturn(notReadyDatastripList);
+        mockNotReady(notReadyDatastripList);
         // When
-        datastripManagementService.updateNotReady();
+        datastripManagementService.updateNotReady(10);
         // Then
-        verify(datastripService).updateAll(anyList());
+        verify(datastripService).updateAll(anyList(), anyList());
         assertTrue(notReadyDatastrip.isReady());
     }
 
     @Test
     void setJobOrderCreated() {
+        // Given
+        when(datastripService.setJobOrderCreated(anySet(), eq("owner"))).thenReturn((long) readyDatastripList.size());
         // When
-        datastripManagementService.setJobOrderCreated(readyDatastripList);
+        datastripManagementService.setJobOrderCreated(readyDatastripList, "owner");
         // Then
+        verify(datastripService).setJobOrderCreated(anySet(), eq("owner"));
         assertTrue(readyDatastripList.stream().allMatch(L0cDatastrip::isJobOrderCreated));
     }
 
@@ -151,4 +140,18 @@ class L0cDatastripManagementServiceTest extends AbstractTest {
         when(catalogService.retrieveLatestAuxData(any(), any(), any(), any())).thenReturn(Optional.of(new AuxCatalogData()));
     }
 
+    private void mockWaitingForAux(List<L0cDatastrip> page) {
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<L0cDatastrip>>>getArgument(1).accept(page);
+            return null;
+        }).when(datastripService).forEachWaitingForAux(eq(10), any());
+    }
+
+    private void mockNotReady(List<L0cDatastrip> page) {
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<L0cDatastrip>>>getArgument(3).accept(page);
+            return null;
+        }).when(datastripService).forEachPage(eq(false), eq(false), eq(10), any());
+    }
+
 }
@@ -25,17 +25,25 @@ import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class L0cDatastripServiceTest extends AbstractTest {
 
     @Mock
     private L0cDatastripEntityRepository datastripEntityRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
 
     private final L0cDatastripMapper datastripMapper = Mappers.getMapper(L0cDatastripMapper.class);
 
@@ -44,7 +52,7 @@ class L0cDatastripServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        datastripService = new L0cDatastripService(datastripEntityRepository, datastripMapper);
+        datastripService = new L0cDatastripService(datastripEntityRepository, datastripMapper, mongoTemplate);
     }
 
     @Override
@@ -76,7 +84,7 @@ class L0cDatastripServiceTest extends AbstractTest {
         assertEquals(TestHelper.STATION_CODE, create.getStationCode());
         assertEquals(TestHelper.T0_PDGS_DATE, create.getT0PdgsDate());
         assertNotNull(create.getAvailableByAux());
-        assertTrue(create.getAvailableByAux().values().stream().noneMatch(Boolean::booleanValue));
+        assertEquals(0, create.getAvailableByAux().availableCount());
     }
 
     @Test
@@ -97,12 +105,13 @@ class L0cDatastripServiceTest extends AbstractTest {
     @Test
     void update() {
         // Given
-        when(datastripEntityRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
         mockFind();
+        mockConverter();
         // When
         final L0cDatastrip update = datastripService.update(TestHelper.UPDATED_DATASTRIP);
         // Then
         assertNotNull(update);
+        verify(datastripEntityRepository, never()).save(any());
         assertEquals(TestHelper.DATASTRIP_NAME, update.getName());
         assertEquals(TestHelper.DS_FOLDER, update.getFolder());
         assertEquals(TestHelper.DT_FOLDER, update.getDtFolder());
@@ -114,6 +123,10 @@ class L0cDatastripServiceTest extends AbstractTest {
         assertTrue(update.isReady());
     }
 
+    private void mockConverter() {
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+    }
+
     private void mockExists(boolean exists) {
         when(datastripEntityRepository.existsById(TestHelper.DATASTRIP_NAME)).thenReturn(exists);
     }
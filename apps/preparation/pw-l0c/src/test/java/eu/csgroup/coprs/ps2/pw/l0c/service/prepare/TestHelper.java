@@ -18,6 +18,7 @@ package eu.csgroup.coprs.ps2.pw.l0c.service.prepare;
 
 import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.common.model.aux.AuxProductType;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.pw.l0c.model.L0cAuxFile;
 import eu.csgroup.coprs.ps2.pw.l0c.model.L0cDatastrip;
 import eu.csgroup.coprs.ps2.pw.l0c.model.L0cDatastripEntity;
@@ -29,7 +30,6 @@ import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public final class TestHelper {
 
@@ -49,7 +49,7 @@ public final class TestHelper {
             .setFolder(DS_FOLDER)
             .setDtFolder(DT_FOLDER)
             .setName(DATASTRIP_NAME)
-            .setAvailableByAux(Arrays.stream(L0cAuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> false)))
+            .setAvailableByAux(availabilityMap(Arrays.stream(L0cAuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList(), false))
             .setStartTime(START_TIME)
             .setStopTime(STOP_TIME)
             .setT0PdgsDate(T0_PDGS_DATE)
@@ -60,7 +60,7 @@ public final class TestHelper {
             .setFolder(DS_FOLDER)
             .setDtFolder(DT_FOLDER)
             .setName(DATASTRIP_NAME)
-            .setAvailableByAux(Arrays.stream(L0cAuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> false)))
+            .setAvailableByAux(availabilityMap(Arrays.stream(L0cAuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList(), false))
             .setStartTime(START_TIME)
             .setStopTime(STOP_TIME)
             .setT0PdgsDate(T0_PDGS_DATE)
@@ -71,7 +71,7 @@ public final class TestHelper {
             .setFolder(DS_FOLDER)
             .setDtFolder(DT_FOLDER)
             .setName(DATASTRIP_NAME)
-            .setAvailableByAux(Arrays.stream(L0cAuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> true)))
+            .setAvailableByAux(availabilityMap(Arrays.stream(L0cAuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList(), true))
             .setStartTime(START_TIME)
             .setStopTime(STOP_TIME)
             .setT0PdgsDate(T0_PDGS_DATE)
@@ -95,6 +95,12 @@ public final class TestHelper {
     public static final String DEM_NAME = "S2__OPER_DEM_GLOBEF_PDMC_20091210T235100_S20091210T235134";
     public static final String DEM_FULL_PATH = Paths.get(DEM_PATH, DEM_NAME).toString();
 
+    private static AvailabilityMap availabilityMap(List<String> names, boolean available) {
+        final AvailabilityMap availabilityMap = AvailabilityMap.of(names);
+        names.forEach(name -> availabilityMap.setAvailable(name, available));
+        return availabilityMap;
+    }
+
     private TestHelper() {
     }
 
@@ -17,6 +17,8 @@
 package eu.csgroup.coprs.ps2.pw.l0u.service;
 
 import eu.csgroup.coprs.ps2.core.common.model.l0.L0uExecutionInput;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import eu.csgroup.coprs.ps2.core.pw.service.PWBackpressureService;
 import eu.csgroup.coprs.ps2.core.pw.service.PWProcessorService;
 import eu.csgroup.coprs.ps2.pw.l0u.model.Session;
 import eu.csgroup.coprs.ps2.pw.l0u.model.SessionEntity;
@@ -26,6 +28,7 @@ import eu.csgroup.coprs.ps2.pw.l0u.service.prepare.SessionManagementService;
 import eu.csgroup.coprs.ps2.pw.l0u.service.prepare.SessionService;
 import eu.csgroup.coprs.ps2.pw.l0u.service.setup.L0uPWInputManagementService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Configuration;
 
 @Slf4j
@@ -36,9 +39,12 @@ public class L0uPWProcessorService extends PWProcessorService<L0uExecutionInput,
             L0uPWInputManagementService inputManagementService,
             SessionManagementService itemManagementService,
             L0uPWExecutionInputService executionInputService,
-            L0uPWMessageService messageService
+            L0uPWMessageService messageService,
+            PWBackpressureService backpressureService,
+            StreamBridge streamBridge,
+            PWProperties pwProperties
     ) {
-        super(inputManagementService, itemManagementService, executionInputService, messageService);
+        super(inputManagementService, itemManagementService, executionInputService, messageService, backpressureService, streamBridge, pwProperties);
     }
 
 }
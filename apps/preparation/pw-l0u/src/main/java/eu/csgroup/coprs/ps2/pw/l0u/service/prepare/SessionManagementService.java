@@ -43,11 +43,6 @@ public class SessionManagementService extends PWItemManagementService<Session, S
         super(catalogService, itemService);
     }
 
-    @Override
-    public List<Session> getMissingAux() {
-        return itemService.readAll(true, false, false);
-    }
-
     @Override
     public boolean isReady(Session item) {
         return item.isRawComplete() && item.allAuxAvailable();
@@ -17,6 +17,7 @@
 package eu.csgroup.coprs.ps2.pw.l0u.service.prepare;
 
 import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.service.PWItemService;
 import eu.csgroup.coprs.ps2.pw.l0u.model.AuxValue;
 import eu.csgroup.coprs.ps2.pw.l0u.model.Session;
@@ -24,13 +25,14 @@ import eu.csgroup.coprs.ps2.pw.l0u.model.SessionEntity;
 import eu.csgroup.coprs.ps2.pw.l0u.model.SessionMapper;
 import eu.csgroup.coprs.ps2.pw.l0u.repository.SessionEntityRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 
 @Slf4j
@@ -38,8 +40,10 @@ import java.util.stream.Collectors;
 @Transactional
 public class SessionService extends PWItemService<Session, SessionEntity> {
 
-    public SessionService(SessionEntityRepository sessionEntityRepository, SessionMapper sessionMapper) {
-        super(sessionEntityRepository, sessionMapper);
+    private static final String RAW_COMPLETE_FIELD = "rawComplete";
+
+    public SessionService(SessionEntityRepository sessionEntityRepository, SessionMapper sessionMapper, MongoTemplate mongoTemplate) {
+        super(sessionEntityRepository, sessionMapper, mongoTemplate, SessionEntity.class);
     }
 
 
@@ -60,31 +64,26 @@ public class SessionService extends PWItemService<Session, SessionEntity> {
                 .setStationCode(stationCode)
                 .setT0PdgsDate(t0PdgsDate)
                 .setAvailableByAux(
-                        Arrays.stream(AuxValue.values())
-                                .map(AuxValue::getAuxProductType)
-                                .distinct()
-                                .collect(Collectors.toMap(Enum::name, o -> false))
+                        AvailabilityMap.of(
+                                Arrays.stream(AuxValue.values())
+                                        .map(AuxValue::getAuxProductType)
+                                        .distinct()
+                                        .map(Enum::name)
+                                        .toList()
+                        )
                 );
 
         return itemMapper.toItem(itemRepository.save(sessionEntity));
     }
 
-    public List<Session> readAll(boolean rawComplete, boolean ready, boolean jobOrderCreated) {
-        final List<Session> sessions = toItems(
-                ((SessionEntityRepository) itemRepository).findAllByRawCompleteAndReadyAndJobOrderCreated(rawComplete, ready, jobOrderCreated)
-        );
-        log.debug(RETRIEVING_MULTIPLE_ITEMS, sessions.size());
-        return sessions;
+    @Override
+    protected List<String> getUpdatableFields() {
+        return List.of(RAW_COMPLETE_FIELD, AVAILABLE_BY_AUX_FIELD, READY_FIELD, JOB_ORDER_CREATED_FIELD, T0_PDGS_DATE_FIELD);
     }
 
     @Override
-    protected void updateEntity(SessionEntity sessionEntity, SessionEntity updatedSessionEntity) {
-        sessionEntity
-                .setRawComplete(updatedSessionEntity.isRawComplete())
-                .setAvailableByAux(updatedSessionEntity.getAvailableByAux())
-                .setReady(updatedSessionEntity.isReady())
-                .setJobOrderCreated(updatedSessionEntity.isJobOrderCreated())
-                .setT0PdgsDate(updatedSessionEntity.getT0PdgsDate());
+    protected Optional<String> getInputCompleteField() {
+        return Optional.of(RAW_COMPLETE_FIELD);
     }
 
 }
@@ -20,15 +20,18 @@ import eu.csgroup.coprs.ps2.core.common.model.aux.AuxProductType;
 import eu.csgroup.coprs.ps2.core.common.model.catalog.AuxCatalogData;
 import eu.csgroup.coprs.ps2.core.common.service.catalog.CatalogService;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.pw.l0u.model.Session;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -46,8 +49,8 @@ class SessionManagementServiceTest extends AbstractTest {
     @InjectMocks
     private SessionManagementService sessionManagementService;
 
-    private Session waitingSession, readySession, notReadySession, deletableSession, missingAuxSession;
-    private List<Session> waitingSessionList, readySessionList, notReadySessionList, deletableSessionList, missingAuxSessionList;
+    private Session waitingSession, readySession, notReadySession, missingAuxSession;
+    private List<Session> waitingSessionList, readySessionList, notReadySessionList, missingAuxSessionList;
 
     @Override
     public void setup() {
@@ -56,24 +59,17 @@ class SessionManagementServiceTest extends AbstractTest {
         waitingSession.setName(TestHelper.SESSION_NAME);
 
         missingAuxSession = new Session().setRawComplete(true);
-        Map<String, Boolean> availableByAux = new HashMap<>();
-        availableByAux.put(AuxProductType.GIP_ATMIMA.name(), false);
-        missingAuxSession.setAvailableByAux(availableByAux);
+        missingAuxSession.setAvailableByAux(AvailabilityMap.of(List.of(AuxProductType.GIP_ATMIMA.name())));
 
         readySession = new Session();
         readySession.setReady(true);
 
         notReadySession = new Session().setRawComplete(true);
-        notReadySession.setAvailableByAux(Map.of(AuxProductType.GIP_LREXTR.name(), true));
-
-        deletableSession = new Session();
-        deletableSession.setJobOrderCreated(true);
-        deletableSession.setLastModifiedDate(Instant.now().minus(1, ChronoUnit.HOURS));
+        notReadySession.setAvailableByAux(AvailabilityMap.of(List.of(AuxProductType.GIP_LREXTR.name())).setAvailable(AuxProductType.GIP_LREXTR.name(), true));
 
         waitingSessionList = List.of(waitingSession);
         readySessionList = List.of(readySession);
         notReadySessionList = List.of(notReadySession);
-        deletableSessionList = List.of(deletableSession);
         missingAuxSessionList = List.of(missingAuxSession);
 
         sessionManagementService = new SessionManagementService(catalogService, sessionService);
@@ -86,72 +82,61 @@ class SessionManagementServiceTest extends AbstractTest {
 
 
     @Test
-    void getReady() {
+    void claimReady() {
         // Given
-        when(sessionService.readAll(true, false)).thenReturn(readySessionList);
+        when(sessionService.claimReady("owner", Duration.ofSeconds(300), 10)).thenReturn(readySessionList);
         // When
-        final List<Session> ready = sessionManagementService.getReady();
+        final List<Session> ready = sessionManagementService.claimReady("owner", Duration.ofSeconds(300), 10);
         // Then
         assertEquals(readySessionList, ready);
     }
 
-    @Test
-    void getDeletable() {
-        // Given
-        when(sessionService.readAllByJobOrderCreated(true)).thenReturn(deletableSessionList);
-        // When
-        final List<Session> deletable = sessionManagementService.getDeletable();
-        // Then
-        assertEquals(deletableSessionList, deletable);
-    }
-
     @Test
     void updateAvailableAux() {
         // Given
-        when(sessionService.readAll(true, false, false)).thenReturn(missingAuxSessionList);
+        mockWaitingForAux(missingAuxSessionList);
         mockAuxCatalogResponse();
         // When
-        sessionManagementService.updateAvailableAux();
+        sessionManagementService.updateAvailableAux(10);
         // Then
-        verify(sessionService).updateAll(anyList());
+        verify(sessionService).updateAll(anyList(), anyList());
     }
 
     @Test
     void updateAvailableAux_empty() {
-        // Given
-        when(sessionService.readAll(true, false, false)).thenReturn(Collections.emptyList());
         // When
-        sessionManagementService.updateAvailableAux();
+        sessionManagementService.updateAvailableAux(10);
         // Then
-        verify(sessionService, never()).updateAll(anyList());
+        verify(sessionService, never()).updateAll(anyList(), anyList());
     }
 
     @Test
     void updateNotReady() {
         // Given
-        when(sessionService.readAll(false, false)).thenReturn(notReadySessionList);
+        mockNotReady(notReadySessionList);
         // When
-        sessionManagementService.updateNotReady();
+        sessionManagementService.updateNotReady(10);
         // Then
-        verify(sessionService).updateAll(anyList());
+        verify(sessionService).updateAll(anyList(), anyList());
         assertTrue(notReadySession.isReady());
     }
 
     @Test
     void updateNotReady_empty() {
-        // Given
-        when(sessionService.readAll(false, false)).thenReturn(Collections.emptyList());
         // When
-        sessionManagementService.updateNotReady();
+        sessionManagementService.updateNotReady(10);
         // Then
-        verify(sessionService, never()).updateAll(anyList());
+        verify(sessionService, never()).updateAll(anyList(), anyList());
     }
 
     @Test
     void setJobOrderCreated() {
+        // Given
+        when(sessionService.setJobOrderCreated(anySet(), eq("owner"))).thenReturn((long) readySessionList.size());
         // When
-        sessionManagementService.setJobOrderCreated(readySessionList);
+        sessionManagementService.setJobOrderCreated(readySessionList, "owner");
         // Then
+        verify(sessionService).setJobOrderCreated(anySet(), eq("owner"));
         assertTrue(readySessionList.stream().allMatch(Session::isJobOrderCreated));
     }
 
@@ -188,4 +173,18 @@ class SessionManagementServiceTest extends AbstractTest {
         when(catalogService.retrieveSessionData(TestHelper.SESSION_NAME)).thenReturn(TestHelper.SESSION_CATALOG_DATA_LIST);
     }
 
+    private void mockWaitingForAux(List<Session> page) {
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<Session>>>getArgument(1).accept(page);
+            return null;
+        }).when(sessionService).forEachWaitingForAux(eq(10), any());
+    }
+
+    private void mockNotReady(List<Session> page) {
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<Session>>>getArgument(3).accept(page);
+            return null;
+        }).when(sessionService).forEachPage(eq(false), eq(false), eq(10), any());
+    }
+
 }
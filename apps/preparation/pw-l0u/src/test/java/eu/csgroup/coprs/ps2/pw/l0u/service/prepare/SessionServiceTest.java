@@ -19,25 +19,35 @@ package eu.csgroup.coprs.ps2.pw.l0u.service.prepare;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
 import eu.csgroup.coprs.ps2.pw.l0u.model.Session;
+import eu.csgroup.coprs.ps2.pw.l0u.model.SessionEntity;
 import eu.csgroup.coprs.ps2.pw.l0u.model.SessionMapper;
 import eu.csgroup.coprs.ps2.pw.l0u.repository.SessionEntityRepository;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class SessionServiceTest extends AbstractTest {
 
     @Mock
     private SessionEntityRepository sessionEntityRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
 
     private SessionMapper sessionMapper = Mappers.getMapper(SessionMapper.class);
 
@@ -46,7 +56,7 @@ class SessionServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        sessionService = new SessionService(sessionEntityRepository, sessionMapper);
+        sessionService = new SessionService(sessionEntityRepository, sessionMapper, mongoTemplate);
     }
 
     @Override
@@ -76,7 +86,7 @@ class SessionServiceTest extends AbstractTest {
         assertEquals(TestHelper.STATION_CODE, create.getStationCode());
         assertEquals(TestHelper.T0_PDGS_DATE, create.getT0PdgsDate());
         assertNotNull(create.getAvailableByAux());
-        assertTrue(create.getAvailableByAux().values().stream().noneMatch(Boolean::booleanValue));
+        assertEquals(0, create.getAvailableByAux().availableCount());
         assertEquals(TestHelper.SESSION_NAME, create.getName());
     }
 
@@ -95,27 +105,16 @@ class SessionServiceTest extends AbstractTest {
         );
     }
 
-    @Test
-    void readAll_all() {
-        // Given
-        when(sessionEntityRepository.findAllByRawCompleteAndReadyAndJobOrderCreated(anyBoolean(), anyBoolean(), anyBoolean())).thenReturn(
-                List.of(TestHelper.SESSION_ENTITY));
-        // When
-        final List<Session> sessions = sessionService.readAll(true, true, false);
-        // Then
-        assertEquals(1, sessions.size());
-        assertEquals(TestHelper.SESSION_NAME, sessions.get(0).getName());
-    }
-
     @Test
     void update() {
         // Given
-        when(sessionEntityRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
         mockFind();
+        mockConverter();
         // When
         final Session update = sessionService.update(TestHelper.UPDATED_SESSION);
         // Then
         assertNotNull(update);
+        verify(sessionEntityRepository, never()).save(any());
         assertEquals(TestHelper.SESSION_NAME, update.getName());
         assertEquals(TestHelper.START_TIME, update.getStartTime());
         assertEquals(TestHelper.STOP_TIME, update.getStopTime());
@@ -126,6 +125,10 @@ class SessionServiceTest extends AbstractTest {
         assertTrue(update.isRawComplete());
     }
 
+    private void mockConverter() {
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+    }
+
     private void mockExists(boolean exists) {
         when(sessionEntityRepository.existsById(TestHelper.SESSION_NAME)).thenReturn(exists);
     }
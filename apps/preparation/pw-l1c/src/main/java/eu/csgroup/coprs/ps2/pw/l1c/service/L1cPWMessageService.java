@@ -16,12 +16,10 @@
 
 package eu.csgroup.coprs.ps2.pw.l1c.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import eu.csgroup.coprs.ps2.core.common.exception.ProcessingException;
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.EventAction;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
 import eu.csgroup.coprs.ps2.core.common.settings.MessageParameters;
 import eu.csgroup.coprs.ps2.core.common.utils.ProcessingMessageUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -35,35 +33,37 @@ import java.util.stream.Collectors;
 @Service
 public class L1cPWMessageService {
 
-    private final ObjectMapper objectMapper;
+    private final ClaimCheckService claimCheckService;
 
-    public L1cPWMessageService(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    public L1cPWMessageService(ClaimCheckService claimCheckService) {
+        this.claimCheckService = claimCheckService;
     }
 
     public Set<ProcessingMessage> build(L1ExecutionInput executionInput, Set<String> tileSet) {
 
         log.info("Building output messages");
 
+        // All messages share the same files, which are then stored once instead of being repeated in each of them
+        final String filesReference = claimCheckService.store(executionInput.getFiles());
+
         final Set<ProcessingMessage> messages = tileSet.stream()
                 .map(tile -> {
-                    final L1ExecutionInput tileInput;
-                    try {
-                        tileInput = objectMapper.readValue(objectMapper.writeValueAsString(executionInput), L1ExecutionInput.class);
-                    } catch (JsonProcessingException e) {
-                        throw new ProcessingException("Something went horribly wrong");
-                    }
+                    final L1ExecutionInput tileInput = executionInput.copy();
                     tileInput.setTile(tile);
                     final ProcessingMessage tileMessage = ProcessingMessageUtils.create().setAllowedActions(getActions());
                     tileMessage.setSatelliteId(executionInput.getSatellite());
                     tileMessage.getAdditionalFields().put(MessageParameters.EXECUTION_INPUT_FIELD, tileInput);
+                    claimCheckService.reference(tileMessage, tileInput, filesReference);
                     return tileMessage;
                 })
                 .collect(Collectors.toSet());
 
+        // Referencing drops the files of the input, which belongs to the caller
+        final L1ExecutionInput dsInput = executionInput.copy();
         final ProcessingMessage dsMessage = ProcessingMessageUtils.create().setAllowedActions(getActions());
         dsMessage.setSatelliteId(executionInput.getSatellite());
-        dsMessage.getAdditionalFields().put(MessageParameters.EXECUTION_INPUT_FIELD, executionInput);
+        dsMessage.getAdditionalFields().put(MessageParameters.EXECUTION_INPUT_FIELD, dsInput);
+        claimCheckService.reference(dsMessage, dsInput, filesReference);
 
         messages.add(dsMessage);
 
@@ -16,23 +16,33 @@
 
 package eu.csgroup.coprs.ps2.pw.l1c.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.csgroup.coprs.ps2.core.common.model.FileInfo;
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
 import eu.csgroup.coprs.ps2.core.common.model.processing.ProcessingMessage;
+import eu.csgroup.coprs.ps2.core.common.service.claimcheck.ClaimCheckService;
+import eu.csgroup.coprs.ps2.core.common.settings.MessageParameters;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
 
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.when;
 
 class L1cPWMessageServiceTest extends AbstractTest {
 
+    @Mock
+    private ClaimCheckService claimCheckService;
+
     private L1cPWMessageService messageService;
 
     @Override
     public void setup() throws Exception {
-        messageService = new L1cPWMessageService(new ObjectMapper());
+        messageService = new L1cPWMessageService(claimCheckService);
     }
 
     @Override
@@ -48,4 +58,20 @@ class L1cPWMessageServiceTest extends AbstractTest {
         assertEquals(3, messages.size());
     }
 
+    @Test
+    void build_claimCheck() {
+        // Given
+        when(claimCheckService.store(any())).thenReturn("reference");
+        doCallRealMethod().when(claimCheckService).reference(any(), any(), any());
+        final Set<FileInfo> files = Set.of(podamFactory.manufacturePojo(FileInfo.class));
+        final L1ExecutionInput executionInput = (L1ExecutionInput) new L1ExecutionInput().setFiles(files);
+        // When
+        final Set<ProcessingMessage> messages = messageService.build(executionInput, Set.of("tile1", "tile2"));
+        // Then
+        assertEquals(3, messages.size());
+        assertTrue(messages.stream().allMatch(message -> "reference".equals(message.getAdditionalFields().get(MessageParameters.FILES_REFERENCE_FIELD))));
+        assertTrue(messages.stream().noneMatch(message -> message.getAdditionalFields().get(MessageParameters.EXECUTION_INPUT_FIELD) == executionInput));
+        assertEquals(files, executionInput.getFiles());
+    }
+
 }
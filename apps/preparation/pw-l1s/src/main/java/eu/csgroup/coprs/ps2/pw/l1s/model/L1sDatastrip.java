@@ -16,12 +16,13 @@
 
 package eu.csgroup.coprs.ps2.pw.l1s.model;
 
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItem;
 import eu.csgroup.coprs.ps2.core.common.model.processing.DatatakeType;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.Map;
+import java.time.Instant;
 
 
 @Getter
@@ -30,11 +31,12 @@ public class L1sDatastrip extends PWItem {
 
     private String folder;
     private DatatakeType datatakeType;
-    private Map<String, Boolean> availableByGR;
+    private AvailabilityMap availableByGR;
     private boolean grComplete;
+    private Instant lastReconciliationDate;
 
     public boolean allGRAvailable() {
-        return availableByGR.values().stream().allMatch(Boolean::booleanValue);
+        return availableByGR.allAvailable();
     }
 
 }
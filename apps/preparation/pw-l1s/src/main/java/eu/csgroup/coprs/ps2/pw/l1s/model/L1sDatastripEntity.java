@@ -17,12 +17,13 @@
 package eu.csgroup.coprs.ps2.pw.l1s.model;
 
 import eu.csgroup.coprs.ps2.core.common.model.processing.DatatakeType;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItemEntity;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.Map;
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -32,8 +33,10 @@ public class L1sDatastripEntity extends PWItemEntity {
     private String folder;
     private DatatakeType datatakeType;
 
-    private Map<String, Boolean> availableByGR;
+    private AvailabilityMap availableByGR;
 
     private boolean grComplete;
 
+    private Instant lastReconciliationDate;
+
 }
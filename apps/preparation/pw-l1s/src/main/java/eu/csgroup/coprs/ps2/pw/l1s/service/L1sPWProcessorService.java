@@ -17,6 +17,8 @@
 package eu.csgroup.coprs.ps2.pw.l1s.service;
 
 import eu.csgroup.coprs.ps2.core.common.model.l1.L1ExecutionInput;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import eu.csgroup.coprs.ps2.core.pw.service.PWBackpressureService;
 import eu.csgroup.coprs.ps2.core.pw.service.PWProcessorService;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastrip;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastripEntity;
@@ -26,6 +28,7 @@ import eu.csgroup.coprs.ps2.pw.l1s.service.prepare.L1sDatastripService;
 import eu.csgroup.coprs.ps2.pw.l1s.service.prepare.L1sPWExecutionInputService;
 import eu.csgroup.coprs.ps2.pw.l1s.service.setup.L1sPWInputManagementService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Configuration;
 
 @Slf4j
@@ -36,9 +39,12 @@ public class L1sPWProcessorService extends PWProcessorService<L1ExecutionInput,
             L1sPWInputManagementService inputManagementService,
             L1sDatastripManagementService itemManagementService,
             L1sPWExecutionInputService executionInputService,
-            L1sPWMessageService messageService
+            L1sPWMessageService messageService,
+            PWBackpressureService backpressureService,
+            StreamBridge streamBridge,
+            PWProperties pwProperties
     ) {
-        super(inputManagementService, itemManagementService, executionInputService, messageService);
+        super(inputManagementService, itemManagementService, executionInputService, messageService, backpressureService, streamBridge, pwProperties);
     }
 
     @Override
@@ -25,6 +25,8 @@ import eu.csgroup.coprs.ps2.core.common.utils.DatastripUtils;
 import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
 import eu.csgroup.coprs.ps2.core.obs.config.ObsBucketProperties;
 import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.service.PWItemManagementService;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastrip;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastripEntity;
@@ -36,12 +38,13 @@ import org.springframework.transaction.annotation.Transactional;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 
 @Slf4j
@@ -52,19 +55,16 @@ public class L1sDatastripManagementService extends PWItemManagementService<L1sDa
     private final SharedProperties sharedProperties;
     private final ObsService obsService;
     private final ObsBucketProperties bucketProperties;
+    private final PWProperties pwProperties;
 
     public L1sDatastripManagementService(CatalogService catalogService, L1sDatastripService itemService, SharedProperties sharedProperties, ObsService obsService,
-            ObsBucketProperties bucketProperties
+            ObsBucketProperties bucketProperties, PWProperties pwProperties
     ) {
         super(catalogService, itemService);
         this.sharedProperties = sharedProperties;
         this.obsService = obsService;
         this.bucketProperties = bucketProperties;
-    }
-
-    @Override
-    public List<L1sDatastrip> getMissingAux() {
-        return itemService.readAll(true, false, false);
+        this.pwProperties = pwProperties;
     }
 
     @Override
@@ -97,58 +97,77 @@ public class L1sDatastripManagementService extends PWItemManagementService<L1sDa
             final Pair<Instant, Instant> datastripTimes = DatastripUtils.getDatastripTimes(datastripPath);
             final List<String> grList = DatastripUtils.getGRList(datastripPath);
 
-            itemService.create(datastripName, datastripFolder, datastripTimes, satellite, t0PdgsDate, datatakeType, grList);
+            // GR may have been catalogued before their Datastrip, so they are checked once against OBS
+            reconcileGR(itemService.create(datastripName, datastripFolder, datastripTimes, satellite, t0PdgsDate, datatakeType, grList));
         }
+    }
+
+    public void updateGRComplete(String datastripName, String grName) {
 
-        updateGRComplete(datastripName);
+        final Optional<L1sDatastrip> datastrip = itemService.setGRAvailable(datastripName, grName);
+
+        if (datastrip.isEmpty()) {
+            log.info("No Datastrip {} expecting GR {}, availability will be checked on Datastrip creation", datastripName, grName);
+        } else if (!datastrip.get().isGrComplete() && datastrip.get().allGRAvailable()) {
+            log.info("Datastrip {} is now GR complete", datastripName);
+            itemService.setGRComplete(datastripName);
+        }
     }
 
-    public void updateGRComplete(String datastripName) {
+    @Override
+    public void reconcile() {
 
-        if (itemService.exists(datastripName)) {
+        final Instant reconciliationThreshold = Instant.now().minusSeconds(pwProperties.getReconciliationInterval());
 
-            final L1sDatastrip datastrip = itemService.read(datastripName);
+        itemService.forEachDueForReconciliation(reconciliationThreshold, pwProperties.getBacklogPageSize(), datastrips -> {
+            log.info("Found {} Datastrips due for GR availability check", datastrips.size());
+            datastrips.forEach(this::reconcileGR);
+        });
+    }
 
-            if (!datastrip.isGrComplete()) {
+    private void reconcileGR(L1sDatastrip datastrip) {
 
-                log.info("Checking GR files availability for datastrip {}", datastripName);
+        final String datastripName = datastrip.getName();
 
-                final Map<String, Boolean> availableByGR = datastrip.getAvailableByGR();
+        log.info("Checking GR files availability for datastrip {}", datastripName);
 
-                final Set<String> missingGR =
-                        availableByGR
-                                .entrySet()
-                                .stream()
-                                .filter(stringBooleanEntry -> !stringBooleanEntry.getValue())
-                                .map(Map.Entry::getKey)
-                                .collect(Collectors.toSet());
+        final AvailabilityMap availableByGR = datastrip.getAvailableByGR();
 
-                log.info("Datastrip {} is missing {} GR out of {}", datastripName, missingGR.size(), availableByGR.size());
+        final Set<String> missingGR = new HashSet<>(availableByGR.missingNames());
 
-                final Map<String, Boolean> missingAvailableByGR = obsService.exists(bucketProperties.getL0GRBucket(), missingGR);
+        log.info("Datastrip {} is missing {} GR out of {}", datastripName, missingGR.size(), availableByGR.size());
 
-                log.info("Found {} newly available GR", missingAvailableByGR.entrySet().stream().filter(Map.Entry::getValue).count());
+        if (!missingGR.isEmpty()) {
 
-                datastrip.setAvailableByGR(
-                        Stream.of(availableByGR, missingAvailableByGR)
-                                .flatMap(map -> map.entrySet().stream())
-                                .collect(Collectors.toMap(
-                                        Map.Entry::getKey,
-                                        Map.Entry::getValue,
-                                        (aBoolean, aBoolean2) -> aBoolean2
-                                ))
-                );
+            final Map<String, Boolean> missingAvailableByGR = obsService.exists(bucketProperties.getL0GRBucket(), missingGR);
 
-                if (datastrip.allGRAvailable()) {
-                    log.info("Datastrip {} is now GR complete", datastripName);
-                    datastrip.setGrComplete(true);
-                }
+            log.info("Found {} newly available GR", missingAvailableByGR.entrySet().stream().filter(Map.Entry::getValue).count());
 
-                itemService.update(datastrip);
+            missingAvailableByGR.forEach(availableByGR::setAvailable);
+        }
+
+        // Availability is written right away with the same bitwise update as events, so that neither overwrites the other
+        final Optional<L1sDatastrip> reconciled = itemService.mergeGRAvailability(datastripName, availableByGR);
+
+        if (reconciled.isEmpty()) {
+            log.info("Datastrip {} no longer exists", datastripName);
+            return;
+        }
 
-                log.info("Finished checking GR files availability for datastrip {}", datastripName);
-            }
+        final L1sDatastrip reconciledDatastrip = reconciled.get();
+
+        if (!reconciledDatastrip.isGrComplete() && reconciledDatastrip.allGRAvailable()) {
+            log.info("Datastrip {} is now GR complete", datastripName);
+            // Written right away too, so that the readiness pass following the reconciliation sees it
+            itemService.setGRComplete(datastripName);
+            reconciledDatastrip.setGrComplete(true);
         }
+
+        reconciledDatastrip.setLastReconciliationDate(Instant.now());
+
+        itemService.update(reconciledDatastrip);
+
+        log.info("Finished checking GR files availability for datastrip {}", datastripName);
     }
 
     private void createSharedFolders(Path folderPath) {
@@ -18,6 +18,7 @@ package eu.csgroup.coprs.ps2.pw.l1s.service.prepare;
 
 import eu.csgroup.coprs.ps2.core.common.model.processing.DatatakeType;
 import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.service.PWItemService;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sAuxFile;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastrip;
@@ -26,14 +27,17 @@ import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastripMapper;
 import eu.csgroup.coprs.ps2.pw.l1s.repository.L1sDatastripEntityRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 
 @Slf4j
@@ -41,8 +45,12 @@ import java.util.stream.Collectors;
 @Transactional
 public class L1sDatastripService extends PWItemService<L1sDatastrip, L1sDatastripEntity> {
 
-    public L1sDatastripService(L1sDatastripEntityRepository datastripEntityRepository, L1sDatastripMapper datastripMapper) {
-        super(datastripEntityRepository, datastripMapper);
+    private static final String AVAILABLE_BY_GR_FIELD = "availableByGR";
+    private static final String GR_COMPLETE_FIELD = "grComplete";
+    private static final String LAST_RECONCILIATION_DATE_FIELD = "lastReconciliationDate";
+
+    public L1sDatastripService(L1sDatastripEntityRepository datastripEntityRepository, L1sDatastripMapper datastripMapper, MongoTemplate mongoTemplate) {
+        super(datastripEntityRepository, datastripMapper, mongoTemplate, L1sDatastripEntity.class);
     }
 
 
@@ -60,16 +68,14 @@ public class L1sDatastripService extends PWItemService<L1sDatastrip, L1sDatastri
         datastripEntity
                 .setFolder(folder)
                 .setDatatakeType(datatakeType)
-                .setAvailableByGR(
-                        grList.stream().collect(Collectors.toMap(Function.identity(), o -> false))
-                )
+                .setAvailableByGR(AvailabilityMap.of(grList))
                 .setName(datastripName)
                 .setStartTime(datastripTimes.getLeft())
                 .setStopTime(datastripTimes.getRight())
                 .setSatellite(satellite)
                 .setT0PdgsDate(t0PdgsDate)
                 .setAvailableByAux(
-                        Arrays.stream(L1sAuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> false))
+                        AvailabilityMap.of(Arrays.stream(L1sAuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList())
                 );
 
         itemRepository.save(datastripEntity);
@@ -77,22 +83,67 @@ public class L1sDatastripService extends PWItemService<L1sDatastrip, L1sDatastri
         return itemMapper.toItem(datastripEntity);
     }
 
-    public List<L1sDatastrip> readAll(boolean grComplete, boolean ready, boolean jobOrderCreated) {
-        final List<L1sDatastrip> datastrips = toItems(
-                ((L1sDatastripEntityRepository) itemRepository).findAllByGrCompleteAndReadyAndJobOrderCreated(grComplete, ready, jobOrderCreated)
+    /**
+     * Browses the Datastrips waiting for GR that were not checked against OBS since the given date, a page at a time, with their GR availability.
+     */
+    public void forEachDueForReconciliation(Instant reconciliationThreshold, int pageSize, Consumer<List<L1sDatastrip>> pageConsumer) {
+        forEachPage(
+                statusCriteria(false, false)
+                        .and(GR_COMPLETE_FIELD).is(false)
+                        .orOperator(
+                                Criteria.where(LAST_RECONCILIATION_DATE_FIELD).is(null),
+                                Criteria.where(LAST_RECONCILIATION_DATE_FIELD).lt(reconciliationThreshold)
+                        ),
+                List.of(),
+                pageSize,
+                pageConsumer
         );
-        log.debug(RETRIEVING_MULTIPLE_ITEMS, datastrips.size());
-        return datastrips;
+    }
+
+    public Optional<L1sDatastrip> setGRAvailable(String datastripName, String grName) {
+        log.debug("Setting GR {} available for Datastrip {}", grName, datastripName);
+        return setAvailable(datastripName, AVAILABLE_BY_GR_FIELD, L1sDatastripEntity::getAvailableByGR, grName);
+    }
+
+    /**
+     * Flags the GR found available during a reconciliation, keeping the ones flagged meanwhile from catalog events.
+     */
+    public Optional<L1sDatastrip> mergeGRAvailability(String datastripName, AvailabilityMap availableByGR) {
+        log.debug("Setting GR available for Datastrip {}: {}", datastripName, availableByGR.availableNames());
+        return mergeAvailability(datastripName, AVAILABLE_BY_GR_FIELD, availableByGR);
+    }
+
+    public void setGRComplete(String datastripName) {
+
+        log.debug("Setting Datastrip {} GR complete", datastripName);
+
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where(ID_FIELD).is(datastripName)),
+                newUpdate().set(GR_COMPLETE_FIELD, true),
+                L1sDatastripEntity.class
+        );
+
+        stateCache.evict(List.of(datastripName));
     }
 
     @Override
-    protected void updateEntity(L1sDatastripEntity datastripEntity, L1sDatastripEntity updatedDatastripEntity) {
-        datastripEntity
-                .setAvailableByGR(updatedDatastripEntity.getAvailableByGR())
-                .setGrComplete(updatedDatastripEntity.isGrComplete())
-                .setAvailableByAux(updatedDatastripEntity.getAvailableByAux())
-                .setReady(updatedDatastripEntity.isReady())
-                .setJobOrderCreated(updatedDatastripEntity.isJobOrderCreated());
+    protected List<String> getUpdatableFields() {
+        return List.of(GR_COMPLETE_FIELD, LAST_RECONCILIATION_DATE_FIELD, AVAILABLE_BY_AUX_FIELD, READY_FIELD, JOB_ORDER_CREATED_FIELD);
+    }
+
+    @Override
+    protected List<String> getAvailabilityFields() {
+        return List.of(AVAILABLE_BY_GR_FIELD, AVAILABLE_BY_AUX_FIELD);
+    }
+
+    @Override
+    protected Optional<String> getInputCompleteField() {
+        return Optional.of(GR_COMPLETE_FIELD);
+    }
+
+    @Override
+    protected List<String> getJobOnlyFields() {
+        return List.of(AVAILABLE_BY_GR_FIELD);
     }
 
 }
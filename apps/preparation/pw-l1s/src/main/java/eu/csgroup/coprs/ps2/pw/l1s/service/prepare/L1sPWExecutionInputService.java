@@ -103,7 +103,7 @@ public class L1sPWExecutionInputService implements PWExecutionInputService<L1Exe
     }
 
     private Set<FileInfo> getGRFileInfos(L1sDatastrip datastrip, Path dsPath) {
-        return datastrip.getAvailableByGR().keySet()
+        return datastrip.getAvailableByGR().getNames()
                 .stream()
                 .map(gr -> new FileInfo()
                         .setBucket(bucketProperties.getL0GRBucket())
@@ -77,7 +77,7 @@ public class L1sPWInputManagementService implements PWInputManagementService {
                             MessageParameters.DATASTRIP_ID_FIELD,
                             String.class
                     );
-                    managementService.updateGRComplete(datastripName);
+                    managementService.updateGRComplete(datastripName, fileName);
                     taskReport.end(product + " is GR, updating datastrip");
                 }
                 default -> taskReport.end(product + " is AUX, updating datastrips");
@@ -22,6 +22,8 @@ import eu.csgroup.coprs.ps2.core.common.settings.FolderParameters;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.obs.config.ObsBucketProperties;
 import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastrip;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
@@ -35,10 +37,14 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -47,7 +53,7 @@ class L1sDatastripManagementServiceTest extends AbstractTest {
 
     private static final UUID AUX_UID = UUID.randomUUID();
     private static final String TMP_DS_PATH = "/tmp/" + AUX_UID + "/" + FolderParameters.INPUT_FOLDER + "/" + FolderParameters.DS_FOLDER;
-    private static final Map<String, Boolean> availableByGR = Map.of("foo", true, "bar", false, "foobar", false);
+    private static final List<String> names = List.of("foo", "bar", "foobar");
     private static final Set<String> missingGR = Set.of("bar", "foobar");
     private static final Map<String, Boolean> missingAvailableByGR = Map.of("bar", true, "foobar", true);
 
@@ -61,6 +67,8 @@ class L1sDatastripManagementServiceTest extends AbstractTest {
     private ObsService obsService;
     @Mock
     private ObsBucketProperties bucketProperties;
+    @Mock
+    private PWProperties pwProperties;
 
     @InjectMocks
     private L1sDatastripManagementService datastripManagementService;
@@ -71,10 +79,10 @@ class L1sDatastripManagementServiceTest extends AbstractTest {
     public void setup() throws Exception {
 
         waitingDatastrip = new L1sDatastrip().setGrComplete(false);
-        waitingDatastrip.setAvailableByGR(availableByGR);
+        waitingDatastrip.setAvailableByGR(AvailabilityMap.of(names).setAvailable("foo", true));
         waitingDatastrip.setName(TestHelper.DATASTRIP_NAME);
 
-        datastripManagementService = new L1sDatastripManagementService(catalogService, datastripService, sharedProperties, obsService, bucketProperties);
+        datastripManagementService = new L1sDatastripManagementService(catalogService, datastripService, sharedProperties, obsService, bucketProperties, pwProperties);
     }
 
     @Override
@@ -85,22 +93,97 @@ class L1sDatastripManagementServiceTest extends AbstractTest {
     @Test
     void updateGRComplete() {
         // Given
-        when(datastripService.exists(any())).thenReturn(true);
-        when(datastripService.read(any())).thenReturn(waitingDatastrip);
+        names.forEach(name -> waitingDatastrip.getAvailableByGR().setAvailable(name, true));
+        when(datastripService.setGRAvailable(any(), any())).thenReturn(Optional.of(waitingDatastrip));
+        // When
+        datastripManagementService.updateGRComplete(TestHelper.DATASTRIP_NAME, "foobar");
+        // Then
+        verify(datastripService).setGRComplete(TestHelper.DATASTRIP_NAME);
+    }
+
+    @Test
+    void updateGRComplete_missing() {
+        // Given
+        when(datastripService.setGRAvailable(any(), any())).thenReturn(Optional.of(waitingDatastrip));
+        // When
+        datastripManagementService.updateGRComplete(TestHelper.DATASTRIP_NAME, "bar");
+        // Then
+        verify(datastripService, never()).setGRComplete(any());
+        verify(obsService, never()).exists(anyString(), anySet());
+    }
+
+    @Test
+    void updateGRComplete_unknown() {
+        // Given
+        when(datastripService.setGRAvailable(any(), any())).thenReturn(Optional.empty());
+        // When
+        datastripManagementService.updateGRComplete(TestHelper.DATASTRIP_NAME, "bar");
+        // Then
+        verify(datastripService, never()).setGRComplete(any());
+    }
+
+    @Test
+    void reconcile() {
+        // Given
+        when(pwProperties.getReconciliationInterval()).thenReturn(900L);
+        when(pwProperties.getBacklogPageSize()).thenReturn(10);
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<L1sDatastrip>>>getArgument(2).accept(List.of(waitingDatastrip));
+            return null;
+        }).when(datastripService).forEachDueForReconciliation(any(), eq(10), any());
+        when(datastripService.mergeGRAvailability(eq(TestHelper.DATASTRIP_NAME), any())).thenReturn(Optional.of(waitingDatastrip));
         when(datastripService.update(any())).thenReturn(waitingDatastrip);
         when(bucketProperties.getL0GRBucket()).thenReturn("bucket");
         when(obsService.exists(anyString(), eq(missingGR))).thenReturn(missingAvailableByGR);
         // When
-        datastripManagementService.updateGRComplete(TestHelper.DATASTRIP_NAME);
+        datastripManagementService.reconcile();
         // Then
+        verify(datastripService).mergeGRAvailability(TestHelper.DATASTRIP_NAME, waitingDatastrip.getAvailableByGR());
+        verify(datastripService).setGRComplete(TestHelper.DATASTRIP_NAME);
         assertTrue(waitingDatastrip.isGrComplete());
+        assertNotNull(waitingDatastrip.getLastReconciliationDate());
+    }
+
+    @Test
+    void reconcile_deleted() {
+        // Given
+        when(pwProperties.getReconciliationInterval()).thenReturn(900L);
+        when(pwProperties.getBacklogPageSize()).thenReturn(10);
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<L1sDatastrip>>>getArgument(2).accept(List.of(waitingDatastrip));
+            return null;
+        }).when(datastripService).forEachDueForReconciliation(any(), eq(10), any());
+        when(datastripService.mergeGRAvailability(eq(TestHelper.DATASTRIP_NAME), any())).thenReturn(Optional.empty());
+        when(bucketProperties.getL0GRBucket()).thenReturn("bucket");
+        when(obsService.exists(anyString(), eq(missingGR))).thenReturn(missingAvailableByGR);
+        // When
+        datastripManagementService.reconcile();
+        // Then
+        verify(datastripService, never()).setGRComplete(any());
+        verify(datastripService, never()).update(any());
+    }
+
+    @Test
+    void reconcile_none() {
+        // Given
+        when(pwProperties.getReconciliationInterval()).thenReturn(900L);
+        when(pwProperties.getBacklogPageSize()).thenReturn(10);
+        // When
+        datastripManagementService.reconcile();
+        // Then
+        verify(obsService, never()).exists(anyString(), anySet());
+        verify(datastripService, never()).update(any());
     }
 
     @Test
     void create() throws IOException {
         // Given
         when(sharedProperties.getSharedFolderRoot()).thenReturn("/tmp");
-        when(datastripService.create(any(), any(), any(), any(), any(), any(), any())).thenReturn(new L1sDatastrip());
+        when(datastripService.create(any(), any(), any(), any(), any(), any(), any())).thenReturn(waitingDatastrip);
+        when(datastripService.mergeGRAvailability(eq(TestHelper.DATASTRIP_NAME), any())).thenReturn(Optional.of(waitingDatastrip));
+        when(datastripService.update(any())).thenReturn(waitingDatastrip);
+        when(bucketProperties.getL0GRBucket()).thenReturn("bucket");
+        when(obsService.exists(anyString(), eq(missingGR))).thenReturn(missingAvailableByGR);
         try (MockedStatic<UUID> uuidMockedStatic = Mockito.mockStatic(UUID.class)) {
             uuidMockedStatic.when(UUID::randomUUID).thenReturn(AUX_UID);
             doAnswer(invocation -> {
@@ -18,26 +18,45 @@ package eu.csgroup.coprs.ps2.pw.l1s.service.prepare;
 
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastrip;
+import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastripEntity;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastripMapper;
 import eu.csgroup.coprs.ps2.pw.l1s.repository.L1sDatastripEntityRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.CloseableIterator;
+
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class L1sDatastripServiceTest extends AbstractTest {
 
     @Mock
     private L1sDatastripEntityRepository repository;
+    @Mock
+    private MongoTemplate mongoTemplate;
 
     private final L1sDatastripMapper datastripMapper = Mappers.getMapper(L1sDatastripMapper.class);
 
@@ -46,7 +65,7 @@ class L1sDatastripServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        datastripService = new L1sDatastripService(repository, datastripMapper);
+        datastripService = new L1sDatastripService(repository, datastripMapper, mongoTemplate);
     }
 
     @Override
@@ -78,9 +97,9 @@ class L1sDatastripServiceTest extends AbstractTest {
         assertEquals(TestHelper.T0_PDGS_DATE, create.getT0PdgsDate());
         assertEquals(TestHelper.DATATAKE_TYPE, create.getDatatakeType());
         assertNotNull(create.getAvailableByAux());
-        assertTrue(create.getAvailableByAux().values().stream().noneMatch(Boolean::booleanValue));
+        assertEquals(0, create.getAvailableByAux().availableCount());
         assertEquals(TestHelper.GR_LIST.size(), create.getAvailableByGR().size());
-        assertTrue(create.getAvailableByGR().values().stream().noneMatch(Boolean::booleanValue));
+        assertEquals(0, create.getAvailableByGR().availableCount());
     }
 
     @Test
@@ -100,24 +119,31 @@ class L1sDatastripServiceTest extends AbstractTest {
     }
 
     @Test
-    void readAll() {
-        // Gven
-        when(repository.findAllByGrCompleteAndReadyAndJobOrderCreated(anyBoolean(), anyBoolean(), anyBoolean())).thenReturn(List.of(TestHelper.DATASTRIP_ENTITY));
+    @SuppressWarnings("unchecked")
+    void forEachDueForReconciliation() {
+        // Given
+        final CloseableIterator<L1sDatastripEntity> iterator = mock(CloseableIterator.class);
+        when(iterator.hasNext()).thenReturn(true, false);
+        when(iterator.next()).thenReturn(TestHelper.DATASTRIP_ENTITY);
+        when(mongoTemplate.stream(any(Query.class), eq(L1sDatastripEntity.class))).thenReturn(iterator);
+        final List<L1sDatastrip> datastrips = new ArrayList<>();
         // When
-        final List<L1sDatastrip> l1sDatastrips = datastripService.readAll(true, true, true);
+        datastripService.forEachDueForReconciliation(Instant.now(), 10, datastrips::addAll);
         // Then
-        assertEquals(1, l1sDatastrips.size());
+        assertEquals(1, datastrips.size());
+        verify(iterator).close();
     }
 
     @Test
     void update() {
         // Given
-        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
         mockFind();
+        mockConverter();
         // When
         final L1sDatastrip update = datastripService.update(TestHelper.UPDATED_DATASTRIP);
         // Then
         assertNotNull(update);
+        verify(repository, never()).save(any());
         assertEquals(TestHelper.DATASTRIP_NAME, update.getName());
         assertEquals(TestHelper.FOLDER, update.getFolder());
         assertEquals(TestHelper.START_TIME, update.getStartTime());
@@ -128,6 +154,62 @@ class L1sDatastripServiceTest extends AbstractTest {
         assertTrue(update.isReady());
     }
 
+    @Test
+    void setGRAvailable() {
+        // Given
+        mockConverter();
+        when(mongoTemplate.findOne(any(Query.class), eq(L1sDatastripEntity.class))).thenReturn(TestHelper.DATASTRIP_ENTITY);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(L1sDatastripEntity.class)))
+                .thenReturn(TestHelper.DATASTRIP_ENTITY);
+        // When
+        final Optional<L1sDatastrip> datastrip = datastripService.setGRAvailable(TestHelper.DATASTRIP_NAME, TestHelper.GR_LIST.get(0));
+        // Then
+        assertTrue(datastrip.isPresent());
+        assertEquals(TestHelper.DATASTRIP_NAME, datastrip.get().getName());
+    }
+
+    @Test
+    void setGRAvailable_unknown() {
+        // Given
+        when(mongoTemplate.findOne(any(Query.class), eq(L1sDatastripEntity.class))).thenReturn(TestHelper.DATASTRIP_ENTITY);
+        // When
+        final Optional<L1sDatastrip> datastrip = datastripService.setGRAvailable(TestHelper.DATASTRIP_NAME, "unknown");
+        // Then
+        assertTrue(datastrip.isEmpty());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(L1sDatastripEntity.class));
+    }
+
+    @Test
+    void mergeGRAvailability() {
+        // Given
+        mockConverter();
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(L1sDatastripEntity.class)))
+                .thenReturn(TestHelper.DATASTRIP_ENTITY);
+        final AvailabilityMap availableByGR = AvailabilityMap.of(TestHelper.GR_LIST).setAvailable(TestHelper.GR_LIST.get(0), true);
+        // When
+        final Optional<L1sDatastrip> datastrip = datastripService.mergeGRAvailability(TestHelper.DATASTRIP_NAME, availableByGR);
+        // Then
+        assertTrue(datastrip.isPresent());
+        verify(mongoTemplate).findAndModify(
+                any(Query.class),
+                argThat(update -> update.getUpdateObject().containsKey("$bit") && !update.getUpdateObject().get("$set", Document.class).containsKey("availableByGR")),
+                any(FindAndModifyOptions.class),
+                eq(L1sDatastripEntity.class)
+        );
+    }
+
+    @Test
+    void setGRComplete() {
+        // When
+        datastripService.setGRComplete(TestHelper.DATASTRIP_NAME);
+        // Then
+        verify(mongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(L1sDatastripEntity.class));
+    }
+
+    private void mockConverter() {
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+    }
+
     private void mockExists(boolean exists) {
         when(repository.existsById(TestHelper.DATASTRIP_NAME)).thenReturn(exists);
     }
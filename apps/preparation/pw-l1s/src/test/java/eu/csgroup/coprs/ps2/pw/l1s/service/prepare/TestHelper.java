@@ -17,6 +17,7 @@
 package eu.csgroup.coprs.ps2.pw.l1s.service.prepare;
 
 import eu.csgroup.coprs.ps2.core.common.model.processing.DatatakeType;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sAuxFile;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastrip;
 import eu.csgroup.coprs.ps2.pw.l1s.model.L1sDatastripEntity;
@@ -28,8 +29,6 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public final class TestHelper {
 
@@ -55,9 +54,9 @@ public final class TestHelper {
     public static final L1sDatastrip DATASTRIP = ((L1sDatastrip) new L1sDatastrip()
             .setFolder(FOLDER)
             .setDatatakeType(DATATAKE_TYPE)
-            .setAvailableByGR(GR_LIST.stream().collect(Collectors.toMap(Function.identity(), o -> false)))
+            .setAvailableByGR(availabilityMap(GR_LIST, false))
             .setName(DATASTRIP_NAME)
-            .setAvailableByAux(Arrays.stream(L1sAuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> false)))
+            .setAvailableByAux(availabilityMap(Arrays.stream(L1sAuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList(), false))
             .setStartTime(START_TIME)
             .setStopTime(STOP_TIME)
             .setT0PdgsDate(T0_PDGS_DATE)
@@ -66,9 +65,9 @@ public final class TestHelper {
     public static final L1sDatastripEntity DATASTRIP_ENTITY = (L1sDatastripEntity) new L1sDatastripEntity()
             .setFolder(FOLDER)
             .setDatatakeType(DATATAKE_TYPE)
-            .setAvailableByGR(GR_LIST.stream().collect(Collectors.toMap(Function.identity(), o -> false)))
+            .setAvailableByGR(availabilityMap(GR_LIST, false))
             .setName(DATASTRIP_NAME)
-            .setAvailableByAux(Arrays.stream(L1sAuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> false)))
+            .setAvailableByAux(availabilityMap(Arrays.stream(L1sAuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList(), false))
             .setStartTime(START_TIME)
             .setStopTime(STOP_TIME)
             .setT0PdgsDate(T0_PDGS_DATE)
@@ -77,15 +76,21 @@ public final class TestHelper {
     public static final L1sDatastrip UPDATED_DATASTRIP = ((L1sDatastrip) new L1sDatastrip()
             .setFolder(FOLDER)
             .setDatatakeType(DATATAKE_TYPE)
-            .setAvailableByGR(GR_LIST.stream().collect(Collectors.toMap(Function.identity(), o -> true)))
+            .setAvailableByGR(availabilityMap(GR_LIST, true))
             .setName(DATASTRIP_NAME)
-            .setAvailableByAux(Arrays.stream(L1sAuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> true)))
+            .setAvailableByAux(availabilityMap(Arrays.stream(L1sAuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList(), true))
             .setStartTime(START_TIME)
             .setStopTime(STOP_TIME)
             .setT0PdgsDate(T0_PDGS_DATE)
             .setSatellite(SATELLITE)
             .setReady(true));
 
+    private static AvailabilityMap availabilityMap(List<String> names, boolean available) {
+        final AvailabilityMap availabilityMap = AvailabilityMap.of(names);
+        names.forEach(name -> availabilityMap.setAvailable(name, available));
+        return availabilityMap;
+    }
+
     private TestHelper() {
     }
 
@@ -88,7 +88,7 @@ class L1sPWInputManagementServiceTest extends AbstractTest {
 
         // Then
         verify(managementService, never()).create(any(), any(), any(), any());
-        verify(managementService).updateGRComplete(any());
+        verify(managementService).updateGRComplete(any(), any());
         assertNotNull(uuid);
     }
 
@@ -104,7 +104,7 @@ class L1sPWInputManagementServiceTest extends AbstractTest {
 
         // Then
         verify(managementService, never()).create(any(), any(), any(), any());
-        verify(managementService, never()).updateGRComplete(any());
+        verify(managementService, never()).updateGRComplete(any(), any());
         assertNotNull(uuid);
     }
 
@@ -16,11 +16,12 @@
 
 package eu.csgroup.coprs.ps2.pw.l2.model;
 
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItem;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.Map;
+import java.time.Instant;
 
 
 @Getter
@@ -28,11 +29,12 @@ import java.util.Map;
 public class L2Datastrip extends PWItem {
 
     private String folder;
-    private Map<String, Boolean> availableByTL;
+    private AvailabilityMap availableByTL;
     private boolean tlComplete;
+    private Instant lastReconciliationDate;
 
     public boolean allTLAvailable() {
-        return availableByTL.values().stream().allMatch(Boolean::booleanValue);
+        return availableByTL.allAvailable();
     }
 
 }
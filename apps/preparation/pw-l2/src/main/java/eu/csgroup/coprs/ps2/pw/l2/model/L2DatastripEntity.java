@@ -16,12 +16,13 @@
 
 package eu.csgroup.coprs.ps2.pw.l2.model;
 
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.model.PWItemEntity;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.Map;
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -30,8 +31,10 @@ public class L2DatastripEntity extends PWItemEntity {
 
     private String folder;
 
-    private Map<String, Boolean> availableByTL;
+    private AvailabilityMap availableByTL;
 
     private boolean tlComplete;
 
+    private Instant lastReconciliationDate;
+
 }
@@ -17,6 +17,8 @@
 package eu.csgroup.coprs.ps2.pw.l2.service;
 
 import eu.csgroup.coprs.ps2.core.common.model.l2.L2ExecutionInput;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import eu.csgroup.coprs.ps2.core.pw.service.PWBackpressureService;
 import eu.csgroup.coprs.ps2.core.pw.service.PWProcessorService;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2Datastrip;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2DatastripEntity;
@@ -26,6 +28,7 @@ import eu.csgroup.coprs.ps2.pw.l2.service.prepare.L2DatastripService;
 import eu.csgroup.coprs.ps2.pw.l2.service.prepare.L2PWExecutionInputService;
 import eu.csgroup.coprs.ps2.pw.l2.service.setup.L2PWInputManagementService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Configuration;
 
 @Slf4j
@@ -36,9 +39,12 @@ public class L2PWProcessorService extends PWProcessorService<L2ExecutionInput, L
             L2PWInputManagementService inputManagementService,
             L2DatastripManagementService itemManagementService,
             L2PWExecutionInputService executionInputService,
-            L2PWMessageService messageService
+            L2PWMessageService messageService,
+            PWBackpressureService backpressureService,
+            StreamBridge streamBridge,
+            PWProperties pwProperties
     ) {
-        super(inputManagementService, itemManagementService, executionInputService, messageService);
+        super(inputManagementService, itemManagementService, executionInputService, messageService, backpressureService, streamBridge, pwProperties);
     }
 
 }
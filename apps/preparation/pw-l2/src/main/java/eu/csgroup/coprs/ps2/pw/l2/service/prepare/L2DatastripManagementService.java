@@ -24,6 +24,8 @@ import eu.csgroup.coprs.ps2.core.common.utils.DatastripUtils;
 import eu.csgroup.coprs.ps2.core.common.utils.FileOperationUtils;
 import eu.csgroup.coprs.ps2.core.obs.config.ObsBucketProperties;
 import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.service.PWItemManagementService;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2AuxFile;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2Datastrip;
@@ -36,12 +38,13 @@ import org.springframework.transaction.annotation.Transactional;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 
 @Slf4j
@@ -52,19 +55,16 @@ public class L2DatastripManagementService extends PWItemManagementService<L2Data
     private final SharedProperties sharedProperties;
     private final ObsService obsService;
     private final ObsBucketProperties bucketProperties;
+    private final PWProperties pwProperties;
 
     public L2DatastripManagementService(CatalogService catalogService, L2DatastripService itemService, SharedProperties sharedProperties, ObsService obsService,
-            ObsBucketProperties bucketProperties
+            ObsBucketProperties bucketProperties, PWProperties pwProperties
     ) {
         super(catalogService, itemService);
         this.sharedProperties = sharedProperties;
         this.obsService = obsService;
         this.bucketProperties = bucketProperties;
-    }
-
-    @Override
-    public List<L2Datastrip> getMissingAux() {
-        return itemService.readAll(true, false, false);
+        this.pwProperties = pwProperties;
     }
 
     @Override
@@ -72,10 +72,9 @@ public class L2DatastripManagementService extends PWItemManagementService<L2Data
         return item.isTlComplete() &&
                 // Only non-optional AUX need to be available for the DS to be ready for processing
                 item.getAvailableByAux()
-                        .entrySet()
+                        .missingNames()
                         .stream()
-                        .filter(entry -> !L2AuxFile.valueOf(entry.getKey()).isOptional())
-                        .allMatch(Map.Entry::getValue);
+                        .allMatch(auxName -> L2AuxFile.valueOf(auxName).isOptional());
     }
 
     public void create(String datastripName, String satellite, Instant t0PdgsDate, String storagePath) {
@@ -101,58 +100,77 @@ public class L2DatastripManagementService extends PWItemManagementService<L2Data
             final Pair<Instant, Instant> datastripTimes = DatastripUtils.getDatastripTimes(datastripPath);
             final List<String> tlList = DatastripUtils.getTLList(datastripPath);
 
-            itemService.create(datastripName, datastripFolder, datastripTimes, satellite, t0PdgsDate, tlList);
+            // TL may have been catalogued before their Datastrip, so they are checked once against OBS
+            reconcileTL(itemService.create(datastripName, datastripFolder, datastripTimes, satellite, t0PdgsDate, tlList));
         }
+    }
+
+    public void updateTLComplete(String datastripName, String tlName) {
 
-        updateTLComplete(datastripName);
+        final Optional<L2Datastrip> datastrip = itemService.setTLAvailable(datastripName, tlName);
+
+        if (datastrip.isEmpty()) {
+            log.info("No Datastrip {} expecting TL {}, availability will be checked on Datastrip creation", datastripName, tlName);
+        } else if (!datastrip.get().isTlComplete() && datastrip.get().allTLAvailable()) {
+            log.info("Datastrip {} is now TL complete", datastripName);
+            itemService.setTLComplete(datastripName);
+        }
     }
 
-    public void updateTLComplete(String datastripName) {
+    @Override
+    public void reconcile() {
 
-        if (itemService.exists(datastripName)) {
+        final Instant reconciliationThreshold = Instant.now().minusSeconds(pwProperties.getReconciliationInterval());
 
-            final L2Datastrip datastrip = itemService.read(datastripName);
+        itemService.forEachDueForReconciliation(reconciliationThreshold, pwProperties.getBacklogPageSize(), datastrips -> {
+            log.info("Found {} Datastrips due for TL availability check", datastrips.size());
+            datastrips.forEach(this::reconcileTL);
+        });
+    }
 
-            if (!datastrip.isTlComplete()) {
+    private void reconcileTL(L2Datastrip datastrip) {
 
-                log.info("Checking TL files availability for datastrip {}", datastripName);
+        final String datastripName = datastrip.getName();
 
-                final Map<String, Boolean> availableByTL = datastrip.getAvailableByTL();
+        log.info("Checking TL files availability for datastrip {}", datastripName);
 
-                final Set<String> missingTL =
-                        availableByTL
-                                .entrySet()
-                                .stream()
-                                .filter(stringBooleanEntry -> !stringBooleanEntry.getValue())
-                                .map(Map.Entry::getKey)
-                                .collect(Collectors.toSet());
+        final AvailabilityMap availableByTL = datastrip.getAvailableByTL();
 
-                log.info("Datastrip {} is missing {} TL out of {}", datastripName, missingTL.size(), availableByTL.size());
+        final Set<String> missingTL = new HashSet<>(availableByTL.missingNames());
 
-                final Map<String, Boolean> missingAvailableByTL = obsService.exists(bucketProperties.getL1TLBucket(), missingTL);
+        log.info("Datastrip {} is missing {} TL out of {}", datastripName, missingTL.size(), availableByTL.size());
 
-                log.info("Found {} newly available TL", missingAvailableByTL.entrySet().stream().filter(Map.Entry::getValue).count());
+        if (!missingTL.isEmpty()) {
 
-                datastrip.setAvailableByTL(
-                        Stream.of(availableByTL, missingAvailableByTL)
-                                .flatMap(map -> map.entrySet().stream())
-                                .collect(Collectors.toMap(
-                                        Map.Entry::getKey,
-                                        Map.Entry::getValue,
-                                        (aBoolean, aBoolean2) -> aBoolean2
-                                ))
-                );
+            final Map<String, Boolean> missingAvailableByTL = obsService.exists(bucketProperties.getL1TLBucket(), missingTL);
 
-                if (datastrip.allTLAvailable()) {
-                    log.info("Datastrip {} is now TL complete", datastripName);
-                    datastrip.setTlComplete(true);
-                }
+            log.info("Found {} newly available TL", missingAvailableByTL.entrySet().stream().filter(Map.Entry::getValue).count());
 
-                itemService.update(datastrip);
+            missingAvailableByTL.forEach(availableByTL::setAvailable);
+        }
+
+        // Availability is written right away with the same bitwise update as events, so that neither overwrites the other
+        final Optional<L2Datastrip> reconciled = itemService.mergeTLAvailability(datastripName, availableByTL);
+
+        if (reconciled.isEmpty()) {
+            log.info("Datastrip {} no longer exists", datastripName);
+            return;
+        }
 
-                log.info("Finished checking TL files availability for datastrip {}", datastripName);
-            }
+        final L2Datastrip reconciledDatastrip = reconciled.get();
+
+        if (!reconciledDatastrip.isTlComplete() && reconciledDatastrip.allTLAvailable()) {
+            log.info("Datastrip {} is now TL complete", datastripName);
+            // Written right away too, so that the readiness pass following the reconciliation sees it
+            itemService.setTLComplete(datastripName);
+            reconciledDatastrip.setTlComplete(true);
         }
+
+        reconciledDatastrip.setLastReconciliationDate(Instant.now());
+
+        itemService.update(reconciledDatastrip);
+
+        log.info("Finished checking TL files availability for datastrip {}", datastripName);
     }
 
     private void createSharedFolders(Path folderPath) {
@@ -17,6 +17,7 @@
 package eu.csgroup.coprs.ps2.pw.l2.service.prepare;
 
 import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.core.pw.service.PWItemService;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2AuxFile;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2Datastrip;
@@ -25,14 +26,17 @@ import eu.csgroup.coprs.ps2.pw.l2.model.L2DatastripMapper;
 import eu.csgroup.coprs.ps2.pw.l2.repository.L2DatastripEntityRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 
 @Slf4j
@@ -40,8 +44,12 @@ import java.util.stream.Collectors;
 @Transactional
 public class L2DatastripService extends PWItemService<L2Datastrip, L2DatastripEntity> {
 
-    public L2DatastripService(L2DatastripEntityRepository datastripEntityRepository, L2DatastripMapper datastripMapper) {
-        super(datastripEntityRepository, datastripMapper);
+    private static final String AVAILABLE_BY_TL_FIELD = "availableByTL";
+    private static final String TL_COMPLETE_FIELD = "tlComplete";
+    private static final String LAST_RECONCILIATION_DATE_FIELD = "lastReconciliationDate";
+
+    public L2DatastripService(L2DatastripEntityRepository datastripEntityRepository, L2DatastripMapper datastripMapper, MongoTemplate mongoTemplate) {
+        super(datastripEntityRepository, datastripMapper, mongoTemplate, L2DatastripEntity.class);
     }
 
 
@@ -56,16 +64,14 @@ public class L2DatastripService extends PWItemService<L2Datastrip, L2DatastripEn
         L2DatastripEntity datastripEntity = new L2DatastripEntity();
         datastripEntity
                 .setFolder(folder)
-                .setAvailableByTL(
-                        tlList.stream().collect(Collectors.toMap(Function.identity(), o -> false))
-                )
+                .setAvailableByTL(AvailabilityMap.of(tlList))
                 .setName(datastripName)
                 .setStartTime(datastripTimes.getLeft())
                 .setStopTime(datastripTimes.getRight())
                 .setSatellite(satellite)
                 .setT0PdgsDate(t0PdgsDate)
                 .setAvailableByAux(
-                        Arrays.stream(L2AuxFile.values()).collect(Collectors.toMap(Enum::name, o -> false))
+                        AvailabilityMap.of(Arrays.stream(L2AuxFile.values()).map(Enum::name).toList())
                 );
 
         itemRepository.save(datastripEntity);
@@ -73,22 +79,67 @@ public class L2DatastripService extends PWItemService<L2Datastrip, L2DatastripEn
         return itemMapper.toItem(datastripEntity);
     }
 
-    public List<L2Datastrip> readAll(boolean tlComplete, boolean ready, boolean jobOrderCreated) {
-        final List<L2Datastrip> datastrips = toItems(
-                ((L2DatastripEntityRepository) itemRepository).findAllByTlCompleteAndReadyAndJobOrderCreated(tlComplete, ready, jobOrderCreated)
+    /**
+     * Browses the Datastrips waiting for TL that were not checked against OBS since the given date, a page at a time, with their TL availability.
+     */
+    public void forEachDueForReconciliation(Instant reconciliationThreshold, int pageSize, Consumer<List<L2Datastrip>> pageConsumer) {
+        forEachPage(
+                statusCriteria(false, false)
+                        .and(TL_COMPLETE_FIELD).is(false)
+                        .orOperator(
+                                Criteria.where(LAST_RECONCILIATION_DATE_FIELD).is(null),
+                                Criteria.where(LAST_RECONCILIATION_DATE_FIELD).lt(reconciliationThreshold)
+                        ),
+                List.of(),
+                pageSize,
+                pageConsumer
         );
-        log.debug(RETRIEVING_MULTIPLE_ITEMS, datastrips.size());
-        return datastrips;
+    }
+
+    public Optional<L2Datastrip> setTLAvailable(String datastripName, String tlName) {
+        log.debug("Setting TL {} available for Datastrip {}", tlName, datastripName);
+        return setAvailable(datastripName, AVAILABLE_BY_TL_FIELD, L2DatastripEntity::getAvailableByTL, tlName);
+    }
+
+    /**
+     * Flags the TL found available during a reconciliation, keeping the ones flagged meanwhile from catalog events.
+     */
+    public Optional<L2Datastrip> mergeTLAvailability(String datastripName, AvailabilityMap availableByTL) {
+        log.debug("Setting TL available for Datastrip {}: {}", datastripName, availableByTL.availableNames());
+        return mergeAvailability(datastripName, AVAILABLE_BY_TL_FIELD, availableByTL);
+    }
+
+    public void setTLComplete(String datastripName) {
+
+        log.debug("Setting Datastrip {} TL complete", datastripName);
+
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where(ID_FIELD).is(datastripName)),
+                newUpdate().set(TL_COMPLETE_FIELD, true),
+                L2DatastripEntity.class
+        );
+
+        stateCache.evict(List.of(datastripName));
     }
 
     @Override
-    protected void updateEntity(L2DatastripEntity datastripEntity, L2DatastripEntity updatedDatastripEntity) {
-        datastripEntity
-                .setAvailableByTL(updatedDatastripEntity.getAvailableByTL())
-                .setTlComplete(updatedDatastripEntity.isTlComplete())
-                .setAvailableByAux(updatedDatastripEntity.getAvailableByAux())
-                .setReady(updatedDatastripEntity.isReady())
-                .setJobOrderCreated(updatedDatastripEntity.isJobOrderCreated());
+    protected List<String> getUpdatableFields() {
+        return List.of(TL_COMPLETE_FIELD, LAST_RECONCILIATION_DATE_FIELD, AVAILABLE_BY_AUX_FIELD, READY_FIELD, JOB_ORDER_CREATED_FIELD);
+    }
+
+    @Override
+    protected List<String> getAvailabilityFields() {
+        return List.of(AVAILABLE_BY_TL_FIELD, AVAILABLE_BY_AUX_FIELD);
+    }
+
+    @Override
+    protected Optional<String> getInputCompleteField() {
+        return Optional.of(TL_COMPLETE_FIELD);
+    }
+
+    @Override
+    protected List<String> getJobOnlyFields() {
+        return List.of(AVAILABLE_BY_TL_FIELD);
     }
 
 }
@@ -64,7 +64,7 @@ public class L2PWExecutionInputService implements PWExecutionInputService<L2Exec
 
         final L2ExecutionInput executionInput = new L2ExecutionInput();
         executionInput
-                .setTileList(datastrip.getAvailableByTL().keySet().stream().toList())
+                .setTileList(List.copyOf(datastrip.getAvailableByTL().getNames()))
                 .setDatastrip(datastrip.getName())
                 .setInputFolder(inputPath.toString())
                 .setOutputFolder(rootPath.resolve(FolderParameters.OUTPUT_FOLDER).toString())
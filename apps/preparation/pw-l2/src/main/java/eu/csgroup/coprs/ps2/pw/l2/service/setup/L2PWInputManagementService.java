@@ -77,7 +77,7 @@ public class L2PWInputManagementService implements PWInputManagementService {
                             MessageParameters.DATASTRIP_ID_FIELD,
                             String.class
                     );
-                    managementService.updateTLComplete(datastripName);
+                    managementService.updateTLComplete(datastripName, fileName);
                     taskReport.end(product + " is TL, updating datastrip");
                 }
                 default -> taskReport.end(product + " is AUX, updating datastrips");
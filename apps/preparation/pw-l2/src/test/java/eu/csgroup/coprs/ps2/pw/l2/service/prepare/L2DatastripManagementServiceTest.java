@@ -22,6 +22,8 @@ import eu.csgroup.coprs.ps2.core.common.settings.FolderParameters;
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.obs.config.ObsBucketProperties;
 import eu.csgroup.coprs.ps2.core.obs.service.ObsService;
+import eu.csgroup.coprs.ps2.core.pw.config.PWProperties;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2Datastrip;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
@@ -35,10 +37,14 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -47,7 +53,7 @@ class L2DatastripManagementServiceTest extends AbstractTest {
 
     private static final UUID AUX_UID = UUID.randomUUID();
     private static final String TMP_DS_PATH = "/tmp/" + AUX_UID + "/" + FolderParameters.INPUT_FOLDER + "/" + FolderParameters.DS_FOLDER;
-    private static final Map<String, Boolean> availableByGR = Map.of("foo", true, "bar", false, "foobar", false);
+    private static final List<String> names = List.of("foo", "bar", "foobar");
     private static final Set<String> missingTL = Set.of("bar", "foobar");
     private static final Map<String, Boolean> missingAvailableByTL = Map.of("bar", true, "foobar", true);
 
@@ -61,6 +67,8 @@ class L2DatastripManagementServiceTest extends AbstractTest {
     private ObsService obsService;
     @Mock
     private ObsBucketProperties bucketProperties;
+    @Mock
+    private PWProperties pwProperties;
 
     @InjectMocks
     private L2DatastripManagementService datastripManagementService;
@@ -71,10 +79,10 @@ class L2DatastripManagementServiceTest extends AbstractTest {
     public void setup() throws Exception {
 
         waitingDatastrip = new L2Datastrip().setTlComplete(false);
-        waitingDatastrip.setAvailableByTL(availableByGR);
+        waitingDatastrip.setAvailableByTL(AvailabilityMap.of(names).setAvailable("foo", true));
         waitingDatastrip.setName(TestHelper.DATASTRIP_NAME);
 
-        datastripManagementService = new L2DatastripManagementService(catalogService, datastripService, sharedProperties, obsService, bucketProperties);
+        datastripManagementService = new L2DatastripManagementService(catalogService, datastripService, sharedProperties, obsService, bucketProperties, pwProperties);
     }
 
     @Override
@@ -85,22 +93,97 @@ class L2DatastripManagementServiceTest extends AbstractTest {
     @Test
     void updateTLComplete() {
         // Given
-        when(datastripService.exists(any())).thenReturn(true);
-        when(datastripService.read(any())).thenReturn(waitingDatastrip);
+        names.forEach(name -> waitingDatastrip.getAvailableByTL().setAvailable(name, true));
+        when(datastripService.setTLAvailable(any(), any())).thenReturn(Optional.of(waitingDatastrip));
+        // When
+        datastripManagementService.updateTLComplete(TestHelper.DATASTRIP_NAME, "foobar");
+        // Then
+        verify(datastripService).setTLComplete(TestHelper.DATASTRIP_NAME);
+    }
+
+    @Test
+    void updateTLComplete_missing() {
+        // Given
+        when(datastripService.setTLAvailable(any(), any())).thenReturn(Optional.of(waitingDatastrip));
+        // When
+        datastripManagementService.updateTLComplete(TestHelper.DATASTRIP_NAME, "bar");
+        // Then
+        verify(datastripService, never()).setTLComplete(any());
+        verify(obsService, never()).exists(anyString(), anySet());
+    }
+
+    @Test
+    void updateTLComplete_unknown() {
+        // Given
+        when(datastripService.setTLAvailable(any(), any())).thenReturn(Optional.empty());
+        // When
+        datastripManagementService.updateTLComplete(TestHelper.DATASTRIP_NAME, "bar");
+        // Then
+        verify(datastripService, never()).setTLComplete(any());
+    }
+
+    @Test
+    void reconcile() {
+        // Given
+        when(pwProperties.getReconciliationInterval()).thenReturn(900L);
+        when(pwProperties.getBacklogPageSize()).thenReturn(10);
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<L2Datastrip>>>getArgument(2).accept(List.of(waitingDatastrip));
+            return null;
+        }).when(datastripService).forEachDueForReconciliation(any(), eq(10), any());
+        when(datastripService.mergeTLAvailability(eq(TestHelper.DATASTRIP_NAME), any())).thenReturn(Optional.of(waitingDatastrip));
         when(datastripService.update(any())).thenReturn(waitingDatastrip);
         when(bucketProperties.getL1TLBucket()).thenReturn("bucket");
         when(obsService.exists(anyString(), eq(missingTL))).thenReturn(missingAvailableByTL);
         // When
-        datastripManagementService.updateTLComplete(TestHelper.DATASTRIP_NAME);
+        datastripManagementService.reconcile();
         // Then
+        verify(datastripService).mergeTLAvailability(TestHelper.DATASTRIP_NAME, waitingDatastrip.getAvailableByTL());
+        verify(datastripService).setTLComplete(TestHelper.DATASTRIP_NAME);
         assertTrue(waitingDatastrip.isTlComplete());
+        assertNotNull(waitingDatastrip.getLastReconciliationDate());
+    }
+
+    @Test
+    void reconcile_deleted() {
+        // Given
+        when(pwProperties.getReconciliationInterval()).thenReturn(900L);
+        when(pwProperties.getBacklogPageSize()).thenReturn(10);
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<L2Datastrip>>>getArgument(2).accept(List.of(waitingDatastrip));
+            return null;
+        }).when(datastripService).forEachDueForReconciliation(any(), eq(10), any());
+        when(datastripService.mergeTLAvailability(eq(TestHelper.DATASTRIP_NAME), any())).thenReturn(Optional.empty());
+        when(bucketProperties.getL1TLBucket()).thenReturn("bucket");
+        when(obsService.exists(anyString(), eq(missingTL))).thenReturn(missingAvailableByTL);
+        // When
+        datastripManagementService.reconcile();
+        // Then
+        verify(datastripService, never()).setTLComplete(any());
+        verify(datastripService, never()).update(any());
+    }
+
+    @Test
+    void reconcile_none() {
+        // Given
+        when(pwProperties.getReconciliationInterval()).thenReturn(900L);
+        when(pwProperties.getBacklogPageSize()).thenReturn(10);
+        // When
+        datastripManagementService.reconcile();
+        // Then
+        verify(obsService, never()).exists(anyString(), anySet());
+        verify(datastripService, never()).update(any());
     }
 
     @Test
     void create() throws IOException {
         // Given
         when(sharedProperties.getSharedFolderRoot()).thenReturn("/tmp");
-        when(datastripService.create(any(), any(), any(), any(), any(), any())).thenReturn(new L2Datastrip());
+        when(datastripService.create(any(), any(), any(), any(), any(), any())).thenReturn(waitingDatastrip);
+        when(datastripService.mergeTLAvailability(eq(TestHelper.DATASTRIP_NAME), any())).thenReturn(Optional.of(waitingDatastrip));
+        when(datastripService.update(any())).thenReturn(waitingDatastrip);
+        when(bucketProperties.getL1TLBucket()).thenReturn("bucket");
+        when(obsService.exists(anyString(), eq(missingTL))).thenReturn(missingAvailableByTL);
         try (MockedStatic<UUID> uuidMockedStatic = Mockito.mockStatic(UUID.class)) {
             uuidMockedStatic.when(UUID::randomUUID).thenReturn(AUX_UID);
             doAnswer(invocation -> {
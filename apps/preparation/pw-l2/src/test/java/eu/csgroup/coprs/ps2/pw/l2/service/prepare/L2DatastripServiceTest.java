@@ -18,26 +18,45 @@ package eu.csgroup.coprs.ps2.pw.l2.service.prepare;
 
 import eu.csgroup.coprs.ps2.core.common.test.AbstractTest;
 import eu.csgroup.coprs.ps2.core.pw.exception.MongoDBException;
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2Datastrip;
+import eu.csgroup.coprs.ps2.pw.l2.model.L2DatastripEntity;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2DatastripMapper;
 import eu.csgroup.coprs.ps2.pw.l2.repository.L2DatastripEntityRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.CloseableIterator;
+
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class L2DatastripServiceTest extends AbstractTest {
 
     @Mock
     private L2DatastripEntityRepository repository;
+    @Mock
+    private MongoTemplate mongoTemplate;
 
     private final L2DatastripMapper datastripMapper = Mappers.getMapper(L2DatastripMapper.class);
 
@@ -46,7 +65,7 @@ class L2DatastripServiceTest extends AbstractTest {
 
     @Override
     public void setup() throws Exception {
-        datastripService = new L2DatastripService(repository, datastripMapper);
+        datastripService = new L2DatastripService(repository, datastripMapper, mongoTemplate);
     }
 
     @Override
@@ -76,9 +95,9 @@ class L2DatastripServiceTest extends AbstractTest {
         assertEquals(TestHelper.SATELLITE, create.getSatellite());
         assertEquals(TestHelper.T0_PDGS_DATE, create.getT0PdgsDate());
         assertNotNull(create.getAvailableByAux());
-        assertTrue(create.getAvailableByAux().values().stream().noneMatch(Boolean::booleanValue));
+        assertEquals(0, create.getAvailableByAux().availableCount());
         assertEquals(TestHelper.TL_LIST.size(), create.getAvailableByTL().size());
-        assertTrue(create.getAvailableByTL().values().stream().noneMatch(Boolean::booleanValue));
+        assertEquals(0, create.getAvailableByTL().availableCount());
     }
 
     @Test
@@ -97,24 +116,31 @@ class L2DatastripServiceTest extends AbstractTest {
     }
 
     @Test
-    void readAll() {
-        // Gven
-        when(repository.findAllByTlCompleteAndReadyAndJobOrderCreated(anyBoolean(), anyBoolean(), anyBoolean())).thenReturn(List.of(TestHelper.DATASTRIP_ENTITY));
+    @SuppressWarnings("unchecked")
+    void forEachDueForReconciliation() {
+        // Given
+        final CloseableIterator<L2DatastripEntity> iterator = mock(CloseableIterator.class);
+        when(iterator.hasNext()).thenReturn(true, false);
+        when(iterator.next()).thenReturn(TestHelper.DATASTRIP_ENTITY);
+        when(mongoTemplate.stream(any(Query.class), eq(L2DatastripEntity.class))).thenReturn(iterator);
+        final List<L2Datastrip> datastrips = new ArrayList<>();
         // When
-        final List<L2Datastrip> L2Datastrips = datastripService.readAll(true, true, true);
+        datastripService.forEachDueForReconciliation(Instant.now(), 10, datastrips::addAll);
         // Then
-        assertEquals(1, L2Datastrips.size());
+        assertEquals(1, datastrips.size());
+        verify(iterator).close();
     }
 
     @Test
     void update() {
         // Given
-        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
         mockFind();
+        mockConverter();
         // When
         final L2Datastrip update = datastripService.update(TestHelper.UPDATED_DATASTRIP);
         // Then
         assertNotNull(update);
+        verify(repository, never()).save(any());
         assertEquals(TestHelper.DATASTRIP_NAME, update.getName());
         assertEquals(TestHelper.FOLDER, update.getFolder());
         assertEquals(TestHelper.START_TIME, update.getStartTime());
@@ -124,6 +150,62 @@ class L2DatastripServiceTest extends AbstractTest {
         assertTrue(update.isReady());
     }
 
+    @Test
+    void setTLAvailable() {
+        // Given
+        mockConverter();
+        when(mongoTemplate.findOne(any(Query.class), eq(L2DatastripEntity.class))).thenReturn(TestHelper.DATASTRIP_ENTITY);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(L2DatastripEntity.class)))
+                .thenReturn(TestHelper.DATASTRIP_ENTITY);
+        // When
+        final Optional<L2Datastrip> datastrip = datastripService.setTLAvailable(TestHelper.DATASTRIP_NAME, TestHelper.TL_LIST.get(0));
+        // Then
+        assertTrue(datastrip.isPresent());
+        assertEquals(TestHelper.DATASTRIP_NAME, datastrip.get().getName());
+    }
+
+    @Test
+    void setTLAvailable_unknown() {
+        // Given
+        when(mongoTemplate.findOne(any(Query.class), eq(L2DatastripEntity.class))).thenReturn(TestHelper.DATASTRIP_ENTITY);
+        // When
+        final Optional<L2Datastrip> datastrip = datastripService.setTLAvailable(TestHelper.DATASTRIP_NAME, "unknown");
+        // Then
+        assertTrue(datastrip.isEmpty());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(L2DatastripEntity.class));
+    }
+
+    @Test
+    void mergeTLAvailability() {
+        // Given
+        mockConverter();
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(L2DatastripEntity.class)))
+                .thenReturn(TestHelper.DATASTRIP_ENTITY);
+        final AvailabilityMap availableByTL = AvailabilityMap.of(TestHelper.TL_LIST).setAvailable(TestHelper.TL_LIST.get(0), true);
+        // When
+        final Optional<L2Datastrip> datastrip = datastripService.mergeTLAvailability(TestHelper.DATASTRIP_NAME, availableByTL);
+        // Then
+        assertTrue(datastrip.isPresent());
+        verify(mongoTemplate).findAndModify(
+                any(Query.class),
+                argThat(update -> update.getUpdateObject().containsKey("$bit") && !update.getUpdateObject().get("$set", Document.class).containsKey("availableByTL")),
+                any(FindAndModifyOptions.class),
+                eq(L2DatastripEntity.class)
+        );
+    }
+
+    @Test
+    void setTLComplete() {
+        // When
+        datastripService.setTLComplete(TestHelper.DATASTRIP_NAME);
+        // Then
+        verify(mongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(L2DatastripEntity.class));
+    }
+
+    private void mockConverter() {
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+    }
+
     private void mockExists(boolean exists) {
         when(repository.existsById(TestHelper.DATASTRIP_NAME)).thenReturn(exists);
     }
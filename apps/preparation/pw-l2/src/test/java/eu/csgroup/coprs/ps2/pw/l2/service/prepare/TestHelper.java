@@ -16,6 +16,7 @@
 
 package eu.csgroup.coprs.ps2.pw.l2.service.prepare;
 
+import eu.csgroup.coprs.ps2.core.pw.model.AvailabilityMap;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2AuxFile;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2Datastrip;
 import eu.csgroup.coprs.ps2.pw.l2.model.L2DatastripEntity;
@@ -27,8 +28,6 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public final class TestHelper {
 
@@ -50,9 +49,9 @@ public final class TestHelper {
 
     public static final L2Datastrip DATASTRIP = ((L2Datastrip) new L2Datastrip()
             .setFolder(FOLDER)
-            .setAvailableByTL(TL_LIST.stream().collect(Collectors.toMap(Function.identity(), o -> false)))
+            .setAvailableByTL(availabilityMap(TL_LIST, false))
             .setName(DATASTRIP_NAME)
-            .setAvailableByAux(Arrays.stream(L2AuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> false)))
+            .setAvailableByAux(availabilityMap(Arrays.stream(L2AuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList(), false))
             .setStartTime(START_TIME)
             .setStopTime(STOP_TIME)
             .setT0PdgsDate(T0_PDGS_DATE)
@@ -60,9 +59,9 @@ public final class TestHelper {
 
     public static final L2DatastripEntity DATASTRIP_ENTITY = (L2DatastripEntity) new L2DatastripEntity()
             .setFolder(FOLDER)
-            .setAvailableByTL(TL_LIST.stream().collect(Collectors.toMap(Function.identity(), o -> false)))
+            .setAvailableByTL(availabilityMap(TL_LIST, false))
             .setName(DATASTRIP_NAME)
-            .setAvailableByAux(Arrays.stream(L2AuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> false)))
+            .setAvailableByAux(availabilityMap(Arrays.stream(L2AuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList(), false))
             .setStartTime(START_TIME)
             .setStopTime(STOP_TIME)
             .setT0PdgsDate(T0_PDGS_DATE)
@@ -70,15 +69,21 @@ public final class TestHelper {
 
     public static final L2Datastrip UPDATED_DATASTRIP = ((L2Datastrip) new L2Datastrip()
             .setFolder(FOLDER)
-            .setAvailableByTL(TL_LIST.stream().collect(Collectors.toMap(Function.identity(), o -> true)))
+            .setAvailableByTL(availabilityMap(TL_LIST, true))
             .setName(DATASTRIP_NAME)
-            .setAvailableByAux(Arrays.stream(L2AuxFile.values()).collect(Collectors.toMap(auxFile -> auxFile.getAuxProductType().name(), o -> true)))
+            .setAvailableByAux(availabilityMap(Arrays.stream(L2AuxFile.values()).map(auxFile -> auxFile.getAuxProductType().name()).toList(), true))
             .setStartTime(START_TIME)
             .setStopTime(STOP_TIME)
             .setT0PdgsDate(T0_PDGS_DATE)
             .setSatellite(SATELLITE)
             .setReady(true));
 
+    private static AvailabilityMap availabilityMap(List<String> names, boolean available) {
+        final AvailabilityMap availabilityMap = AvailabilityMap.of(names);
+        names.forEach(name -> availabilityMap.setAvailable(name, available));
+        return availabilityMap;
+    }
+
     private TestHelper() {
     }
 
@@ -88,7 +88,7 @@ class L2PWInputManagementServiceTest extends AbstractTest {
 
         // Then
         verify(managementService, never()).create(any(), any(), any(), any());
-        verify(managementService).updateTLComplete(any());
+        verify(managementService).updateTLComplete(any(), any());
         assertNotNull(uuid);
     }
 
@@ -104,7 +104,7 @@ class L2PWInputManagementServiceTest extends AbstractTest {
 
         // Then
         verify(managementService, never()).create(any(), any(), any(), any());
-        verify(managementService, never()).updateTLComplete(any());
+        verify(managementService, never()).updateTLComplete(any(), any());
         assertNotNull(uuid);
     }
 